@@ -0,0 +1,226 @@
+plugins {
+    java
+    alias(libs.plugins.jmh)
+}
+
+repositories {
+    mavenCentral()
+    google()
+}
+
+/**
+ * Extension classes that are benchmarked.
+ * Compiled from the extension sources, so changes are benchmarked without building the extension.
+ */
+val extensionSources = listOf(
+    "app/revanced/extension/shared/patches/components/*.java",
+    "app/revanced/extension/shared/utils/BytePatternSearch.java",
+    "app/revanced/extension/shared/utils/*TrieSearch.java",
+    "app/revanced/extension/shared/utils/TrieAutomaton.java",
+    "app/revanced/extension/shared/utils/TrieTable.java",
+    "app/revanced/extension/youtube/patches/components/*.java",
+    "app/revanced/extension/youtube/shared/EngagementPanel.java",
+    "app/revanced/extension/youtube/shared/NavigationBar.java",
+)
+
+val syncExtensionSources = tasks.register<Sync>("syncExtensionSources") {
+    from(rootProject.file("extensions/shared/src/main/java")) {
+        include(extensionSources)
+    }
+    into(layout.buildDirectory.dir("extensionSources"))
+}
+
+sourceSets {
+    main {
+        java {
+            // JVM replacements of the Android dependent classes used by the extension classes.
+            // Compiled together, as some replacements use the extension classes.
+            setSrcDirs(listOf("src/stub/java"))
+            srcDir(syncExtensionSources)
+        }
+    }
+}
+
+/**
+ * Settings classes replaced by stubs. The stubs declare only the settings used by the benchmarked classes.
+ */
+val stubSettingsClasses = listOf(
+    "app/revanced/extension/shared/settings/BaseSettings.java",
+    "app/revanced/extension/youtube/settings/Settings.java",
+)
+
+/**
+ * English values of the string resources used as default values.
+ */
+val stubSettingsStrings = rootProject.file("patches/src/main/resources/youtube/settings/host/values/strings.xml")
+
+data class SettingDeclaration(val type: String, val key: String, val defaultValue: String, val rebootApp: Boolean)
+
+val settingDeclarationRegex =
+    Regex("""public\s+static\s+final\s+(\w+Setting)(?:<[^>]*>)?\s+(\w+)\s*=\s*new\s+\w+(?:<[^>]*>)?\s*\(""")
+
+/**
+ * @return The constructor arguments starting at [start], split at the top level commas.
+ */
+fun constructorArguments(source: String, start: Int): List<String> {
+    val arguments = mutableListOf<String>()
+    val argument = StringBuilder()
+    var depth = 0
+    var inString = false
+    var index = start
+    while (index < source.length) {
+        val c = source[index++]
+        if (inString) {
+            argument.append(c)
+            if (c == '\\') {
+                argument.append(source[index++])
+            } else if (c == '"') {
+                inString = false
+            }
+            continue
+        }
+        when (c) {
+            '"' -> {
+                inString = true
+                argument.append(c)
+            }
+            '(', '[', '{' -> {
+                depth++
+                argument.append(c)
+            }
+            ')', ']', '}' -> {
+                if (depth == 0) {
+                    arguments.add(argument.toString().trim())
+                    return arguments
+                }
+                depth--
+                argument.append(c)
+            }
+            ',' -> if (depth == 0) {
+                arguments.add(argument.toString().trim())
+                argument.setLength(0)
+            } else {
+                argument.append(c)
+            }
+            else -> argument.append(c)
+        }
+    }
+    throw GradleException("Unterminated setting declaration at index $start")
+}
+
+/**
+ * @return Settings declared by a settings class, by field name.
+ */
+fun parseSettings(file: File): Map<String, SettingDeclaration> {
+    val source = file.readText()
+    return settingDeclarationRegex.findAll(source).associate { match ->
+        val arguments = constructorArguments(source, match.range.last + 1)
+        match.groupValues[2] to SettingDeclaration(
+            type = match.groupValues[1],
+            key = arguments[0],
+            defaultValue = arguments[1].replace(Regex("""\s+"""), " "),
+            rebootApp = arguments.getOrNull(2) == "true",
+        )
+    }
+}
+
+/**
+ * @return String resource values as Java string literals, by resource name.
+ */
+fun parseStringResources(file: File): Map<String, String> =
+    Regex("""<string name="(\w+)"[^>]*>(.*?)</string>""", RegexOption.DOT_MATCHES_ALL)
+        .findAll(file.readText())
+        .associate { match ->
+            val value = match.groupValues[2]
+                .replace("&lt;", "<")
+                .replace("&gt;", ">")
+                .replace("&quot;", "\"")
+                .replace("&apos;", "'")
+                .replace("&amp;", "&")
+            match.groupValues[1] to "\"$value\""
+        }
+
+// The stubs are copies of the extension settings. Fails if a copy differs from the extension,
+// so a changed key or default value is not silently benchmarked with the old value.
+val verifyStubSettings = tasks.register("verifyStubSettings") {
+    group = "verification"
+    description = "Verifies the stub settings are the same as the extension settings."
+    val stubFiles = stubSettingsClasses.map { file("src/stub/java/$it") }
+    val extensionFiles = stubSettingsClasses.map { rootProject.file("extensions/shared/src/main/java/$it") }
+    inputs.files(stubFiles, extensionFiles, stubSettingsStrings)
+
+    doLast {
+        val strings = parseStringResources(stubSettingsStrings)
+        val differences = mutableListOf<String>()
+        for ((stubFile, extensionFile) in stubFiles.zip(extensionFiles)) {
+            val extensionSettings = parseSettings(extensionFile)
+            for ((name, stubSetting) in parseSettings(stubFile)) {
+                val extensionSetting = extensionSettings[name]
+                if (extensionSetting == null) {
+                    differences.add("${stubFile.name}: $name is not an extension setting")
+                    continue
+                }
+                // Default values that are string resources use the English value.
+                val resource = Regex("""str\("(\w+)"\)""").matchEntire(extensionSetting.defaultValue)
+                val expected = resource?.let { strings[it.groupValues[1]] }
+                    ?.let { extensionSetting.copy(defaultValue = it) }
+                    ?: extensionSetting
+                if (stubSetting != expected) {
+                    differences.add("${stubFile.name}: $name is $stubSetting but the extension is $expected")
+                }
+            }
+        }
+        if (differences.isNotEmpty()) {
+            throw GradleException("Stub settings differ from the extension:\n" + differences.joinToString("\n"))
+        }
+    }
+}
+
+tasks.compileJava {
+    dependsOn(verifyStubSettings)
+}
+
+dependencies {
+    compileOnly(libs.annotation)
+    implementation(libs.lang3)
+    "jmhCompileOnly"(libs.annotation)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_17
+    targetCompatibility = JavaVersion.VERSION_17
+}
+
+jmh {
+    jmhVersion = libs.versions.jmh
+    fork = 1
+    warmupIterations = 3
+    iterations = 5
+    timeUnit = "us"
+    benchmarkMode = listOf("avgt")
+    // Optional captured corpus directory. See README.md.
+    providers.gradleProperty("corpus").orNull?.let {
+        jvmArgsAppend = listOf("-Drevanced.benchmark.corpus=" + file(it).absolutePath)
+    }
+    includes = providers.gradleProperty("benchmarks").map { listOf(it) }.orElse(listOf())
+    resultFormat = "JSON"
+    resultsFile = layout.buildDirectory.file("results/jmh/results.json")
+}
+
+// Replays a capture of the extension. See README.md.
+tasks.register<JavaExec>("replayLithoCapture") {
+    group = "benchmark"
+    description = "Replays a Litho capture through the Litho filter patch and the YouTube filters."
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass = "app.revanced.benchmarks.LithoCaptureReplay"
+    val components = providers.gradleProperty("components").orNull?.let { file(it).absolutePath }
+    val settings = providers.gradleProperty("settings").orNull?.let { file(it).absolutePath }
+    if (settings != null && components == null) {
+        throw GradleException("-Psettings also requires -Pcomponents")
+    }
+    args = listOfNotNull(
+        providers.gradleProperty("capture").orNull?.let { file(it).absolutePath },
+        components,
+        settings,
+    )
+}
@@ -0,0 +1,99 @@
+"""Extract the filter patterns of the Litho filters, for use by the JMH benchmarks.
+
+This module scans the Java sources of the Litho filters (classes in a `patches/components` package),
+and writes every pattern of each `StringFilterGroup` and `ByteArrayFilterGroup` to a tab separated file.
+The output is checked in, so benchmark results of different commits use the same patterns.
+Run this again only when the pattern set used for benchmarking should be updated.
+
+Each output line is '<app>\t<filter>\t<group>\t<type>\t<pattern>', where type is one of:
+identifier, path, allvalue (groups registered as filter callbacks),
+string (other string groups), or bytes (byte array groups that search the proto buffer).
+"""
+# ruff: noqa: T201
+
+from __future__ import annotations
+
+import argparse
+import re
+import sys
+from pathlib import Path
+
+DEFAULT_SOURCE_DIR = Path(__file__).parent.parent / "extensions/shared/src/main/java/app/revanced/extension"
+DEFAULT_OUTPUT_FILE = Path(__file__).parent / "src/jmh/resources/filter_patterns.tsv"
+
+COMMENT_PATTERN = re.compile(r"//[^\n]*|/\*.*?\*/", re.DOTALL)
+STRING_LITERAL_PATTERN = re.compile(r'"((?:[^"\\]|\\.)*)"')
+GROUP_DECLARATION_PATTERN = re.compile(r"(?:(\w+)\s*=\s*)?new (StringFilterGroup|ByteArrayFilterGroup)\s*\(")
+CALLBACKS_PATTERN = re.compile(r"add(Identifier|Path|AllValue)Callbacks\s*\(")
+
+
+def find_arguments(source: str, start: int) -> str:
+    """Return the text between the parenthesis that opens at index start - 1 and its closing parenthesis."""
+    depth = 1
+    index = start
+    while depth > 0 and index < len(source):
+        character = source[index]
+        if character == '"':
+            index = source.index('"', index + 1)
+            while source[index - 1] == "\\":
+                index = source.index('"', index + 1)
+        elif character == "(":
+            depth += 1
+        elif character == ")":
+            depth -= 1
+        index += 1
+    return source[start:index - 1]
+
+
+def unescape(literal: str) -> str:
+    return literal.encode("latin-1", "backslashreplace").decode("unicode_escape")
+
+
+def extract_patterns(java_file: Path, app: str) -> list[tuple[str, str, str, str, str]]:
+    """Return the patterns of all filter groups declared in a Java source file."""
+    source = COMMENT_PATTERN.sub("", java_file.read_text(encoding="utf-8"))
+    filter_name = java_file.stem
+
+    callback_types: dict[str, str] = {}
+    for match in CALLBACKS_PATTERN.finditer(source):
+        for name in find_arguments(source, match.end()).split(","):
+            callback_types[name.strip()] = match.group(1).lower()
+
+    rows = []
+    for match in GROUP_DECLARATION_PATTERN.finditer(source):
+        group_name = match.group(1) or "(anonymous)"
+        if match.group(2) == "ByteArrayFilterGroup":
+            group_type = "bytes"
+        else:
+            group_type = callback_types.get(group_name, "string")
+        rows.extend(
+            (app, filter_name, group_name, group_type, unescape(literal))
+            for literal in STRING_LITERAL_PATTERN.findall(find_arguments(source, match.end()))
+        )
+    return rows
+
+
+def main() -> int:
+    parser = argparse.ArgumentParser(description="Extract Litho filter patterns for the JMH benchmarks.")
+    parser.add_argument("-s", "--source", type=Path, default=DEFAULT_SOURCE_DIR, help="Extension source directory.")
+    parser.add_argument("-o", "--output", type=Path, default=DEFAULT_OUTPUT_FILE, help="Output file.")
+    args = parser.parse_args()
+
+    rows = []
+    for java_file in sorted(args.source.glob("*/patches/components/*.java")):
+        app = java_file.relative_to(args.source).parts[0]
+        rows.extend(extract_patterns(java_file, app))
+
+    if not rows:
+        print(f"Error: No filter patterns found in '{args.source}'.", file=sys.stderr)
+        return 1
+
+    with args.output.open("w", encoding="utf-8", newline="\n") as f:
+        for row in rows:
+            f.write("\t".join(row) + "\n")
+    print(f"Wrote {len(rows)} patterns to {args.output}")
+    return 0
+
+
+if __name__ == "__main__":
+    sys.exit(main())
@@ -0,0 +1,77 @@
+"""Extract a Litho path corpus from debug logs, for use by the JMH benchmarks.
+
+Enable debug logging in the app, capture the logs (for example with 'adb logcat > log.txt'),
+and browse the app to filter Litho components. Each 'Searching' debug log message of the
+Litho filter includes the identifier and path of a component, and these are written
+to 'paths.tsv' in the output directory. Duplicate components are kept, as the number of times
+a component is filtered is part of a realistic corpus.
+"""
+# ruff: noqa: T201
+
+from __future__ import annotations
+
+import argparse
+import re
+import sys
+from pathlib import Path
+
+IDENTIFIER_PATTERN = re.compile(r"\bID: (.*)$")
+PATH_PATTERN = re.compile(r"\bPath: (.*)$")
+
+
+def parse_log_data(log_file_path: str) -> list[tuple[str, str]] | None:
+    """Parse a log file and extract the identifier and path of each filtered component.
+
+    Args:
+        log_file_path: Path to the log file.
+
+    Returns:
+        A list of identifier and path tuples, or None if an error occurs.
+
+    """
+    components = []
+    identifier = None
+    try:
+        with Path(log_file_path).open(encoding="utf-8", errors="replace") as f:
+            for line_content in f:
+                line_content = line_content.rstrip("\r\n")
+                match = IDENTIFIER_PATTERN.search(line_content)
+                if match:
+                    identifier = match.group(1)
+                    continue
+                match = PATH_PATTERN.search(line_content)
+                if match and identifier is not None:
+                    components.append(("" if identifier == "null" else identifier, match.group(1)))
+                    identifier = None
+    except FileNotFoundError:
+        print(f"Error: Log file '{log_file_path}' not found.", file=sys.stderr)
+        return None
+    except OSError as e:
+        print(f"An error occurred while reading the file: {e}", file=sys.stderr)
+        return None
+    return components
+
+
+def main() -> int:
+    parser = argparse.ArgumentParser(description="Extract a Litho path corpus from debug logs.")
+    parser.add_argument("-f", "--file", required=True, help="Path to the log file.")
+    parser.add_argument("-o", "--output", type=Path, required=True, help="Corpus output directory.")
+    args = parser.parse_args()
+
+    components = parse_log_data(args.file)
+    if components is None:
+        return 1
+    if not components:
+        print("Error: No Litho filter debug logs found.", file=sys.stderr)
+        return 1
+
+    args.output.mkdir(parents=True, exist_ok=True)
+    with (args.output / "paths.tsv").open("w", encoding="utf-8", newline="\n") as f:
+        for identifier, path in components:
+            f.write(f"{identifier}\t{path}\n")
+    print(f"Wrote {len(components)} components to {args.output / 'paths.tsv'}")
+    return 0
+
+
+if __name__ == "__main__":
+    sys.exit(main())
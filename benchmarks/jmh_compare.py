@@ -0,0 +1,83 @@
+"""Compare two JMH result files and display the difference of each benchmark.
+
+Run the benchmarks for each commit to compare, and copy each results file
+(benchmarks/build/results/jmh/results.json) before running the next commit.
+The output is a Markdown formatted table.
+"""
+# ruff: noqa: T201
+
+from __future__ import annotations
+
+import argparse
+import json
+import sys
+from pathlib import Path
+
+
+def load_results(results_file_path: str) -> dict[str, dict] | None:
+    """Load a JMH JSON results file.
+
+    Args:
+        results_file_path: Path to the results file.
+
+    Returns:
+        A dictionary mapping the benchmark name and parameters to the primary metric, or None if an error occurs.
+
+    """
+    try:
+        with Path(results_file_path).open(encoding="utf-8") as f:
+            results = json.load(f)
+    except FileNotFoundError:
+        print(f"Error: Results file '{results_file_path}' not found.", file=sys.stderr)
+        return None
+    except (OSError, json.JSONDecodeError) as e:
+        print(f"An error occurred while reading the file: {e}", file=sys.stderr)
+        return None
+
+    metrics = {}
+    for result in results:
+        name = result["benchmark"].rsplit(".", 2)[-2:]
+        params = result.get("params")
+        key = ".".join(name)
+        if params:
+            key += " (" + ", ".join(f"{k}={v}" for k, v in sorted(params.items())) + ")"
+        metrics[key] = result["primaryMetric"]
+    return metrics
+
+
+def format_score(metric: dict | None) -> str:
+    if metric is None:
+        return "-"
+    error = metric.get("scoreError")
+    if isinstance(error, (int, float)) and error == error:  # NaN if too few iterations.
+        return f"{metric['score']:.3f} ± {error:.3f}"
+    return f"{metric['score']:.3f}"
+
+
+def main() -> int:
+    parser = argparse.ArgumentParser(description="Compare two JMH JSON result files.")
+    parser.add_argument("baseline", help="Results file of the baseline commit.")
+    parser.add_argument("current", help="Results file of the commit to compare.")
+    args = parser.parse_args()
+
+    baseline = load_results(args.baseline)
+    current = load_results(args.current)
+    if baseline is None or current is None:
+        return 1
+
+    print("| Benchmark | Unit | Baseline | Current | Change |")
+    print("|-----------|------|----------|---------|--------|")
+    for key in sorted(set(baseline) | set(current)):
+        old = baseline.get(key)
+        new = current.get(key)
+        unit = (new or old)["scoreUnit"]
+        if old is not None and new is not None and old["score"] != 0:
+            change = f"{(new['score'] - old['score']) / old['score'] * 100:+.1f}%"
+        else:
+            change = "-"
+        print(f"| {key} | {unit} | {format_score(old)} | {format_score(new)} | {change} |")
+    return 0
+
+
+if __name__ == "__main__":
+    sys.exit(main())
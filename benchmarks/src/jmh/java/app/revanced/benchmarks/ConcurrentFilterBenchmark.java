@@ -0,0 +1,401 @@
+package app.revanced.benchmarks;
+
+import android.app.Activity;
+import android.view.View;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import app.revanced.extension.shared.patches.components.ByteArrayFilterGroup;
+import app.revanced.extension.shared.patches.components.ByteArrayFilterGroupList;
+import app.revanced.extension.shared.patches.components.Filter;
+import app.revanced.extension.shared.patches.components.LithoFilterPatch;
+import app.revanced.extension.shared.settings.BaseSettings;
+import app.revanced.extension.shared.utils.Logger;
+import app.revanced.extension.shared.utils.Utils;
+import app.revanced.extension.youtube.patches.components.KeywordContentFilter;
+import app.revanced.extension.youtube.patches.components.LayoutReloadObserverFilter;
+import app.revanced.extension.youtube.settings.Settings;
+import app.revanced.extension.youtube.shared.NavigationBar;
+import app.revanced.extension.youtube.shared.NavigationBar.NavigationButton;
+import app.revanced.extension.youtube.shared.PlayerType;
+import app.revanced.extension.youtube.shared.RootView;
+
+/**
+ * Stress test of filtering from many threads at once,
+ * the same as when the Litho layout thread pool uses more than 1 thread.
+ * <ul>
+ *   <li>Filter groups: new groups are created for each iteration, so the threads also race to lazily
+ *       build the searches. Every result is compared with the result of a single thread.</li>
+ *   <li>Litho filter patch: components are filtered by the YouTube filters, and every verdict is compared
+ *       with the verdict of a single thread.</li>
+ *   <li>Keyword filter: every video is hidden by a keyword, until the statistics detect the keyword hides
+ *       all videos and filtering is paused. The statistics must be the same as with a single thread.</li>
+ *   <li>Layout reload observer: the action bar visible time is extended by all threads,
+ *       and every thread must read a visible time that was written by a thread.</li>
+ *   <li>Navigation bar: one thread presses back and selects a tab, the same as the main thread,
+ *       while the other threads wait for the selected tab.</li>
+ * </ul>
+ * A wrong result fails the benchmark. The Litho filter patch is initialized once,
+ * so the benchmarks must use a forked JVM.
+ */
+@State(Scope.Benchmark)
+@Threads(ConcurrentFilterBenchmark.THREADS)
+public class ConcurrentFilterBenchmark {
+
+    static final int THREADS = 8;
+
+    private LithoCorpus corpus;
+    private List<String[]> groupPatterns;
+
+    /**
+     * Single thread result of each buffer and group.
+     */
+    private boolean[][] expectedGroupResults;
+    private boolean[] expectedListResults;
+
+    private ByteArrayFilterGroup[] bufferGroups;
+    private ByteArrayFilterGroupList bufferGroupList;
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        int threadIndex;
+        int nextBuffer;
+        int nextComponent;
+        boolean selectHome;
+
+        @Setup
+        public void setup(ThreadParams params) {
+            threadIndex = params.getThreadIndex();
+            // Each thread starts at a different buffer and component.
+            nextBuffer = threadIndex * 31;
+            nextComponent = threadIndex * 97;
+        }
+    }
+
+    private static Object getField(Class<?> type, Object instance, String name) throws ReflectiveOperationException {
+        Field field = type.getDeclaredField(name);
+        field.setAccessible(true);
+        return field.get(instance);
+    }
+
+    @State(Scope.Benchmark)
+    public static class LithoFilterPatchState {
+        @Param({"false", "true"})
+        public boolean verdictCache;
+
+        @Param({"false", "true"})
+        public boolean bufferIndex;
+
+        LithoCorpus corpus;
+
+        /**
+         * Single thread verdict of each component.
+         */
+        boolean[] expectedVerdicts;
+
+        int exceptionCount;
+
+        @Setup(Level.Trial)
+        public void setupTrial() throws IOException, ReflectiveOperationException {
+            // Settings must be set before LithoFilterPatch is initialized.
+            BaseSettings.LITHO_FILTER_VERDICT_CACHE.save(verdictCache);
+            BaseSettings.LITHO_FILTER_BUFFER_INDEX.save(bufferIndex);
+            BaseSettings.LITHO_LAYOUT_THREAD_POOL_SIZE.save(THREADS);
+
+            corpus = LithoCorpus.get();
+            LithoFilters.add(LithoFilters.createYouTubeFilters());
+            LithoFilters.selectNavigationButton(LithoFilters.AppNavigationEnum.PIVOT_HOME);
+
+            expectedVerdicts = new boolean[corpus.paths.length];
+            for (int i = 0; i < expectedVerdicts.length; i++) {
+                expectedVerdicts[i] = filter(i);
+            }
+        }
+
+        boolean filter(int componentIndex) {
+            LithoFilterPatch.setProtoBuffer(corpus.buffers[componentIndex % corpus.buffers.length]);
+            return LithoFilterPatch.isFiltered(new StringBuilder(corpus.paths[componentIndex]),
+                    corpus.identifiers[componentIndex], "");
+        }
+
+        @Setup(Level.Iteration)
+        public void setupIteration() {
+            exceptionCount = Logger.getExceptionCount();
+        }
+
+        @TearDown(Level.Iteration)
+        public void verify() {
+            if (Logger.getExceptionCount() != exceptionCount) {
+                throw new IllegalStateException("Filtering logged an exception");
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class KeywordFilterState {
+        static final String KEYWORD = "benchmarkkeyword";
+        static final String PATH = "video_lockup_with_attachment.eml|ContainerType|";
+        /**
+         * Path that is never filtered and does not update the statistics.
+         */
+        static final String EXCEPTION_PATH = "thumbnail.eml|ContainerType|";
+        static final byte[] BUFFER = ("video title with a " + KEYWORD + " in it").getBytes(StandardCharsets.UTF_8);
+
+        /**
+         * Hidden videos before filtering is paused by a single thread.
+         */
+        int expectedHiddenCount;
+
+        /**
+         * Statistics after filtering is paused by a single thread.
+         */
+        int expectedStatisticsBits;
+
+        float threshold;
+
+        KeywordContentFilter filter;
+        AtomicInteger statisticsBits;
+        AtomicLong timeToResumeFiltering;
+        final AtomicInteger hiddenCount = new AtomicInteger();
+        int toastCount;
+
+        @Setup(Level.Trial)
+        public void setupTrial() throws ReflectiveOperationException {
+            Settings.HIDE_KEYWORD_CONTENT_HOME.save(true);
+            Settings.HIDE_KEYWORD_CONTENT_SEARCH.save(true);
+            Settings.HIDE_KEYWORD_CONTENT_SUBSCRIPTIONS.save(true);
+            Settings.HIDE_KEYWORD_CONTENT_PHRASES.save(KEYWORD);
+
+            // Same calculation as the filter, so the statistics are exactly the same.
+            threshold = (float) getField(KeywordContentFilter.class, null, "ALL_VIDEOS_FILTERED_THRESHOLD");
+            final float sampleSize = (float) getField(KeywordContentFilter.class, null, "ALL_VIDEOS_FILTERED_SAMPLE_SIZE");
+            float average = 0;
+            expectedHiddenCount = 1; // The video that pauses filtering is also hidden.
+            while (true) {
+                final float updatedAverage = average * ((sampleSize - 1) / sampleSize) + 1 / sampleSize;
+                if (updatedAverage > threshold) {
+                    break;
+                }
+                average = updatedAverage;
+                expectedHiddenCount++;
+            }
+            expectedStatisticsBits = Float.floatToIntBits(average);
+        }
+
+        @Setup(Level.Iteration)
+        public void setupIteration() throws ReflectiveOperationException {
+            filter = new KeywordContentFilter();
+            // Keywords are parsed by the first call, and parsing resets the statistics.
+            // Parse before the threads start, so the statistics are reset only once.
+            filter.isFiltered(EXCEPTION_PATH, null, "", BUFFER, null, Filter.FilterContentType.PATH, 0);
+            statisticsBits = (AtomicInteger) getField(KeywordContentFilter.class, filter, "filteredVideosPercentageBits");
+            timeToResumeFiltering = (AtomicLong) getField(KeywordContentFilter.class, filter, "timeToResumeFiltering");
+            hiddenCount.set(0);
+            toastCount = Utils.getToastCount();
+        }
+
+        @TearDown(Level.Iteration)
+        public void verify() {
+            // Threads that started filtering a video before filtering was paused also hide the video.
+            final int hidden = hiddenCount.get();
+            if (hidden < expectedHiddenCount || hidden > expectedHiddenCount + THREADS - 1) {
+                throw new IllegalStateException("Hidden videos: " + hidden + " expected: " + expectedHiddenCount);
+            }
+            if (statisticsBits.get() != expectedStatisticsBits) {
+                throw new IllegalStateException("Statistics: " + Float.intBitsToFloat(statisticsBits.get())
+                        + " expected: " + Float.intBitsToFloat(expectedStatisticsBits));
+            }
+            if (timeToResumeFiltering.get() == 0) {
+                throw new IllegalStateException("Filtering was not paused");
+            }
+            if (Utils.getToastCount() != toastCount + 1) {
+                throw new IllegalStateException("Toasts shown: " + (Utils.getToastCount() - toastCount));
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ActionBarState {
+        static final String PATH = "video_action_bar.eml|ContainerType|";
+        static final String IDENTIFIER = "video_action_bar.eml";
+
+        LayoutReloadObserverFilter filter;
+        Field actionBarVisibleUntil;
+        long visibleMilliseconds;
+
+        @Setup(Level.Trial)
+        public void setupTrial() throws ReflectiveOperationException {
+            PlayerType.setFromString(PlayerType.WATCH_WHILE_MINIMIZED.name());
+            filter = new LayoutReloadObserverFilter();
+            actionBarVisibleUntil = LayoutReloadObserverFilter.class.getDeclaredField("actionBarVisibleUntil");
+            actionBarVisibleUntil.setAccessible(true);
+            visibleMilliseconds = (long) getField(LayoutReloadObserverFilter.class, null, "ACTION_BAR_VISIBLE_MILLISECONDS");
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class NavigationState {
+        final Activity activity = new Activity();
+
+        // Kept, as the navigation bar only weakly references the views.
+        View homeView;
+        View subscriptionsView;
+
+        AtomicReference<?> navButtonLatch;
+        long latchTimeoutMilliseconds;
+
+        @Setup(Level.Trial)
+        public void setupTrial() throws ReflectiveOperationException {
+            subscriptionsView = LithoFilters.selectNavigationButton(LithoFilters.AppNavigationEnum.PIVOT_SUBSCRIPTIONS);
+            homeView = LithoFilters.selectNavigationButton(LithoFilters.AppNavigationEnum.PIVOT_HOME);
+            navButtonLatch = (AtomicReference<?>) getField(NavigationBar.class, null, "navButtonLatch");
+            latchTimeoutMilliseconds = (long) getField(NavigationBar.class, null, "LATCH_AWAIT_TIMEOUT_MILLISECONDS");
+        }
+
+        @TearDown(Level.Iteration)
+        public void verify() {
+            // Each back button press is followed by a selected tab, and the latch must always be released.
+            if (navButtonLatch.get() != null) {
+                throw new IllegalStateException("Navigation button latch was not released");
+            }
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setupTrial() throws IOException {
+        corpus = LithoCorpus.get();
+        groupPatterns = new ArrayList<>();
+        for (List<String> patterns : FilterPatterns.get().groups("bytes").values()) {
+            groupPatterns.add(patterns.toArray(new String[0]));
+        }
+
+        createGroups();
+        final int bufferCount = corpus.buffers.length;
+        expectedGroupResults = new boolean[bufferCount][bufferGroups.length];
+        expectedListResults = new boolean[bufferCount];
+        for (int i = 0; i < bufferCount; i++) {
+            byte[] buffer = corpus.buffers[i];
+            for (int j = 0; j < bufferGroups.length; j++) {
+                expectedGroupResults[i][j] = bufferGroups[j].check(buffer).isFiltered();
+            }
+            expectedListResults[i] = bufferGroupList.check(buffer).isFiltered();
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void createGroups() {
+        bufferGroups = new ByteArrayFilterGroup[groupPatterns.size()];
+        for (int i = 0; i < bufferGroups.length; i++) {
+            bufferGroups[i] = new ByteArrayFilterGroup(null, groupPatterns.get(i));
+        }
+        bufferGroupList = new ByteArrayFilterGroupList();
+        bufferGroupList.addAll(bufferGroups);
+    }
+
+    @Benchmark
+    public void concurrentCheck(ThreadState state, Blackhole blackhole) {
+        final int bufferIndex = state.nextBuffer++ % corpus.buffers.length;
+        byte[] buffer = corpus.buffers[bufferIndex];
+
+        for (int i = 0; i < bufferGroups.length; i++) {
+            final boolean isFiltered = bufferGroups[i].check(buffer).isFiltered();
+            if (isFiltered != expectedGroupResults[bufferIndex][i]) {
+                throw new IllegalStateException("Wrong group result for buffer: " + bufferIndex + " group: " + i);
+            }
+            blackhole.consume(isFiltered);
+        }
+
+        final boolean isFiltered = bufferGroupList.check(buffer).isFiltered();
+        if (isFiltered != expectedListResults[bufferIndex]) {
+            throw new IllegalStateException("Wrong group list result for buffer: " + bufferIndex);
+        }
+        blackhole.consume(isFiltered);
+    }
+
+    @Benchmark
+    public boolean concurrentLithoFilter(LithoFilterPatchState state, ThreadState thread) {
+        final int componentIndex = thread.nextComponent++ % state.expectedVerdicts.length;
+        final boolean isFiltered = state.filter(componentIndex);
+        if (isFiltered != state.expectedVerdicts[componentIndex]) {
+            throw new IllegalStateException("Wrong verdict for component: " + componentIndex);
+        }
+        return isFiltered;
+    }
+
+    @Benchmark
+    public boolean concurrentKeywordStatistics(KeywordFilterState state) {
+        final boolean isFiltered = state.filter.isFiltered(KeywordFilterState.PATH, null, "",
+                KeywordFilterState.BUFFER, null, Filter.FilterContentType.PATH, 0);
+        if (isFiltered) {
+            state.hiddenCount.incrementAndGet();
+        }
+
+        final float average = Float.intBitsToFloat(state.statisticsBits.get());
+        if (!(average >= 0 && average <= state.threshold)) {
+            throw new IllegalStateException("Statistics out of range: " + average);
+        }
+        return isFiltered;
+    }
+
+    @Benchmark
+    public boolean concurrentActionBarVisibility(ActionBarState state) throws IllegalAccessException {
+        if (state.filter.isFiltered(ActionBarState.PATH, ActionBarState.IDENTIFIER, "", new byte[0],
+                null, Filter.FilterContentType.IDENTIFIER, 0)) {
+            throw new IllegalStateException("Action bar was filtered");
+        }
+
+        // Written by this thread or another thread, and never before the time this thread read.
+        final long visibleUntil = state.actionBarVisibleUntil.getLong(null);
+        final long now = System.currentTimeMillis();
+        if (visibleUntil <= now || visibleUntil > now + state.visibleMilliseconds) {
+            throw new IllegalStateException("Action bar visible until: " + visibleUntil + " time: " + now);
+        }
+        if (!LayoutReloadObserverFilter.isActionBarVisible() || !RootView.isPlayerActive()) {
+            throw new IllegalStateException("Player is not active after the action bar is loaded");
+        }
+        return true;
+    }
+
+    @Benchmark
+    public NavigationButton concurrentNavigationLatch(NavigationState state, ThreadState thread) {
+        if (thread.threadIndex == 0) {
+            // The main thread of the app.
+            NavigationBar.onBackPressed(state.activity);
+            thread.selectHome = !thread.selectHome;
+            NavigationBar.navigationTabSelected(thread.selectHome ? state.homeView : state.subscriptionsView, true);
+            return null;
+        }
+
+        final long startTime = System.nanoTime();
+        NavigationButton button = NavigationButton.getSelectedNavigationButton();
+        final long waitMilliseconds = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        if (button != NavigationButton.HOME && button != NavigationButton.SUBSCRIPTIONS) {
+            throw new IllegalStateException("Wrong navigation button: " + button);
+        }
+        // A thread waits for at most one latch.
+        if (waitMilliseconds >= 2 * state.latchTimeoutMilliseconds) {
+            throw new IllegalStateException("Navigation button wait: " + waitMilliseconds + " ms");
+        }
+        return button;
+    }
+}
@@ -0,0 +1,77 @@
+package app.revanced.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import app.revanced.extension.shared.patches.components.ByteArrayFilterGroup;
+import app.revanced.extension.shared.patches.components.ByteArrayFilterGroupList;
+import app.revanced.extension.shared.patches.components.StringFilterGroup;
+import app.revanced.extension.shared.patches.components.StringFilterGroupList;
+
+/**
+ * Checks the entire corpus with filter groups and filter group lists,
+ * using the groups of the real filters. All groups are enabled.
+ */
+@State(Scope.Benchmark)
+public class FilterGroupBenchmark {
+
+    private LithoCorpus corpus;
+
+    /**
+     * Each byte array group of the real filters, checked separately using KMP.
+     */
+    private ByteArrayFilterGroup[] bufferGroups;
+    private ByteArrayFilterGroupList bufferGroupList;
+    private StringFilterGroupList pathGroupList;
+
+    @Setup
+    public void setup() throws IOException {
+        FilterPatterns patterns = FilterPatterns.get();
+        corpus = LithoCorpus.get();
+
+        List<ByteArrayFilterGroup> bufferGroups = new ArrayList<>();
+        for (List<String> groupPatterns : patterns.groups("bytes").values()) {
+            bufferGroups.add(new ByteArrayFilterGroup(null, groupPatterns.toArray(new String[0])));
+        }
+        this.bufferGroups = bufferGroups.toArray(new ByteArrayFilterGroup[0]);
+        bufferGroupList = new ByteArrayFilterGroupList();
+        bufferGroupList.addAll(this.bufferGroups);
+
+        List<StringFilterGroup> pathGroups = new ArrayList<>();
+        for (List<String> groupPatterns : patterns.groups("path").values()) {
+            pathGroups.add(new StringFilterGroup(null, groupPatterns.toArray(new String[0])));
+        }
+        pathGroupList = new StringFilterGroupList();
+        pathGroupList.addAll(pathGroups.toArray(new StringFilterGroup[0]));
+    }
+
+    @Benchmark
+    public void byteArrayFilterGroupCheck(Blackhole blackhole) {
+        for (byte[] buffer : corpus.buffers) {
+            for (ByteArrayFilterGroup group : bufferGroups) {
+                blackhole.consume(group.check(buffer).isFiltered());
+            }
+        }
+    }
+
+    @Benchmark
+    public void byteArrayFilterGroupListCheck(Blackhole blackhole) {
+        for (byte[] buffer : corpus.buffers) {
+            blackhole.consume(bufferGroupList.check(buffer).isFiltered());
+        }
+    }
+
+    @Benchmark
+    public void stringFilterGroupListCheck(Blackhole blackhole) {
+        for (String path : corpus.paths) {
+            blackhole.consume(pathGroupList.check(path).isFiltered());
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package app.revanced.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Patterns of the real Litho filters, extracted by extract_filter_patterns.py.
+ */
+final class FilterPatterns {
+
+    private static final String PATTERNS_RESOURCE = "/filter_patterns.tsv";
+
+    private static FilterPatterns instance;
+
+    /**
+     * Patterns of each filter group, keyed by the group type and then by 'filter.group'.
+     */
+    private final Map<String, Map<String, List<String>>> groupsByType = new LinkedHashMap<>();
+
+    private FilterPatterns() throws IOException {
+        try (InputStream stream = Objects.requireNonNull(FilterPatterns.class.getResourceAsStream(PATTERNS_RESOURCE));
+             BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] columns = line.split("\t", 5);
+                if (columns.length != 5) {
+                    throw new IOException("Invalid pattern line: " + line);
+                }
+                final String group = columns[0] + '.' + columns[1] + '.' + columns[2];
+                groupsByType.computeIfAbsent(columns[3], key -> new LinkedHashMap<>())
+                        .computeIfAbsent(group, key -> new ArrayList<>())
+                        .add(columns[4]);
+            }
+        }
+    }
+
+    static synchronized FilterPatterns get() throws IOException {
+        if (instance == null) {
+            instance = new FilterPatterns();
+        }
+        return instance;
+    }
+
+    /**
+     * @param type identifier, path, allvalue, string or bytes.
+     * @return Patterns of each group of the type.
+     */
+    Map<String, List<String>> groups(String type) {
+        Map<String, List<String>> groups = groupsByType.get(type);
+        return groups == null ? Collections.emptyMap() : groups;
+    }
+
+    /**
+     * @return All patterns of the type, without duplicates.
+     */
+    List<String> patterns(String type) {
+        List<String> patterns = new ArrayList<>();
+        for (List<String> groupPatterns : groups(type).values()) {
+            for (String pattern : groupPatterns) {
+                if (!patterns.contains(pattern)) {
+                    patterns.add(pattern);
+                }
+            }
+        }
+        return patterns;
+    }
+}
@@ -0,0 +1,118 @@
+package app.revanced.benchmarks;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Litho components captured by the extension setting 'Capture Litho components'.
+ * See LithoFilterCapture in the extension for the file format.
+ */
+final class LithoCapture {
+
+    private static final int MAGIC = 0x52564C43; // "RVLC"
+    private static final short VERSION = 1;
+    private static final byte RECORD_BUFFER = 1;
+    private static final byte RECORD_COMPONENT = 2;
+
+    /**
+     * A captured component, and the verdict of the app that captured it.
+     */
+    static final class Component {
+        final String identifier;
+        final String path;
+        final String allValue;
+        final byte[] buffer;
+        final boolean filtered;
+
+        Component(String identifier, String path, String allValue, byte[] buffer, boolean filtered) {
+            this.identifier = identifier;
+            this.path = path;
+            this.allValue = allValue;
+            this.buffer = buffer;
+            this.filtered = filtered;
+        }
+    }
+
+    final List<Component> components;
+
+    /**
+     * Distinct buffers, in the order they were captured.
+     */
+    final List<byte[]> buffers;
+
+    private LithoCapture(List<Component> components, List<byte[]> buffers) {
+        this.components = components;
+        this.buffers = buffers;
+    }
+
+    static boolean isCaptureFile(File file) {
+        return file.isFile() && file.getName().endsWith(".bin");
+    }
+
+    static LithoCapture load(File file) throws IOException {
+        List<Component> components = new ArrayList<>();
+        List<byte[]> buffers = new ArrayList<>();
+        Map<Integer, byte[]> buffersById = new HashMap<>();
+
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (input.readInt() != MAGIC) {
+                throw new IOException("Not a litho capture file: " + file);
+            }
+            final short version = input.readShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported litho capture version: " + version);
+            }
+
+            while (true) {
+                final int type = input.read();
+                if (type < 0) {
+                    break;
+                }
+
+                try {
+                    if (type == RECORD_BUFFER) {
+                        final int bufferId = input.readInt();
+                        byte[] buffer = new byte[input.readInt()];
+                        input.readFully(buffer);
+                        buffersById.put(bufferId, buffer);
+                        buffers.add(buffer);
+                    } else if (type == RECORD_COMPONENT) {
+                        final int bufferId = input.readInt();
+                        byte[] buffer = buffersById.get(bufferId);
+                        if (buffer == null) {
+                            throw new IOException("Unknown buffer id: " + bufferId);
+                        }
+                        components.add(new Component(readString(input), readString(input),
+                                readString(input), buffer, input.readBoolean()));
+                    } else {
+                        throw new IOException("Unknown record type: " + type);
+                    }
+                } catch (EOFException ex) {
+                    // The app was closed while writing the last record.
+                    break;
+                }
+            }
+        }
+
+        return new LithoCapture(components, buffers);
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        final int length = input.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
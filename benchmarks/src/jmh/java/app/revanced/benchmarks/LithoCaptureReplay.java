@@ -0,0 +1,298 @@
+package app.revanced.benchmarks;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+import app.revanced.extension.shared.patches.components.Filter;
+import app.revanced.extension.shared.patches.components.LithoFilterPatch;
+import app.revanced.extension.shared.patches.components.StringFilterGroup;
+import app.revanced.extension.shared.settings.BaseSettings;
+import app.revanced.extension.shared.settings.Setting;
+import app.revanced.extension.shared.utils.Logger;
+import app.revanced.extension.youtube.settings.Settings;
+
+/**
+ * Replays a capture of the extension through {@link LithoFilterPatch} and the YouTube filters,
+ * and compares the verdict of each component with the verdict of the app that captured it.
+ * <p>
+ * The filters are added the same as the patched app, see {@link LithoFilters}. Each filter is called through
+ * a {@link TimedFilter}, so the time used by each filter is measured for each component.
+ * The measured time of a filter includes only its callbacks. The time used to search is
+ * included in the total time of the component.
+ * <p>
+ * The first replay of the capture computes the verdicts, with the filters in the same state as when the app starts.
+ * The capture is then replayed again to warm up, and the times are the average of the timed replays.
+ * Some filters keep state between components, and components with a different verdict
+ * in a later replay are counted as unstable.
+ * <p>
+ * The app state when a component was captured is not part of the capture. The replay uses the home tab,
+ * with no video player and no search, and components of filters that use the app state can be filtered differently.
+ * <p>
+ * Usage: {@code LithoCaptureReplay <capture file> [components output file] [settings file]}.
+ * <ul>
+ *   <li>The components file has a header line, and one line for each component with the captured verdict,
+ *       the computed verdict, the filters that filtered the component, the total time,
+ *       and the time of each filter in microseconds. The first 4 columns of two commits can be compared with diff.</li>
+ *   <li>The settings file is in Java properties format, with the keys of the app settings.
+ *       Settings that are not in the file use the default value.</li>
+ * </ul>
+ */
+public final class LithoCaptureReplay {
+
+    private static final int WARMUP_ITERATIONS = 3;
+    private static final int TIMED_ITERATIONS = 5;
+
+    /**
+     * Maximum components with a different verdict that are printed. All components are in the components file.
+     */
+    private static final int MAX_PRINTED_DIFFERENT_VERDICTS = 100;
+
+    /**
+     * Calls a filter, and measures the time and verdict of the filter for the current component.
+     */
+    private static final class TimedFilter extends Filter {
+        final Filter filter;
+        final String name;
+
+        long componentNanos;
+        boolean componentFiltered;
+
+        long callbacks;
+        long filtered;
+        long totalNanos;
+
+        TimedFilter(Filter filter) {
+            this.filter = filter;
+            this.name = filter.getClass().getSimpleName();
+        }
+
+        @Override
+        public boolean isCacheable(StringFilterGroup group) {
+            return filter.isCacheable(group);
+        }
+
+        @Override
+        public boolean usesAllValue(StringFilterGroup group) {
+            return filter.usesAllValue(group);
+        }
+
+        @Override
+        public boolean isFiltered(String path, String identifier, String allValue, byte[] buffer,
+                                  StringFilterGroup matchedGroup, FilterContentType contentType, int contentIndex) {
+            final long startTime = System.nanoTime();
+            final boolean isFiltered = filter.isFiltered(path, identifier, allValue, buffer,
+                    matchedGroup, contentType, contentIndex);
+            componentNanos += System.nanoTime() - startTime;
+            callbacks++;
+            if (isFiltered) {
+                componentFiltered = true;
+                filtered++;
+            }
+            return isFiltered;
+        }
+
+        void startComponent() {
+            componentNanos = 0;
+            componentFiltered = false;
+        }
+
+        void resetTotals() {
+            callbacks = 0;
+            filtered = 0;
+            totalNanos = 0;
+        }
+    }
+
+    private static void loadSettings(File file) throws IOException, ClassNotFoundException {
+        Properties properties = new Properties();
+        try (InputStream input = new FileInputStream(file)) {
+            properties.load(input);
+        }
+
+        // Initialize the settings, so each setting can be found by key.
+        Class.forName(Settings.class.getName());
+        for (String key : properties.stringPropertyNames()) {
+            Setting<?> setting = Setting.getSettingFromPath(key);
+            if (setting == null) {
+                throw new IOException("Unknown setting: " + key);
+            }
+            Setting.privateSetValueFromString(setting, properties.getProperty(key));
+        }
+    }
+
+    /**
+     * Filters a component the same as the app, and measures the time of each filter.
+     *
+     * @return If the component is filtered.
+     */
+    private static boolean replay(LithoCapture.Component component, List<TimedFilter> filters) {
+        for (TimedFilter filter : filters) {
+            filter.startComponent();
+        }
+
+        LithoFilterPatch.setProtoBuffer(component.buffer);
+        return LithoFilterPatch.isFiltered(new StringBuilder(component.path),
+                component.identifier,
+                component.allValue == null ? "" : component.allValue);
+    }
+
+    private static String getFilteredBy(List<TimedFilter> filters) {
+        StringBuilder builder = new StringBuilder();
+        for (TimedFilter filter : filters) {
+            if (filter.componentFiltered) {
+                if (builder.length() > 0) {
+                    builder.append(',');
+                }
+                builder.append(filter.name);
+            }
+        }
+        return builder.toString();
+    }
+
+    private static String verdict(boolean filtered) {
+        return filtered ? "filtered" : "shown";
+    }
+
+    public static void main(String[] args) throws IOException, ReflectiveOperationException {
+        if (args.length < 1 || args.length > 3) {
+            System.err.println("Usage: LithoCaptureReplay <capture file> [components output file] [settings file]");
+            System.exit(1);
+        }
+
+        // Settings must be set before LithoFilterPatch is initialized.
+        if (args.length == 3) {
+            loadSettings(new File(args[2]));
+        }
+        BaseSettings.LITHO_FILTER_CAPTURE.save(false);
+
+        LithoCapture capture = LithoCapture.load(new File(args[0]));
+        List<Filter> youTubeFilters = LithoFilters.createYouTubeFilters();
+        List<TimedFilter> filters = new ArrayList<>(youTubeFilters.size());
+        for (Filter filter : youTubeFilters) {
+            filters.add(new TimedFilter(filter));
+        }
+        LithoFilters.add(youTubeFilters, filters);
+        LithoFilters.selectNavigationButton(LithoFilters.AppNavigationEnum.PIVOT_HOME);
+
+        final int componentCount = capture.components.size();
+        final int filterCount = filters.size();
+        boolean[] computedVerdicts = new boolean[componentCount];
+        String[] filteredBy = new String[componentCount];
+        long[] totalNanos = new long[componentCount];
+        long[][] filterNanos = new long[componentCount][filterCount];
+        boolean[] unstableVerdicts = new boolean[componentCount];
+
+        for (int iteration = 0; iteration <= WARMUP_ITERATIONS + TIMED_ITERATIONS; iteration++) {
+            final boolean timed = iteration > WARMUP_ITERATIONS;
+            if (iteration == WARMUP_ITERATIONS + 1) {
+                for (TimedFilter filter : filters) {
+                    filter.resetTotals();
+                }
+            }
+
+            for (int i = 0; i < componentCount; i++) {
+                final long startTime = System.nanoTime();
+                final boolean isFiltered = replay(capture.components.get(i), filters);
+                final long componentNanos = System.nanoTime() - startTime;
+
+                if (iteration == 0) {
+                    computedVerdicts[i] = isFiltered;
+                    filteredBy[i] = getFilteredBy(filters);
+                } else if (isFiltered != computedVerdicts[i]) {
+                    unstableVerdicts[i] = true;
+                }
+
+                if (timed) {
+                    totalNanos[i] += componentNanos;
+                    for (int j = 0; j < filterCount; j++) {
+                        TimedFilter filter = filters.get(j);
+                        filterNanos[i][j] += filter.componentNanos;
+                        filter.totalNanos += filter.componentNanos;
+                    }
+                }
+            }
+        }
+
+        long appFiltered = 0;
+        long replayFiltered = 0;
+        long unstableCount = 0;
+        List<Integer> disagreements = new ArrayList<>();
+        for (int i = 0; i < componentCount; i++) {
+            LithoCapture.Component component = capture.components.get(i);
+            if (component.filtered) appFiltered++;
+            if (computedVerdicts[i]) replayFiltered++;
+            if (unstableVerdicts[i]) unstableCount++;
+            if (component.filtered != computedVerdicts[i]) disagreements.add(i);
+        }
+
+        System.out.printf(Locale.ENGLISH, "Components: %d, buffers: %d%n", componentCount, capture.buffers.size());
+        System.out.printf(Locale.ENGLISH, "Filtered by app: %d, filtered by replay: %d, different verdicts: %d, unstable verdicts: %d%n",
+                appFiltered, replayFiltered, disagreements.size(), unstableCount);
+        System.out.printf(Locale.ENGLISH, "Extension exceptions: %d%n%n", Logger.getExceptionCount());
+
+        if (!disagreements.isEmpty()) {
+            System.out.printf(Locale.ENGLISH, "%8s %-9s %-9s %-30s %s%n", "Index", "App", "Replay", "Filtered by", "Identifier / path");
+            for (int i : disagreements.subList(0, Math.min(disagreements.size(), MAX_PRINTED_DIFFERENT_VERDICTS))) {
+                LithoCapture.Component component = capture.components.get(i);
+                System.out.printf(Locale.ENGLISH, "%8d %-9s %-9s %-30s %s / %s%n", i,
+                        verdict(component.filtered), verdict(computedVerdicts[i]),
+                        filteredBy[i], component.identifier, component.path);
+            }
+            if (disagreements.size() > MAX_PRINTED_DIFFERENT_VERDICTS) {
+                System.out.printf(Locale.ENGLISH, "%8s and %d more%n", "",
+                        disagreements.size() - MAX_PRINTED_DIFFERENT_VERDICTS);
+            }
+            System.out.println();
+        }
+
+        List<TimedFilter> sortedFilters = new ArrayList<>(filters);
+        sortedFilters.sort(Comparator.comparingLong((TimedFilter filter) -> filter.totalNanos).reversed());
+        System.out.printf(Locale.ENGLISH, "%-40s %10s %10s %12s%n", "Filter", "Callbacks", "Filtered", "Time (ms)");
+        for (TimedFilter filter : sortedFilters) {
+            System.out.printf(Locale.ENGLISH, "%-40s %10d %10d %12.3f%n",
+                    filter.name,
+                    filter.callbacks / TIMED_ITERATIONS,
+                    filter.filtered / TIMED_ITERATIONS,
+                    filter.totalNanos / (TIMED_ITERATIONS * 1_000_000.0));
+        }
+        System.out.printf(Locale.ENGLISH, "%-40s %10s %10s %12.3f%n", "Total", "", "",
+                Arrays.stream(totalNanos).sum() / (TIMED_ITERATIONS * 1_000_000.0));
+
+        if (args.length >= 2) {
+            try (PrintWriter writer = new PrintWriter(new File(args[1]), StandardCharsets.UTF_8)) {
+                StringBuilder builder = new StringBuilder("index\tapp\treplay\tfiltered_by\ttotal_us");
+                for (TimedFilter filter : filters) {
+                    builder.append('\t').append(filter.name).append("_us");
+                }
+                writer.println(builder);
+
+                for (int i = 0; i < componentCount; i++) {
+                    builder.setLength(0);
+                    builder.append(i)
+                            .append('\t').append(verdict(capture.components.get(i).filtered))
+                            .append('\t').append(verdict(computedVerdicts[i]))
+                            .append('\t').append(filteredBy[i])
+                            .append('\t').append(toMicros(totalNanos[i]));
+                    for (int j = 0; j < filterCount; j++) {
+                        builder.append('\t').append(toMicros(filterNanos[i][j]));
+                    }
+                    writer.println(builder);
+                }
+            }
+        }
+    }
+
+    private static String toMicros(long timedNanos) {
+        return String.format(Locale.ENGLISH, "%.2f", timedNanos / (TIMED_ITERATIONS * 1_000.0));
+    }
+}
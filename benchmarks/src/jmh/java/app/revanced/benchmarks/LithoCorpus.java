@@ -0,0 +1,188 @@
+package app.revanced.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Litho identifiers, paths and proto buffers to search.
+ * <p>
+ * A captured corpus is used if the system property {@link #CORPUS_DIRECTORY_PROPERTY} is set.
+ * The directory must contain 'paths.tsv', with one '&lt;identifier&gt;\t&lt;path&gt;' per line,
+ * and optionally a 'buffers' directory of raw proto buffer files.
+ * The property can instead be a capture file of the extension, see {@link LithoCapture}.
+ * <p>
+ * Otherwise a synthetic corpus is generated from the filter patterns.
+ * The synthetic corpus always uses the same random seed, so results of different commits can be compared.
+ */
+final class LithoCorpus {
+
+    static final String CORPUS_DIRECTORY_PROPERTY = "revanced.benchmark.corpus";
+
+    private static final long SYNTHETIC_SEED = 20250926L;
+    private static final int SYNTHETIC_PATH_COUNT = 2000;
+    private static final int SYNTHETIC_BUFFER_COUNT = 200;
+
+    /**
+     * Approximate fraction of synthetic path segments and buffer strings that are a filter pattern.
+     */
+    private static final double SYNTHETIC_PATTERN_PROBABILITY = 0.05;
+
+    private static final String[] COMMON_PATH_SEGMENTS = {
+            "ContainerType", "CellType", "ContextType", "ComponentType", "CollectionType",
+            "LazyType", "ElementType", "FlexboxType", "RecyclerViewType", "ScrollableContainerType",
+    };
+
+    private static LithoCorpus instance;
+
+    final String[] identifiers;
+    final String[] paths;
+    final byte[][] buffers;
+
+    private LithoCorpus(String[] identifiers, String[] paths, byte[][] buffers) {
+        this.identifiers = identifiers;
+        this.paths = paths;
+        this.buffers = buffers;
+    }
+
+    static synchronized LithoCorpus get() throws IOException {
+        if (instance == null) {
+            String directory = System.getProperty(CORPUS_DIRECTORY_PROPERTY);
+            instance = (directory == null || directory.isEmpty())
+                    ? synthetic(FilterPatterns.get())
+                    : load(new File(directory));
+        }
+        return instance;
+    }
+
+    private static LithoCorpus load(File directory) throws IOException {
+        if (LithoCapture.isCaptureFile(directory)) {
+            return fromCapture(LithoCapture.load(directory));
+        }
+
+        List<String> identifiers = new ArrayList<>();
+        List<String> paths = new ArrayList<>();
+        for (String line : Files.readAllLines(new File(directory, "paths.tsv").toPath(), StandardCharsets.UTF_8)) {
+            final int tabIndex = line.indexOf('\t');
+            if (tabIndex < 0) {
+                continue;
+            }
+            identifiers.add(line.substring(0, tabIndex));
+            paths.add(line.substring(tabIndex + 1));
+        }
+
+        List<byte[]> buffers = new ArrayList<>();
+        File[] bufferFiles = new File(directory, "buffers").listFiles(File::isFile);
+        if (bufferFiles != null) {
+            Arrays.sort(bufferFiles);
+            for (File file : bufferFiles) {
+                buffers.add(Files.readAllBytes(file.toPath()));
+            }
+        }
+
+        return new LithoCorpus(identifiers.toArray(new String[0]),
+                paths.toArray(new String[0]),
+                buffers.toArray(new byte[0][]));
+    }
+
+    private static LithoCorpus fromCapture(LithoCapture capture) {
+        final int count = capture.components.size();
+        String[] identifiers = new String[count];
+        String[] paths = new String[count];
+        for (int i = 0; i < count; i++) {
+            LithoCapture.Component component = capture.components.get(i);
+            identifiers[i] = component.identifier == null ? "" : component.identifier;
+            paths[i] = component.path;
+        }
+
+        return new LithoCorpus(identifiers, paths, capture.buffers.toArray(new byte[0][]));
+    }
+
+    private static LithoCorpus synthetic(FilterPatterns patterns) {
+        Random random = new Random(SYNTHETIC_SEED);
+        List<String> identifierPatterns = patterns.patterns("identifier");
+        List<String> pathPatterns = patterns.patterns("path");
+        List<String> bufferPatterns = patterns.patterns("bytes");
+
+        String[] identifiers = new String[SYNTHETIC_PATH_COUNT];
+        String[] paths = new String[SYNTHETIC_PATH_COUNT];
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < SYNTHETIC_PATH_COUNT; i++) {
+            String identifier = random.nextDouble() < SYNTHETIC_PATTERN_PROBABILITY
+                    ? pick(random, identifierPatterns)
+                    : randomWords(random, 2 + random.nextInt(3)) + ".eml";
+            identifiers[i] = identifier;
+
+            builder.setLength(0);
+            builder.append(identifier).append('|');
+            final int segments = 4 + random.nextInt(20);
+            for (int j = 0; j < segments; j++) {
+                final double type = random.nextDouble();
+                if (type < SYNTHETIC_PATTERN_PROBABILITY) {
+                    builder.append(pick(random, pathPatterns));
+                } else if (type < 0.6) {
+                    builder.append(COMMON_PATH_SEGMENTS[random.nextInt(COMMON_PATH_SEGMENTS.length)]);
+                } else if (type < 0.8) {
+                    builder.append(randomWords(random, 1 + random.nextInt(4))).append(".eml");
+                } else {
+                    builder.append(Long.toHexString(random.nextLong()));
+                }
+                builder.append('|');
+            }
+            paths[i] = builder.toString();
+        }
+
+        byte[][] buffers = new byte[SYNTHETIC_BUFFER_COUNT][];
+        for (int i = 0; i < SYNTHETIC_BUFFER_COUNT; i++) {
+            final int length = 200 + random.nextInt(8000);
+            byte[] buffer = new byte[length];
+            int index = 0;
+            while (index < length) {
+                // Proto field tag and length, followed by a String or other binary data.
+                final double type = random.nextDouble();
+                byte[] value;
+                if (type < SYNTHETIC_PATTERN_PROBABILITY) {
+                    value = pick(random, bufferPatterns).getBytes(StandardCharsets.UTF_8);
+                } else if (type < 0.5) {
+                    value = randomWords(random, 1 + random.nextInt(6)).getBytes(StandardCharsets.UTF_8);
+                } else {
+                    value = new byte[1 + random.nextInt(24)];
+                    random.nextBytes(value);
+                }
+                buffer[index++] = (byte) random.nextInt(128);
+                if (index < length) {
+                    buffer[index++] = (byte) Math.min(value.length, 127);
+                }
+                final int copyLength = Math.min(value.length, length - index);
+                System.arraycopy(value, 0, buffer, index, copyLength);
+                index += copyLength;
+            }
+            buffers[i] = buffer;
+        }
+
+        return new LithoCorpus(identifiers, paths, buffers);
+    }
+
+    private static String pick(Random random, List<String> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    private static String randomWords(Random random, int wordCount) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < wordCount; i++) {
+            if (i > 0) {
+                builder.append('_');
+            }
+            final int wordLength = 2 + random.nextInt(8);
+            for (int j = 0; j < wordLength; j++) {
+                builder.append((char) ('a' + random.nextInt(26)));
+            }
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,148 @@
+package app.revanced.benchmarks;
+
+import android.view.View;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.List;
+
+import app.revanced.extension.shared.patches.components.Filter;
+import app.revanced.extension.shared.patches.components.LithoFilterPatch;
+import app.revanced.extension.shared.patches.components.StringFilterGroup;
+import app.revanced.extension.youtube.patches.components.ActionButtonsFilter;
+import app.revanced.extension.youtube.patches.components.AdsFilter;
+import app.revanced.extension.youtube.patches.components.CommentsFilter;
+import app.revanced.extension.youtube.patches.components.CustomFilter;
+import app.revanced.extension.youtube.patches.components.DescriptionsFilter;
+import app.revanced.extension.youtube.patches.components.FeedComponentsFilter;
+import app.revanced.extension.youtube.patches.components.FeedVideoViewsFilter;
+import app.revanced.extension.youtube.patches.components.KeywordContentFilter;
+import app.revanced.extension.youtube.patches.components.LayoutComponentsFilter;
+import app.revanced.extension.youtube.patches.components.LayoutReloadObserverFilter;
+import app.revanced.extension.youtube.patches.components.PlaybackSpeedMenuFilter;
+import app.revanced.extension.youtube.patches.components.PlayerComponentsFilter;
+import app.revanced.extension.youtube.patches.components.PlayerFlyoutMenuFilter;
+import app.revanced.extension.youtube.patches.components.QuickActionFilter;
+import app.revanced.extension.youtube.patches.components.ReturnYouTubeChannelNameFilterPatch;
+import app.revanced.extension.youtube.patches.components.ReturnYouTubeDislikeFilterPatch;
+import app.revanced.extension.youtube.patches.components.ShareSheetMenuFilter;
+import app.revanced.extension.youtube.patches.components.ShortsButtonFilter;
+import app.revanced.extension.youtube.patches.components.ShortsCustomActionsFilter;
+import app.revanced.extension.youtube.patches.components.ShortsShelfFilter;
+import app.revanced.extension.youtube.patches.components.VideoQualityMenuFilter;
+import app.revanced.extension.youtube.shared.NavigationBar;
+
+/**
+ * The YouTube filters, added to {@link LithoFilterPatch} the same as the patched app.
+ * <p>
+ * The patches replace the filter array of LithoFilterPatch, and the static initializer then adds the groups
+ * of each filter to the search. The array is not patched when benchmarking, so the filters are added after
+ * LithoFilterPatch is initialized, using the same methods as the static initializer.
+ * All settings used by LithoFilterPatch must be set before the filters are added.
+ */
+final class LithoFilters {
+
+    /**
+     * YouTube navigation enum names, used to select a navigation button using the injection points of the app.
+     */
+    enum AppNavigationEnum {
+        PIVOT_HOME,
+        PIVOT_SUBSCRIPTIONS,
+        TAB_SHORTS,
+        TAB_ACTIVITY,
+    }
+
+    private static boolean added;
+
+    private LithoFilters() {
+    }
+
+    /**
+     * @return New instances of all filters added by the YouTube patches.
+     */
+    static List<Filter> createYouTubeFilters() {
+        return List.of(
+                new ActionButtonsFilter(),
+                new AdsFilter(),
+                new CommentsFilter(),
+                new CustomFilter(),
+                new DescriptionsFilter(),
+                new FeedComponentsFilter(),
+                new FeedVideoViewsFilter(),
+                new KeywordContentFilter(),
+                new LayoutComponentsFilter(),
+                new LayoutReloadObserverFilter(),
+                new PlaybackSpeedMenuFilter(),
+                new PlayerComponentsFilter(),
+                new PlayerFlyoutMenuFilter(),
+                new QuickActionFilter(),
+                new ReturnYouTubeChannelNameFilterPatch(),
+                new ReturnYouTubeDislikeFilterPatch(),
+                new ShareSheetMenuFilter(),
+                new ShortsButtonFilter(),
+                new ShortsCustomActionsFilter(),
+                new ShortsShelfFilter(),
+                new VideoQualityMenuFilter()
+        );
+    }
+
+    static void add(List<? extends Filter> filters) throws ReflectiveOperationException {
+        add(filters, null);
+    }
+
+    /**
+     * Adds the groups of each filter to the search of LithoFilterPatch. Can only be called once.
+     *
+     * @param callbackFilters Filters called when a group of the filter at the same index matches,
+     *                        or null to call the filters themselves.
+     */
+    static synchronized void add(List<? extends Filter> filters, List<? extends Filter> callbackFilters)
+            throws ReflectiveOperationException {
+        if (added) {
+            throw new IllegalStateException("Filters are already added");
+        }
+        added = true;
+
+        Method addSearchableGroups = LithoFilterPatch.class.getDeclaredMethod("addSearchableGroups",
+                Filter.class, List.class, Filter.FilterContentType.class);
+        addSearchableGroups.setAccessible(true);
+        Method rebuildFilterPlan = LithoFilterPatch.class.getDeclaredMethod("rebuildFilterPlan");
+        rebuildFilterPlan.setAccessible(true);
+
+        for (int i = 0, size = filters.size(); i < size; i++) {
+            Filter filter = filters.get(i);
+            Filter callbackFilter = callbackFilters == null ? filter : callbackFilters.get(i);
+            addSearchableGroups.invoke(null, callbackFilter,
+                    getCallbacks(filter, "identifierCallbacks"), Filter.FilterContentType.IDENTIFIER);
+            addSearchableGroups.invoke(null, callbackFilter,
+                    getCallbacks(filter, "pathCallbacks"), Filter.FilterContentType.PATH);
+            addSearchableGroups.invoke(null, callbackFilter,
+                    getCallbacks(filter, "allValueCallbacks"), Filter.FilterContentType.ALLVALUE);
+        }
+
+        rebuildFilterPlan.invoke(null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<StringFilterGroup> getCallbacks(Filter filter, String fieldName)
+            throws ReflectiveOperationException {
+        Field field = Filter.class.getDeclaredField(fieldName);
+        field.setAccessible(true);
+        return (List<StringFilterGroup>) field.get(filter);
+    }
+
+    /**
+     * Selects a navigation button using the injection points of the app.
+     * Also releases the navigation button latch created when the app starts.
+     *
+     * @return The navigation button view. The view must be kept to select the button again,
+     * as the navigation bar only weakly references the view.
+     */
+    static View selectNavigationButton(AppNavigationEnum appNavigationEnum) {
+        View view = new View();
+        NavigationBar.setLastAppNavigationEnum(appNavigationEnum);
+        NavigationBar.navigationTabLoaded(view);
+        NavigationBar.navigationTabSelected(view, true);
+        return view;
+    }
+}
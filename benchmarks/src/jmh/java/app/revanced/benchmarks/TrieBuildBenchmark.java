@@ -0,0 +1,76 @@
+package app.revanced.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+
+import app.revanced.extension.shared.utils.ByteTrieSearch;
+import app.revanced.extension.shared.utils.CharSequenceTrieSearch;
+import app.revanced.extension.shared.utils.TrieSearch;
+
+/**
+ * Builds the prefix trees of all identifier, path and byte patterns of the real filters,
+ * the same as Litho filtering does after a cold start.
+ * <p>
+ * Trees are built on the first search, so each tree searches an empty text once.
+ */
+@State(Scope.Benchmark)
+public class TrieBuildBenchmark {
+
+    private static final byte[] EMPTY_BYTES = new byte[0];
+
+    @Param({"PREFIX_TREE", "AHO_CORASICK", "PREFIX_TABLE"})
+    public TrieSearch.SearchMode searchMode;
+
+    private String[] identifierPatterns;
+    private String[] pathPatterns;
+    private byte[][] bufferPatterns;
+
+    @Setup
+    public void setup() throws IOException {
+        FilterPatterns patterns = FilterPatterns.get();
+        identifierPatterns = patterns.patterns("identifier").toArray(new String[0]);
+        pathPatterns = patterns.patterns("path").toArray(new String[0]);
+        bufferPatterns = ByteTrieSearch.convertStringsToBytes(patterns.patterns("bytes").toArray(new String[0]));
+    }
+
+    private static boolean patternMatched(Object textSearched, int matchedStartIndex,
+                                          int matchedLength, Object callbackParameter) {
+        return false;
+    }
+
+    private CharSequenceTrieSearch buildCharSequenceSearch(String[] patterns) {
+        CharSequenceTrieSearch search = new CharSequenceTrieSearch();
+        search.setSearchMode(searchMode);
+        for (String pattern : patterns) {
+            search.addPattern(pattern, TrieBuildBenchmark::patternMatched);
+        }
+        search.matches("", this);
+        return search;
+    }
+
+    @Benchmark
+    public CharSequenceTrieSearch buildIdentifierSearch() {
+        return buildCharSequenceSearch(identifierPatterns);
+    }
+
+    @Benchmark
+    public CharSequenceTrieSearch buildPathSearch() {
+        return buildCharSequenceSearch(pathPatterns);
+    }
+
+    @Benchmark
+    public ByteTrieSearch buildBufferSearch() {
+        ByteTrieSearch search = new ByteTrieSearch();
+        search.setSearchMode(searchMode);
+        for (byte[] pattern : bufferPatterns) {
+            search.addPattern(pattern, TrieBuildBenchmark::patternMatched);
+        }
+        search.matches(EMPTY_BYTES, this);
+        return search;
+    }
+}
@@ -0,0 +1,103 @@
+package app.revanced.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+
+import app.revanced.extension.shared.utils.ByteTrieSearch;
+import app.revanced.extension.shared.utils.CharSequenceTrieSearch;
+import app.revanced.extension.shared.utils.StringTrieSearch;
+import app.revanced.extension.shared.utils.TrieSearch;
+
+/**
+ * Searches the entire corpus with the prefix trees, using the patterns of the real filters.
+ * <p>
+ * Every pattern callback returns false (the same as a filter that does not filter the component),
+ * so each search visits the entire text and calls the callback of every match.
+ */
+@State(Scope.Benchmark)
+public class TrieSearchBenchmark {
+
+    @Param({"PREFIX_TREE", "AHO_CORASICK", "PREFIX_TABLE"})
+    public TrieSearch.SearchMode searchMode;
+
+    private LithoCorpus corpus;
+    private StringBuilder[] pathBuilders;
+
+    private StringTrieSearch identifierSearch;
+    private StringTrieSearch pathSearch;
+    private CharSequenceTrieSearch pathBuilderSearch;
+    private ByteTrieSearch bufferSearch;
+
+    @Setup
+    public void setup() throws IOException {
+        FilterPatterns patterns = FilterPatterns.get();
+        corpus = LithoCorpus.get();
+
+        pathBuilders = new StringBuilder[corpus.paths.length];
+        for (int i = 0; i < pathBuilders.length; i++) {
+            pathBuilders[i] = new StringBuilder(corpus.paths[i]);
+        }
+
+        identifierSearch = new StringTrieSearch();
+        for (String pattern : patterns.patterns("identifier")) {
+            identifierSearch.addPattern(pattern, TrieSearchBenchmark::patternMatched);
+        }
+
+        pathSearch = new StringTrieSearch();
+        pathBuilderSearch = new CharSequenceTrieSearch();
+        for (String pattern : patterns.patterns("path")) {
+            pathSearch.addPattern(pattern, TrieSearchBenchmark::patternMatched);
+            pathBuilderSearch.addPattern(pattern, TrieSearchBenchmark::patternMatched);
+        }
+
+        bufferSearch = new ByteTrieSearch();
+        for (byte[] pattern : ByteTrieSearch.convertStringsToBytes(patterns.patterns("bytes").toArray(new String[0]))) {
+            bufferSearch.addPattern(pattern, TrieSearchBenchmark::patternMatched);
+        }
+
+        identifierSearch.setSearchMode(searchMode);
+        pathSearch.setSearchMode(searchMode);
+        pathBuilderSearch.setSearchMode(searchMode);
+        bufferSearch.setSearchMode(searchMode);
+    }
+
+    private static boolean patternMatched(Object textSearched, int matchedStartIndex,
+                                          int matchedLength, Object callbackParameter) {
+        ((Blackhole) callbackParameter).consume(matchedStartIndex);
+        return false;
+    }
+
+    @Benchmark
+    public void stringTrieSearchIdentifiers(Blackhole blackhole) {
+        for (String identifier : corpus.identifiers) {
+            blackhole.consume(identifierSearch.matches(identifier, blackhole));
+        }
+    }
+
+    @Benchmark
+    public void stringTrieSearchPaths(Blackhole blackhole) {
+        for (String path : corpus.paths) {
+            blackhole.consume(pathSearch.matches(path, blackhole));
+        }
+    }
+
+    @Benchmark
+    public void charSequenceTrieSearchPathBuilders(Blackhole blackhole) {
+        for (StringBuilder path : pathBuilders) {
+            blackhole.consume(pathBuilderSearch.matches(path, blackhole));
+        }
+    }
+
+    @Benchmark
+    public void byteTrieSearchBuffers(Blackhole blackhole) {
+        for (byte[] buffer : corpus.buffers) {
+            blackhole.consume(bufferSearch.matches(buffer, blackhole));
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package android.app;
+
+/**
+ * JVM replacement of the Android class. Only used as a parameter type.
+ */
+public class Activity {
+}
@@ -0,0 +1,10 @@
+package android.content;
+
+import java.io.File;
+
+/**
+ * JVM replacement of the Android class. No context is available when benchmarking.
+ */
+public abstract class Context {
+    public abstract File getExternalFilesDir(String type);
+}
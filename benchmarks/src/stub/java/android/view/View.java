@@ -0,0 +1,7 @@
+package android.view;
+
+/**
+ * JVM replacement of the Android class. Only used as a parameter type.
+ */
+public class View {
+}
@@ -0,0 +1,23 @@
+package app.revanced.extension.shared.settings;
+
+import static java.lang.Boolean.FALSE;
+import static java.lang.Boolean.TRUE;
+
+/**
+ * JVM replacement of the extension settings, with only the settings used by the benchmarked classes.
+ * Keys and default values are the same as the extension, and are verified by the verifyStubSettings build task.
+ */
+public class BaseSettings {
+    public static final BooleanSetting DEBUG = new BooleanSetting("revanced_debug", FALSE);
+    public static final BooleanSetting DEBUG_PROTOBUFFER = new BooleanSetting("revanced_debug_protobuffer", FALSE);
+    public static final BooleanSetting LITHO_FILTER_AHO_CORASICK = new BooleanSetting("revanced_litho_filter_aho_corasick", FALSE, true);
+    public static final BooleanSetting LITHO_FILTER_PREFIX_TABLE = new BooleanSetting("revanced_litho_filter_prefix_table", FALSE, true);
+    public static final BooleanSetting LITHO_FILTER_VERDICT_CACHE = new BooleanSetting("revanced_litho_filter_verdict_cache", FALSE, true);
+    public static final BooleanSetting LITHO_FILTER_BUFFER_INDEX = new BooleanSetting("revanced_litho_filter_buffer_index", FALSE, true);
+    public static final BooleanSetting LITHO_FILTER_STATISTICS = new BooleanSetting("revanced_litho_filter_statistics", FALSE, true);
+    public static final BooleanSetting LITHO_FILTER_CAPTURE = new BooleanSetting("revanced_litho_filter_capture", FALSE, true);
+    public static final IntegerSetting LITHO_LAYOUT_THREAD_POOL_SIZE = new IntegerSetting("revanced_litho_layout_thread_pool_size", 1, true);
+    public static final BooleanSetting HIDE_PROMOTION_ALERT_BANNER = new BooleanSetting("revanced_hide_promotion_alert_banner", TRUE);
+    public static final IntegerSetting LITHO_BUFFER_MAX_AGE = new IntegerSetting("revanced_litho_buffer_max_age", 0, true);
+    public static final BooleanSetting LITHO_BUFFER_SOFT_REFERENCES = new BooleanSetting("revanced_litho_buffer_soft_references", FALSE, true);
+}
@@ -0,0 +1,19 @@
+package app.revanced.extension.shared.settings;
+
+/**
+ * JVM replacement of the extension setting.
+ */
+public class BooleanSetting extends Setting<Boolean> {
+    public BooleanSetting(String key, Boolean defaultValue) {
+        super(key, defaultValue);
+    }
+
+    public BooleanSetting(String key, Boolean defaultValue, boolean rebootApp) {
+        super(key, defaultValue, rebootApp);
+    }
+
+    @Override
+    protected void setValueFromString(String newValue) {
+        value = Boolean.valueOf(newValue);
+    }
+}
@@ -0,0 +1,19 @@
+package app.revanced.extension.shared.settings;
+
+/**
+ * JVM replacement of the extension setting.
+ */
+public class IntegerSetting extends Setting<Integer> {
+    public IntegerSetting(String key, Integer defaultValue) {
+        super(key, defaultValue);
+    }
+
+    public IntegerSetting(String key, Integer defaultValue, boolean rebootApp) {
+        super(key, defaultValue, rebootApp);
+    }
+
+    @Override
+    protected void setValueFromString(String newValue) {
+        value = Integer.valueOf(newValue);
+    }
+}
@@ -0,0 +1,19 @@
+package app.revanced.extension.shared.settings;
+
+/**
+ * JVM replacement of the extension setting.
+ */
+public class LongSetting extends Setting<Long> {
+    public LongSetting(String key, Long defaultValue) {
+        super(key, defaultValue);
+    }
+
+    public LongSetting(String key, Long defaultValue, boolean rebootApp) {
+        super(key, defaultValue, rebootApp);
+    }
+
+    @Override
+    protected void setValueFromString(String newValue) {
+        value = Long.valueOf(newValue);
+    }
+}
@@ -0,0 +1,91 @@
+package app.revanced.extension.shared.settings;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * JVM replacement of the extension setting, with only what the benchmarked classes use.
+ * Values are kept in memory, and start as the default value.
+ */
+public abstract class Setting<T> {
+
+    public interface ValueChangedCallback {
+        void settingChanged(Setting<?> setting);
+    }
+
+    private static final CopyOnWriteArrayList<ValueChangedCallback> valueChangedCallbacks = new CopyOnWriteArrayList<>();
+
+    private static final Map<String, Setting<?>> PATH_TO_SETTINGS = new ConcurrentHashMap<>();
+
+    public static void addValueChangedCallback(ValueChangedCallback callback) {
+        valueChangedCallbacks.add(Objects.requireNonNull(callback));
+    }
+
+    protected final void notifyValueChanged() {
+        for (ValueChangedCallback callback : valueChangedCallbacks) {
+            callback.settingChanged(this);
+        }
+    }
+
+    /**
+     * @return The setting with the key, or null if no loaded setting uses the key.
+     */
+    public static Setting<?> getSettingFromPath(String str) {
+        return PATH_TO_SETTINGS.get(str);
+    }
+
+    /**
+     * Sets the value from a String, such as a value read from a file.
+     */
+    public static void privateSetValueFromString(Setting<?> setting, String newValue) {
+        setting.setValueFromString(newValue);
+        setting.notifyValueChanged();
+    }
+
+    public final String key;
+
+    public final T defaultValue;
+
+    public final boolean rebootApp;
+
+    protected volatile T value;
+
+    public Setting(String key, T defaultValue) {
+        this(key, defaultValue, false);
+    }
+
+    public Setting(String key, T defaultValue, boolean rebootApp) {
+        this.key = Objects.requireNonNull(key);
+        this.defaultValue = Objects.requireNonNull(defaultValue);
+        this.rebootApp = rebootApp;
+        this.value = defaultValue;
+        PATH_TO_SETTINGS.put(key, this);
+    }
+
+    protected abstract void setValueFromString(String newValue);
+
+    public final void save(T newValue) {
+        value = Objects.requireNonNull(newValue);
+        notifyValueChanged();
+    }
+
+    public T get() {
+        return value;
+    }
+
+    public T resetToDefault() {
+        save(defaultValue);
+        return defaultValue;
+    }
+
+    public boolean isSetToDefault() {
+        return value.equals(defaultValue);
+    }
+
+    @Override
+    public String toString() {
+        return key + "=" + get();
+    }
+}
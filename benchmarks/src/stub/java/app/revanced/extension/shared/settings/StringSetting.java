@@ -0,0 +1,19 @@
+package app.revanced.extension.shared.settings;
+
+/**
+ * JVM replacement of the extension setting.
+ */
+public class StringSetting extends Setting<String> {
+    public StringSetting(String key, String defaultValue) {
+        super(key, defaultValue);
+    }
+
+    public StringSetting(String key, String defaultValue, boolean rebootApp) {
+        super(key, defaultValue, rebootApp);
+    }
+
+    @Override
+    protected void setValueFromString(String newValue) {
+        value = newValue;
+    }
+}
@@ -0,0 +1,45 @@
+package app.revanced.extension.shared.utils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * JVM replacement of the extension logger. Debug logging is always off when benchmarking.
+ * Exceptions are printed, and counted so a benchmark can fail if the extension code logged an exception.
+ */
+public class Logger {
+
+    public interface LogMessage {
+        @NonNull
+        String buildMessageString();
+    }
+
+    private static final AtomicInteger exceptionCount = new AtomicInteger();
+
+    /**
+     * @return Number of exceptions logged since the JVM started.
+     */
+    public static int getExceptionCount() {
+        return exceptionCount.get();
+    }
+
+    public static void printDebug(@NonNull LogMessage message) {
+    }
+
+    public static void printInfo(@NonNull LogMessage message) {
+    }
+
+    public static void printException(@NonNull LogMessage message) {
+        printException(message, null);
+    }
+
+    public static void printException(@NonNull LogMessage message, @Nullable Throwable ex) {
+        exceptionCount.incrementAndGet();
+        System.err.println("Extension exception: " + message.buildMessageString());
+        if (ex != null) {
+            ex.printStackTrace();
+        }
+    }
+}
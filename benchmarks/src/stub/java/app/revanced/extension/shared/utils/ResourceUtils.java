@@ -0,0 +1,13 @@
+package app.revanced.extension.shared.utils;
+
+import androidx.annotation.NonNull;
+
+/**
+ * JVM replacement of the extension resource utilities. There are no resources, and the name is used instead.
+ */
+public class ResourceUtils extends Utils {
+
+    public static String getString(@NonNull String str) {
+        return str;
+    }
+}
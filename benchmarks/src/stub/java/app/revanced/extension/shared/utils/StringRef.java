@@ -0,0 +1,19 @@
+package app.revanced.extension.shared.utils;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * JVM replacement of the extension string resources. There are no resources, and the id is used instead.
+ */
+public class StringRef {
+
+    public static String str(@NonNull String id) {
+        return id;
+    }
+
+    public static String str(@NonNull String id, Object... args) {
+        return id + " " + Arrays.toString(args);
+    }
+}
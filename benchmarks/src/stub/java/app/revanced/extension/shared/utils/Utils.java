@@ -0,0 +1,74 @@
+package app.revanced.extension.shared.utils;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import app.revanced.extension.shared.settings.IntegerSetting;
+
+/**
+ * JVM replacement of the extension utilities, with only what the benchmarked classes use.
+ * There is no context and no main thread. Tasks for the main thread run on a single daemon thread.
+ * Background tasks run on the calling thread, so the benchmarked classes are ready when the task returns.
+ * Toasts are not shown, and are counted so a benchmark can check the toasts of the benchmarked classes.
+ */
+public class Utils {
+
+    private static final AtomicInteger toastCount = new AtomicInteger();
+
+    private static final ScheduledExecutorService mainThread = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "main-thread-stub");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public static Context getContext() {
+        return null;
+    }
+
+    public static boolean isCurrentlyOnMainThread() {
+        return false;
+    }
+
+    public static void runOnBackgroundThread(@NonNull Runnable task) {
+        task.run();
+    }
+
+    public static void runOnMainThreadDelayed(@NonNull Runnable runnable, long delayMillis) {
+        mainThread.schedule(() -> {
+            try {
+                runnable.run();
+            } catch (Exception ex) {
+                Logger.printException(() -> runnable.getClass().getSimpleName() + ": " + ex.getMessage(), ex);
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return Number of toasts shown since the JVM started.
+     */
+    public static int getToastCount() {
+        return toastCount.get();
+    }
+
+    public static void showToastLong(@NonNull String messageToToast) {
+        toastCount.incrementAndGet();
+        Logger.printInfo(() -> "Showing toast: " + messageToToast);
+    }
+
+    public static int validateValue(IntegerSetting settings, int min, int max, String message) {
+        int value = settings.get();
+
+        if (value < min || value > max) {
+            settings.resetToDefault();
+            value = settings.defaultValue;
+        }
+
+        return value;
+    }
+}
@@ -0,0 +1,7 @@
+package app.revanced.extension.youtube.patches.misc;
+
+/**
+ * JVM replacement of the extension patch. Only referenced by the documentation of the benchmarked classes.
+ */
+public class ShareSheetPatch {
+}
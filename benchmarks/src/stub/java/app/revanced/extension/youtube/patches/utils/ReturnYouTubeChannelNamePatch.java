@@ -0,0 +1,12 @@
+package app.revanced.extension.youtube.patches.utils;
+
+import androidx.annotation.NonNull;
+
+/**
+ * JVM replacement of the extension patch. Channel names are not fetched when benchmarking.
+ */
+public class ReturnYouTubeChannelNamePatch {
+
+    public static void setLastShortsChannelId(@NonNull String handle, @NonNull String channelId) {
+    }
+}
@@ -0,0 +1,12 @@
+package app.revanced.extension.youtube.patches.utils;
+
+import androidx.annotation.Nullable;
+
+/**
+ * JVM replacement of the extension patch. Dislikes are not fetched when benchmarking.
+ */
+public class ReturnYouTubeDislikePatch {
+
+    public static void setLastLithoShortsVideoId(@Nullable String videoId) {
+    }
+}
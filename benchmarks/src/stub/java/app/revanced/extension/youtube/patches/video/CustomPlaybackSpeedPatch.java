@@ -0,0 +1,7 @@
+package app.revanced.extension.youtube.patches.video;
+
+/**
+ * JVM replacement of the extension patch. Only referenced by the documentation of the benchmarked classes.
+ */
+public class CustomPlaybackSpeedPatch {
+}
@@ -0,0 +1,42 @@
+package app.revanced.extension.youtube.shared;
+
+/**
+ * JVM replacement of the extension player type, which is Kotlin and cannot be compiled by the benchmarks.
+ * The type can be set by a benchmark with {@link #setFromString(String)}.
+ */
+public enum PlayerType {
+    NONE,
+    HIDDEN,
+    WATCH_WHILE_MINIMIZED,
+    WATCH_WHILE_MAXIMIZED,
+    WATCH_WHILE_FULLSCREEN,
+    WATCH_WHILE_SLIDING_MAXIMIZED_FULLSCREEN,
+    WATCH_WHILE_SLIDING_MINIMIZED_MAXIMIZED,
+    WATCH_WHILE_SLIDING_MINIMIZED_DISMISSED,
+    WATCH_WHILE_SLIDING_FULLSCREEN_DISMISSED,
+    INLINE_MINIMAL,
+    VIRTUAL_REALITY_FULLSCREEN,
+    WATCH_WHILE_PICTURE_IN_PICTURE;
+
+    private static volatile PlayerType currentPlayerType = NONE;
+
+    public static void setFromString(String enumName) {
+        currentPlayerType = valueOf(enumName);
+    }
+
+    public static PlayerType getCurrent() {
+        return currentPlayerType;
+    }
+
+    public boolean isNoneOrHidden() {
+        return this == NONE || this == HIDDEN;
+    }
+
+    public boolean isMaximizedOrFullscreen() {
+        return this == WATCH_WHILE_MAXIMIZED || this == WATCH_WHILE_FULLSCREEN;
+    }
+
+    public boolean isMaximizedOrFullscreenOrSliding() {
+        return isMaximizedOrFullscreen() || this == WATCH_WHILE_SLIDING_MAXIMIZED_FULLSCREEN;
+    }
+}
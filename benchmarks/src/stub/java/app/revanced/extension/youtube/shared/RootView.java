@@ -0,0 +1,40 @@
+package app.revanced.extension.youtube.shared;
+
+import static app.revanced.extension.youtube.patches.components.LayoutReloadObserverFilter.isActionBarVisible;
+
+import androidx.annotation.NonNull;
+
+/**
+ * JVM replacement of the extension root view, with only what the benchmarked classes use.
+ * The browse id and search query are added to the app by a patch, and are set by a benchmark instead.
+ */
+public final class RootView {
+
+    private static volatile String browseId = "";
+
+    private static volatile String searchQuery = "";
+
+    public static void setBrowseId(@NonNull String id) {
+        browseId = id;
+    }
+
+    public static void setSearchQuery(@NonNull String query) {
+        searchQuery = query;
+    }
+
+    public static boolean isSearchBarActive() {
+        return !getSearchQuery().isEmpty();
+    }
+
+    public static boolean isPlayerActive() {
+        return PlayerType.getCurrent().isMaximizedOrFullscreenOrSliding() || isActionBarVisible();
+    }
+
+    public static String getBrowseId() {
+        return browseId;
+    }
+
+    public static String getSearchQuery() {
+        return searchQuery;
+    }
+}
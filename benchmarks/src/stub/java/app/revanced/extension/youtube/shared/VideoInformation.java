@@ -0,0 +1,7 @@
+package app.revanced.extension.youtube.shared;
+
+/**
+ * JVM replacement of the extension video information. Only referenced by the documentation of the benchmarked classes.
+ */
+public final class VideoInformation {
+}
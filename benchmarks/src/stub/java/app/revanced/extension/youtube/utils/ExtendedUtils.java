@@ -0,0 +1,15 @@
+package app.revanced.extension.youtube.utils;
+
+import androidx.annotation.NonNull;
+
+/**
+ * JVM replacement of the extension utilities. The benchmarks use a recent app version, with no version spoofing.
+ */
+public class ExtendedUtils {
+
+    public static final boolean IS_19_26_OR_GREATER = true;
+
+    public static boolean isSpoofingToLessThan(@NonNull String versionName) {
+        return false;
+    }
+}
@@ -0,0 +1,36 @@
+package org.json;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JVM replacement of the Android JSON array, with only what the benchmarked classes use.
+ */
+public class JSONArray {
+    private final List<Object> values = new ArrayList<>();
+
+    public JSONArray put(Object value) {
+        values.add(value);
+        return this;
+    }
+
+    public int length() {
+        return values.size();
+    }
+
+    public String toString(int indentSpaces) {
+        return toString();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+        for (Object value : values) {
+            if (builder.length() > 1) {
+                builder.append(',');
+            }
+            JSONObject.appendValue(builder, value);
+        }
+        return builder.append(']').toString();
+    }
+}
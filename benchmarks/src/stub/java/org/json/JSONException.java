@@ -0,0 +1,10 @@
+package org.json;
+
+/**
+ * JVM replacement of the Android JSON exception.
+ */
+public class JSONException extends Exception {
+    public JSONException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,73 @@
+package org.json;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * JVM replacement of the Android JSON object, with only what the benchmarked classes use.
+ * Output is not indented.
+ */
+public class JSONObject {
+    private final Map<String, Object> values = new LinkedHashMap<>();
+
+    public JSONObject put(String name, Object value) throws JSONException {
+        if (name == null) {
+            throw new JSONException("Names must be non-null");
+        }
+        values.put(name, value);
+        return this;
+    }
+
+    public JSONObject put(String name, long value) throws JSONException {
+        return put(name, (Object) value);
+    }
+
+    public JSONObject put(String name, int value) throws JSONException {
+        return put(name, (Object) value);
+    }
+
+    static void appendValue(StringBuilder builder, Object value) {
+        if (value == null) {
+            builder.append("null");
+        } else if (value instanceof Number || value instanceof Boolean
+                || value instanceof JSONObject || value instanceof JSONArray) {
+            builder.append(value);
+        } else {
+            builder.append('"');
+            for (char c : value.toString().toCharArray()) {
+                switch (c) {
+                    case '"', '\\' -> builder.append('\\').append(c);
+                    case '\n' -> builder.append("\\n");
+                    case '\r' -> builder.append("\\r");
+                    case '\t' -> builder.append("\\t");
+                    default -> {
+                        if (c < 0x20) {
+                            builder.append(String.format("\\u%04x", (int) c));
+                        } else {
+                            builder.append(c);
+                        }
+                    }
+                }
+            }
+            builder.append('"');
+        }
+    }
+
+    public String toString(int indentSpaces) {
+        return toString();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("{");
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            if (builder.length() > 1) {
+                builder.append(',');
+            }
+            appendValue(builder, entry.getKey());
+            builder.append(':');
+            appendValue(builder, entry.getValue());
+        }
+        return builder.append('}').toString();
+    }
+}
@@ -28,4 +28,9 @@ public final class AdsFilter extends Filter {
         addPathCallbacks(statementBanner);
 
     }
+
+    @Override
+    public boolean isCacheable(StringFilterGroup group) {
+        return true;
+    }
 }
@@ -36,4 +36,9 @@ public final class LayoutComponentsFilter extends Filter {
                 sampleShelf
         );
     }
+
+    @Override
+    public boolean isCacheable(StringFilterGroup group) {
+        return true;
+    }
 }
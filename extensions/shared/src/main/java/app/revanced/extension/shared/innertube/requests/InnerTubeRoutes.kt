@@ -28,6 +28,17 @@ object InnerTubeRoutes {
         fields = "microformat.playerMicroformatRenderer.category",
     )
 
+    @JvmField
+    val GET_NEXT_VIDEO_ID = compileRoute(
+        endpoint = "next",
+        fields = "contents.singleColumnWatchNextResults." +
+                "autoplay.autoplay.sets.autoplayVideo.watchEndpoint.videoId," +
+                "contents.singleColumnWatchNextResults." +
+                "playlist.playlist.currentIndex," +
+                "contents.singleColumnWatchNextResults." +
+                "playlist.playlist.contents.playlistPanelVideoRenderer.videoId",
+    )
+
     @JvmField
     val GET_PLAYLISTS = compileRoute(
         endpoint = "playlist/get_add_to_playlist",
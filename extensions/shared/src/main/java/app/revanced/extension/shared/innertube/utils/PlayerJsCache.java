@@ -0,0 +1,299 @@
+package app.revanced.extension.shared.innertube.utils;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.liskovsoft.youtubeapi.app.playerdata.PlayerDataExtractor;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import app.revanced.extension.shared.patches.PatchStatus;
+import app.revanced.extension.shared.utils.Logger;
+import app.revanced.extension.shared.utils.Utils;
+import kotlin.Pair;
+
+/**
+ * Disk cache of the player javascript, the values extracted from it,
+ * and the throttling parameters deobfuscated with it.
+ * <p>
+ * Entries are keyed by the player identifier in the javascript url, so a player that did not change
+ * is not downloaded again, and the function code is not extracted again.
+ * Entries are ignored after the app is patched again, because the patches can change how the
+ * function code is extracted.
+ * <p>
+ * Each player type (TV and Mobile Web) keeps only the entry of the last player used.
+ */
+final class PlayerJsCache {
+    private static final String CACHE_DIRECTORY = "player_js";
+    private static final int VERSION = 1;
+    private static final String PARAMETERS_EXTENSION = ".params.json";
+
+    /**
+     * Values extracted from a cached player javascript.
+     */
+    static final class Entry {
+        @Nullable
+        final String signatureTimestamp;
+        @NonNull
+        final PlayerDataExtractor extractor;
+
+        private Entry(@Nullable String signatureTimestamp, @NonNull PlayerDataExtractor extractor) {
+            this.signatureTimestamp = signatureTimestamp;
+            this.extractor = extractor;
+        }
+    }
+
+    private PlayerJsCache() {
+    }
+
+    @Nullable
+    private static File getDirectory() {
+        Context context = Utils.getContext();
+        if (context == null) {
+            return null;
+        }
+        File directory = new File(context.getCacheDir(), CACHE_DIRECTORY);
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            Logger.printDebug(() -> "Could not create player js cache directory: " + directory);
+            return null;
+        }
+        return directory;
+    }
+
+    private static String getPrefix(boolean isTV) {
+        return isTV ? "tv_" : "mweb_";
+    }
+
+    @Nullable
+    private static File getFile(@NonNull String playerJsId, boolean isTV, @NonNull String extension) {
+        File directory = getDirectory();
+        return directory == null
+                ? null
+                : new File(directory, getPrefix(isTV) + playerJsId + extension);
+    }
+
+    /**
+     * @return The values extracted from the player javascript, or null if the player is not cached.
+     */
+    @Nullable
+    static Entry load(@NonNull String playerJsId, boolean isTV) {
+        File file = getFile(playerJsId, isTV, ".json");
+        if (file == null || !file.isFile()) {
+            return null;
+        }
+
+        try {
+            JSONObject json = new JSONObject(readFile(file));
+            if (json.getInt("version") != VERSION
+                    || json.getLong("patchedTime") != PatchStatus.PatchedTime()) {
+                Logger.printDebug(() -> "Ignoring player js cache of a different patch: " + playerJsId);
+                return null;
+            }
+
+            Pair<List<String>, String> nFuncCode = readFunctionCode(json, "nFunc");
+            Pair<List<String>, String> sigFuncCode = readFunctionCode(json, "sigFunc");
+            if (nFuncCode == null && sigFuncCode == null) {
+                return null;
+            }
+
+            Logger.printDebug(() -> "Loaded player js cache: " + playerJsId + ", isTV: " + isTV);
+            return new Entry(
+                    json.optString("signatureTimestamp", null),
+                    new PlayerDataExtractor(nFuncCode, sigFuncCode)
+            );
+        } catch (IOException | JSONException ex) {
+            Logger.printException(() -> "Could not load player js cache: " + file, ex);
+        }
+        return null;
+    }
+
+    /**
+     * @return The cached player javascript, or null if the player is not cached.
+     */
+    @Nullable
+    static String loadPlayerJs(@NonNull String playerJsId, boolean isTV) {
+        File file = getFile(playerJsId, isTV, ".js");
+        if (file == null || !file.isFile()) {
+            return null;
+        }
+
+        try {
+            return readFile(file);
+        } catch (IOException ex) {
+            Logger.printException(() -> "Could not load cached player js: " + file, ex);
+        }
+        return null;
+    }
+
+    /**
+     * @return The throttling parameters saved by {@link #saveParameters(String, boolean, JSONObject)},
+     * or null if the player has no saved parameters.
+     */
+    @Nullable
+    static JSONObject loadParameters(@NonNull String playerJsId, boolean isTV) {
+        File file = getFile(playerJsId, isTV, PARAMETERS_EXTENSION);
+        if (file == null || !file.isFile()) {
+            return null;
+        }
+
+        try {
+            JSONObject json = new JSONObject(readFile(file));
+            if (json.getInt("version") != VERSION
+                    || json.getLong("patchedTime") != PatchStatus.PatchedTime()) {
+                Logger.printDebug(() -> "Ignoring throttling parameters of a different patch: " + playerJsId);
+                return null;
+            }
+            return json;
+        } catch (IOException | JSONException ex) {
+            Logger.printException(() -> "Could not load throttling parameters: " + file, ex);
+        }
+        return null;
+    }
+
+    /**
+     * Saves the deobfuscated throttling parameters of a player.
+     * The parameters are removed with the player.
+     */
+    static void saveParameters(@NonNull String playerJsId, boolean isTV, @NonNull JSONObject json) {
+        File file = getFile(playerJsId, isTV, PARAMETERS_EXTENSION);
+        if (file == null) {
+            return;
+        }
+
+        try {
+            json.put("version", VERSION);
+            json.put("patchedTime", PatchStatus.PatchedTime());
+            writeFile(file, json.toString());
+        } catch (IOException | JSONException ex) {
+            Logger.printException(() -> "Could not save throttling parameters: " + playerJsId, ex);
+        }
+    }
+
+    /**
+     * Saves the player javascript, and the values extracted from it.
+     * Previous players of the same type are removed.
+     */
+    static void save(@NonNull String playerJsId, boolean isTV, @NonNull String playerJs,
+                     @Nullable String signatureTimestamp, @NonNull PlayerDataExtractor extractor) {
+        Pair<List<String>, String> nFuncCode = extractor.getNFuncCode();
+        Pair<List<String>, String> sigFuncCode = extractor.getSigFuncCode();
+        if (nFuncCode == null && sigFuncCode == null) {
+            // Nothing was extracted. Try again with the next app launch.
+            return;
+        }
+
+        File directory = getDirectory();
+        if (directory == null) {
+            return;
+        }
+
+        try {
+            JSONObject json = new JSONObject();
+            json.put("version", VERSION);
+            json.put("patchedTime", PatchStatus.PatchedTime());
+            json.put("playerJsId", playerJsId);
+            if (signatureTimestamp != null) {
+                json.put("signatureTimestamp", signatureTimestamp);
+            }
+            writeFunctionCode(json, "nFunc", nFuncCode);
+            writeFunctionCode(json, "sigFunc", sigFuncCode);
+
+            String prefix = getPrefix(isTV);
+            // Files of this player are replaced when written, and parameters of this player
+            // may already be saved or are being saved, and are checked when loaded.
+            String playerFilePrefix = prefix + playerJsId + ".";
+            File[] files = directory.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    String fileName = file.getName();
+                    if (fileName.startsWith(prefix) && !fileName.startsWith(playerFilePrefix)) {
+                        //noinspection ResultOfMethodCallIgnored
+                        file.delete();
+                    }
+                }
+            }
+
+            // The javascript is written first, so an entry always has its javascript.
+            writeFile(new File(directory, prefix + playerJsId + ".js"), playerJs);
+            writeFile(new File(directory, prefix + playerJsId + ".json"), json.toString());
+            Logger.printDebug(() -> "Saved player js cache: " + playerJsId + ", isTV: " + isTV);
+        } catch (IOException | JSONException ex) {
+            Logger.printException(() -> "Could not save player js cache: " + playerJsId, ex);
+        }
+    }
+
+    @Nullable
+    private static Pair<List<String>, String> readFunctionCode(JSONObject json, String name) throws JSONException {
+        JSONArray argNames = json.optJSONArray(name + "ArgNames");
+        String code = json.optString(name + "Code", null);
+        if (argNames == null || code == null) {
+            return null;
+        }
+        List<String> argNamesList = new ArrayList<>(argNames.length());
+        for (int i = 0, length = argNames.length(); i < length; i++) {
+            argNamesList.add(argNames.getString(i));
+        }
+        return new Pair<>(argNamesList, code);
+    }
+
+    private static void writeFunctionCode(JSONObject json, String name,
+                                          @Nullable Pair<List<String>, String> funcCode) throws JSONException {
+        if (funcCode != null) {
+            json.put(name + "ArgNames", new JSONArray(funcCode.getFirst()));
+            json.put(name + "Code", funcCode.getSecond());
+        }
+    }
+
+    private static String readFile(File file) throws IOException {
+        try (InputStream input = new FileInputStream(file)) {
+            final long length = file.length();
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("File is too large: " + file);
+            }
+            byte[] bytes = new byte[(int) length];
+            int offset = 0;
+            while (offset < bytes.length) {
+                final int bytesRead = input.read(bytes, offset, bytes.length - offset);
+                if (bytesRead < 0) {
+                    throw new IOException("Unexpected end of file: " + file);
+                }
+                offset += bytesRead;
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Writes to a temporary file that is then renamed, so a partially written file is never read.
+     * Each write uses a different temporary file, so writes of the same file do not overlap.
+     */
+    private static void writeFile(File file, String contents) throws IOException {
+        File temporaryFile = File.createTempFile(file.getName() + ".", ".tmp", file.getParentFile());
+        try (OutputStream output = new FileOutputStream(temporaryFile)) {
+            output.write(contents.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException ex) {
+            //noinspection ResultOfMethodCallIgnored
+            temporaryFile.delete();
+            throw ex;
+        }
+        if (!temporaryFile.renameTo(file)) {
+            //noinspection ResultOfMethodCallIgnored
+            temporaryFile.delete();
+            throw new IOException("Could not rename: " + temporaryFile);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package app.revanced.extension.shared.innertube.utils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import app.revanced.extension.shared.utils.Logger;
+import app.revanced.extension.shared.utils.Utils;
+
+/**
+ * Obfuscated and deobfuscated 's' and 'n' parameters of a single player javascript.
+ * <p>
+ * The deobfuscation functions change with the player, so a memo is only used with the player it was created for.
+ * Parameters are kept in least recently used order, and are saved to the {@link PlayerJsCache},
+ * so videos that are watched again or resumed after a restart do not call the javascript functions.
+ * <p>
+ * All methods can be called from any thread.
+ */
+final class ThrottlingParameterMemo {
+    /**
+     * Maximum parameters kept of each type.
+     * Each video usually has a single 'n' parameter, and a few 's' parameters if it uses signatureCipher.
+     */
+    private static final int MAX_PARAMETERS = 200;
+
+    /**
+     * Player identifier, or null if the player is not known. A memo without a player is not saved.
+     */
+    @Nullable
+    final String playerJsId;
+    final boolean isTV;
+
+    private final Map<String, String> nParams = createMap();
+    private final Map<String, String> sParams = createMap();
+
+    private final AtomicBoolean savePending = new AtomicBoolean();
+
+    /**
+     * Held while saving, so saves do not overlap and a save never replaces newer parameters with older ones.
+     */
+    private final Object saveLock = new Object();
+
+    private static Map<String, String> createMap() {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > MAX_PARAMETERS;
+            }
+        };
+    }
+
+    private ThrottlingParameterMemo(@Nullable String playerJsId, boolean isTV) {
+        this.playerJsId = playerJsId;
+        this.isTV = isTV;
+    }
+
+    /**
+     * @return A memo of the player, with the parameters saved by a previous app launch.
+     */
+    @NonNull
+    static ThrottlingParameterMemo load(@Nullable String playerJsId, boolean isTV) {
+        ThrottlingParameterMemo memo = new ThrottlingParameterMemo(playerJsId, isTV);
+        if (playerJsId != null) {
+            JSONObject json = PlayerJsCache.loadParameters(playerJsId, isTV);
+            if (json != null) {
+                try {
+                    synchronized (memo) {
+                        readMap(json.optJSONObject("n"), memo.nParams);
+                        readMap(json.optJSONObject("s"), memo.sParams);
+                    }
+                    Logger.printDebug(() -> "Loaded throttling parameters: " + playerJsId
+                            + ", 'n' parameters: " + memo.nParams.size() + ", 's' parameters: " + memo.sParams.size());
+                } catch (JSONException ex) {
+                    Logger.printException(() -> "Could not load throttling parameters: " + playerJsId, ex);
+                }
+            }
+        }
+        return memo;
+    }
+
+    boolean isPlayer(@Nullable String playerJsId, boolean isTV) {
+        return this.isTV == isTV && Objects.equals(this.playerJsId, playerJsId);
+    }
+
+    @Nullable
+    synchronized String getNParam(@NonNull String obfuscatedNParam) {
+        return nParams.get(obfuscatedNParam);
+    }
+
+    @Nullable
+    synchronized String getSParam(@NonNull String obfuscatedSParam) {
+        return sParams.get(obfuscatedSParam);
+    }
+
+    synchronized void putNParam(@NonNull String obfuscatedNParam, @NonNull String deobfuscatedNParam) {
+        nParams.put(obfuscatedNParam, deobfuscatedNParam);
+    }
+
+    synchronized void putSParam(@NonNull String obfuscatedSParam, @NonNull String deobfuscatedSParam) {
+        sParams.put(obfuscatedSParam, deobfuscatedSParam);
+    }
+
+    /**
+     * Saves the parameters on a background thread.
+     * Saves requested while a save is pending are combined into that save, and saves are written one at a time.
+     */
+    void save() {
+        if (playerJsId == null || !savePending.compareAndSet(false, true)) {
+            return;
+        }
+        Utils.runOnBackgroundThread(() -> {
+            synchronized (saveLock) {
+                // Cleared while holding the lock, so parameters added after this are saved by the next save.
+                savePending.set(false);
+                try {
+                    JSONObject json = new JSONObject();
+                    synchronized (this) {
+                        json.put("n", new JSONObject(nParams));
+                        json.put("s", new JSONObject(sParams));
+                    }
+                    PlayerJsCache.saveParameters(playerJsId, isTV, json);
+                } catch (JSONException ex) {
+                    Logger.printException(() -> "Could not save throttling parameters: " + playerJsId, ex);
+                }
+            }
+        });
+    }
+
+    private static void readMap(@Nullable JSONObject json, @NonNull Map<String, String> map) throws JSONException {
+        if (json == null) {
+            return;
+        }
+        // Keys are saved in least recently used order.
+        Iterator<String> keys = json.keys();
+        while (keys.hasNext()) {
+            String key = keys.next();
+            map.put(key, json.getString(key));
+        }
+    }
+}
@@ -1,7 +1,5 @@
 package app.revanced.extension.shared.innertube.utils;
 
-import android.util.Pair;
-
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
@@ -13,13 +11,16 @@ import org.json.JSONArray;
 
 import java.io.IOException;
 import java.net.SocketTimeoutException;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import app.revanced.extension.shared.innertube.client.YouTubeClient;
+import app.revanced.extension.shared.requests.SharedHttpClient;
 import app.revanced.extension.shared.utils.Logger;
 import app.revanced.extension.shared.utils.Utils;
 import okhttp3.OkHttpClient;
@@ -72,6 +73,11 @@ public class ThrottlingParameterUtils {
      */
     private static final Pattern PLAYER_JS_IDENTIFIER_PATTERN =
             Pattern.compile("player\\\\/([a-z0-9]{8})\\\\/");
+    /**
+     * Regular expression pattern to find the player identifier in the JavaScript url.
+     */
+    private static final Pattern PLAYER_JS_URL_IDENTIFIER_PATTERN =
+            Pattern.compile("/s/player/([a-z0-9]{8})/");
     /**
      * Service worker url (Mobile Web).
      */
@@ -174,17 +180,18 @@ public class ThrottlingParameterUtils {
     /**
      * Typically, there are 10 to 30 available formats for a video.
      * Each format has a different streaming url, but the 'n' parameter in the response is the same.
-     * If the obfuscated 'n' parameter and the deobfuscated 'n' parameter are put in a Map,
-     * the remaining 9 to 29 streaming urls can be deobfuscated quickly using the values put in the Map.
+     * If the obfuscated and deobfuscated parameters are memoized, the remaining streaming urls,
+     * and the streaming urls of the same video when it is watched again, are deobfuscated without javascript.
+     * <p>
+     * Memo of the current player (Mobile Web).
      */
-    private static final Map<String, String> nParamMap = new LinkedHashMap<>() {
-        private static final int NUMBER_OF_N_PARAM = 50;
-
-        @Override
-        protected boolean removeEldestEntry(Map.Entry eldest) {
-            return size() > NUMBER_OF_N_PARAM;
-        }
-    };
+    @Nullable
+    private volatile static ThrottlingParameterMemo memoMobileWeb = null;
+    /**
+     * Memo of the current player (TV).
+     */
+    @Nullable
+    private volatile static ThrottlingParameterMemo memoTV = null;
 
     public static void initializeJavascript(boolean useLatestPlayerJs, boolean useMobileWeb) {
         if (isInitialized) {
@@ -201,8 +208,8 @@ public class ThrottlingParameterUtils {
             playerJsUrlTV = String.format(PLAYER_JS_URL_FORMAT_TV, PLAYER_JS_HARDCODED_URL_PATH_TV);
         }
 
+        // The player JavaScript is only downloaded if the player is not in the disk cache.
         extractorTV = getExtractor(true);
-        playerJsTV = getPlayerJs(true);
         playerJsUrlTV = getPlayerJsUrl(true);
         signatureTimestampTV = getSignatureTimestamp(true);
 
@@ -213,7 +220,6 @@ public class ThrottlingParameterUtils {
 
         if (useMobileWeb) {
             extractorMobileWeb = getExtractor(false);
-            playerJsMobileWeb = getPlayerJs(false);
             playerJsUrlMobileWeb = getPlayerJsUrl(false);
             signatureTimestampMobileWeb = getSignatureTimestamp(false);
             visitorIdMobileWeb = getVisitorId(false);
@@ -245,6 +251,15 @@ public class ThrottlingParameterUtils {
 
     @Nullable
     private static String setSignatureTimestamp(boolean isTV) {
+        String playerJsId = getPlayerJsIdentifier(isTV);
+        if (playerJsId != null) {
+            PlayerJsCache.Entry entry = PlayerJsCache.load(playerJsId, isTV);
+            if (entry != null && entry.signatureTimestamp != null) {
+                Logger.printDebug(() -> "signatureTimestamp: " + entry.signatureTimestamp + " (cached)");
+                return entry.signatureTimestamp;
+            }
+        }
+
         try {
             String playerJs = getPlayerJs(isTV);
             if (playerJs != null) {
@@ -444,8 +459,30 @@ public class ThrottlingParameterUtils {
         return playerJsUrl;
     }
 
+    /**
+     * @return The player identifier in the JavaScript url, used as the key of the disk cache.
+     */
+    @Nullable
+    private static String getPlayerJsIdentifier(boolean isTV) {
+        String playerJsUrl = getPlayerJsUrl(isTV);
+        if (playerJsUrl != null) {
+            Matcher matcher = PLAYER_JS_URL_IDENTIFIER_PATTERN.matcher(playerJsUrl);
+            if (matcher.find()) {
+                return matcher.group(1);
+            }
+        }
+        return null;
+    }
+
     @Nullable
     private static String setPlayerJs(boolean isTV) {
+        String playerJsId = getPlayerJsIdentifier(isTV);
+        if (playerJsId != null) {
+            String playerJs = PlayerJsCache.loadPlayerJs(playerJsId, isTV);
+            if (playerJs != null) {
+                return playerJs;
+            }
+        }
         String playerJsUrl = getPlayerJsUrl(isTV);
         if (playerJsUrl != null) {
             return fetch(playerJsUrl, isTV);
@@ -471,9 +508,28 @@ public class ThrottlingParameterUtils {
 
     @Nullable
     private static PlayerDataExtractor setExtractor(boolean isTV) {
+        String playerJsId = getPlayerJsIdentifier(isTV);
+        if (playerJsId != null) {
+            PlayerJsCache.Entry entry = PlayerJsCache.load(playerJsId, isTV);
+            if (entry != null) {
+                if (entry.signatureTimestamp != null) {
+                    if (isTV) {
+                        signatureTimestampTV = entry.signatureTimestamp;
+                    } else {
+                        signatureTimestampMobileWeb = entry.signatureTimestamp;
+                    }
+                }
+                return entry.extractor;
+            }
+        }
+
         String playerJs = getPlayerJs(isTV);
         if (playerJs != null) {
-            return new PlayerDataExtractor(playerJs);
+            PlayerDataExtractor extractor = new PlayerDataExtractor(playerJs);
+            if (playerJsId != null) {
+                PlayerJsCache.save(playerJsId, isTV, playerJs, getSignatureTimestamp(isTV), extractor);
+            }
+            return extractor;
         }
         return null;
     }
@@ -494,6 +550,26 @@ public class ThrottlingParameterUtils {
         return extractor;
     }
 
+    /**
+     * @return The memo of the current player. A new memo is loaded if the player changed.
+     */
+    @NonNull
+    private static synchronized ThrottlingParameterMemo getMemo(boolean isTV) {
+        String playerJsId = getPlayerJsIdentifier(isTV);
+        ThrottlingParameterMemo memo = isTV
+                ? memoTV
+                : memoMobileWeb;
+        if (memo == null || !memo.isPlayer(playerJsId, isTV)) {
+            memo = ThrottlingParameterMemo.load(playerJsId, isTV);
+            if (isTV) {
+                memoTV = memo;
+            } else {
+                memoMobileWeb = memo;
+            }
+        }
+        return memo;
+    }
+
     private static void handleConnectionError(String toastMessage, @Nullable Exception ex) {
         Logger.printDebug(() -> toastMessage, ex);
     }
@@ -515,7 +591,7 @@ public class ThrottlingParameterUtils {
         Logger.printDebug(() -> "fetching url: " + uri);
 
         try {
-            OkHttpClient client = new OkHttpClient();
+            OkHttpClient client = SharedHttpClient.getClient();
             Request request = new Request.Builder()
                     .url(uri)
                     .header("Accept-Language", "en-US,en")
@@ -547,95 +623,139 @@ public class ThrottlingParameterUtils {
     }
 
     /**
-     * Convert signatureCipher to streaming url with obfuscated 'n' parameter.
+     * Deobfuscates the streaming urls of all formats of a response.
      * <p>
+     * Formats usually share a few distinct 's' and 'n' parameters, so each distinct parameter is deobfuscated once,
+     * and all parameters are deobfuscated with a single call of the javascript runtimes.
+     * A format that uses 'signatureCipher' is converted to its 'url' with the deobfuscated 'sig' parameter,
+     * and the 'n' parameter of each url is then deobfuscated.
      *
-     * @param videoId         Current video id.
-     * @param signatureCipher The 'signatureCipher' included in the response.
-     * @return Streaming url with obfuscated 'n' parameter.
+     * @param videoId          Current video id.
+     * @param urls             The 'url' of each format, or null if the format uses 'signatureCipher'.
+     * @param signatureCiphers The 'signatureCipher' of each format, or null if the format uses 'url'.
+     * @return Deobfuscated streaming url of each format.
+     * A format is null if the signatureCipher could not be converted,
+     * and has the obfuscated 'n' parameter if the 'n' parameter could not be deobfuscated.
      */
-    @Nullable
-    public static String getUrlWithThrottlingParameterObfuscated(@NonNull String videoId, @NonNull String signatureCipher,
-                                                                 boolean isTV) {
+    @NonNull
+    public static String[] getUrlsWithThrottlingParameterDeobfuscated(@NonNull String videoId,
+                                                                      @NonNull String[] urls,
+                                                                      @NonNull String[] signatureCiphers,
+                                                                      boolean isTV) {
+        final long startTime = System.currentTimeMillis();
+        final int count = urls.length;
+        String[] deobfuscatedUrls = new String[count];
+        String[] sParams = new String[count];
+        String[] nParams = new String[count];
+        // Distinct parameters, and the deobfuscated parameters after decoding.
+        Map<String, String> sigs = new LinkedHashMap<>();
+        Map<String, String> nSigs = new LinkedHashMap<>();
+
         try {
-            PlayerDataExtractor extractor = getExtractor(isTV);
-            if (extractor != null) {
-                Matcher paramSMatcher = THROTTLING_PARAM_S_PATTERN.matcher(signatureCipher);
-                Matcher paramUrlMatcher = THROTTLING_PARAM_URL_PATTERN.matcher(signatureCipher);
-                if (paramSMatcher.find() && paramUrlMatcher.find()) {
-                    // The 's' parameter from signatureCipher.
-                    String sParam = paramSMatcher.group(1);
-                    // The 'url' parameter from signatureCipher.
-                    String urlParam = paramUrlMatcher.group(1);
-                    if (StringUtils.isNotEmpty(sParam) && StringUtils.isNotEmpty(urlParam)) {
-                        // The 'sig' parameter converted by javascript rules.
-                        String decodedSigParm = extractor.extractSig(Helpers.decode(sParam));
-                        if (StringUtils.isNotEmpty(decodedSigParm)) {
-                            String decodedUriParm = Helpers.decode(urlParam);
-                            Logger.printDebug(() -> "Converted signatureCipher to obfuscatedUrl, videoId: " + videoId);
-                            return decodedUriParm + "&sig=" + decodedSigParm;
+            ThrottlingParameterMemo memo = getMemo(isTV);
+
+            for (int i = 0; i < count; i++) {
+                String obfuscatedUrl = null;
+                if (StringUtils.isNotEmpty(urls[i])) {
+                    obfuscatedUrl = urls[i];
+                } else if (StringUtils.isNotEmpty(signatureCiphers[i])) {
+                    Matcher paramSMatcher = THROTTLING_PARAM_S_PATTERN.matcher(signatureCiphers[i]);
+                    Matcher paramUrlMatcher = THROTTLING_PARAM_URL_PATTERN.matcher(signatureCiphers[i]);
+                    if (paramSMatcher.find() && paramUrlMatcher.find()) {
+                        String sParam = paramSMatcher.group(1);
+                        String urlParam = paramUrlMatcher.group(1);
+                        if (StringUtils.isNotEmpty(sParam) && StringUtils.isNotEmpty(urlParam)) {
+                            sParams[i] = Helpers.decode(sParam);
+                            if (!sigs.containsKey(sParams[i])) {
+                                sigs.put(sParams[i], memo.getSParam(sParams[i]));
+                            }
+                            obfuscatedUrl = Helpers.decode(urlParam);
                         }
                     }
                 }
+                if (obfuscatedUrl == null) {
+                    continue;
+                }
+                deobfuscatedUrls[i] = obfuscatedUrl;
+
+                String nParam = getThrottlingParameterFromStreamingUrl(obfuscatedUrl);
+                if (StringUtils.isNotEmpty(nParam)) {
+                    nParams[i] = nParam;
+                    if (!nSigs.containsKey(nParam)) {
+                        nSigs.put(nParam, memo.getNParam(nParam));
+                    }
+                }
+            }
+
+            List<String> pendingSParams = getPendingParams(sigs);
+            List<String> pendingNParams = getPendingParams(nSigs);
+            if (!pendingSParams.isEmpty() || !pendingNParams.isEmpty()) {
+                // The extractor is only needed if a parameter is not in the memo.
+                PlayerDataExtractor extractor = getExtractor(isTV);
+                if (extractor != null) {
+                    kotlin.Pair<List<String>, List<String>> results =
+                            extractor.extractSigsAndNSigs(pendingSParams, pendingNParams);
+                    for (int i = 0, size = pendingSParams.size(); i < size; i++) {
+                        String sig = results.getFirst().get(i);
+                        if (StringUtils.isNotEmpty(sig)) {
+                            sigs.put(pendingSParams.get(i), sig);
+                            memo.putSParam(pendingSParams.get(i), sig);
+                        }
+                    }
+                    for (int i = 0, size = pendingNParams.size(); i < size; i++) {
+                        String deobfuscatedNParam = results.getSecond().get(i);
+                        if (StringUtils.isNotEmpty(deobfuscatedNParam)) {
+                            nSigs.put(pendingNParams.get(i), deobfuscatedNParam);
+                            memo.putNParam(pendingNParams.get(i), deobfuscatedNParam);
+                        }
+                    }
+                    memo.save();
+                }
             }
         } catch (Exception ex) {
-            Logger.printException(() -> "getUrlWithThrottlingParameterObfuscated failed", ex);
+            Logger.printException(() -> "getUrlsWithThrottlingParameterDeobfuscated failed", ex);
         }
 
-        Logger.printDebug(() -> "Failed to convert signatureCipher, videoId: " + videoId);
-        return null;
-    }
-
-    /**
-     * Deobfuscates the obfuscated 'n' parameter to a valid streaming url.
-     * <p>
-     *
-     * @param videoId       Current video id.
-     * @param obfuscatedUrl Streaming url with obfuscated 'n' parameter.
-     * @return Deobfuscated streaming url.
-     */
-    @Nullable
-    public static String getUrlWithThrottlingParameterDeobfuscated(@NonNull String videoId, @Nullable String obfuscatedUrl,
-                                                                   boolean isTV) {
-        try {
-            // Obfuscated url is empty.
-            if (StringUtils.isEmpty(obfuscatedUrl)) {
-                Logger.printDebug(() -> "obfuscatedUrl is empty, videoId: " + videoId);
-                return obfuscatedUrl;
+        for (int i = 0; i < count; i++) {
+            String url = deobfuscatedUrls[i];
+            if (url == null) {
+                continue;
             }
-
-            // The 'n' parameter from obfuscatedUrl.
-            String obfuscatedNParams = getThrottlingParameterFromStreamingUrl(obfuscatedUrl);
-
-            // The 'n' parameter is null or empty.
-            if (StringUtils.isEmpty(obfuscatedNParams)) {
-                Logger.printDebug(() -> "'n' parameter not found in obfuscated streaming url, videoId: " + videoId);
-                return obfuscatedUrl;
+            if (sParams[i] != null) {
+                String sig = sigs.get(sParams[i]);
+                if (StringUtils.isEmpty(sig)) {
+                    deobfuscatedUrls[i] = null;
+                    continue;
+                }
+                url += "&sig=" + sig;
             }
-
-            // If the deobfuscated 'n' parameter is in the Map, return it.
-            String deobfuscatedNParam = nParamMap.get(obfuscatedNParams);
-            if (deobfuscatedNParam != null) {
-                Logger.printDebug(() -> "Cached 'n' parameter found, videoId: " + videoId + ", deobfuscatedNParams: " + deobfuscatedNParam);
-                return replaceNParam(obfuscatedUrl, obfuscatedNParams, deobfuscatedNParam);
+            if (nParams[i] != null) {
+                String deobfuscatedNParam = nSigs.get(nParams[i]);
+                if (StringUtils.isNotEmpty(deobfuscatedNParam)) {
+                    url = replaceNParam(url, nParams[i], deobfuscatedNParam);
+                }
             }
+            deobfuscatedUrls[i] = url;
+        }
 
-            // Deobfuscate the 'n' parameter.
-            Pair<String, String> deobfuscatedNParamPairs = decodeNParam(obfuscatedUrl, obfuscatedNParams, isTV);
-            String deobfuscatedUrl = deobfuscatedNParamPairs.first;
-            String deobfuscatedNParams = deobfuscatedNParamPairs.second;
-            if (!deobfuscatedNParams.isEmpty()) {
-                // If the 'n' parameter obfuscation was successful, put it in the map.
-                nParamMap.putIfAbsent(obfuscatedNParams, deobfuscatedNParams);
-                Logger.printDebug(() -> "Deobfuscated the 'n' parameter, videoId: " + videoId + ", obfuscatedNParams: " + obfuscatedNParams + ", deobfuscatedNParams: " + deobfuscatedNParams);
-                return deobfuscatedUrl;
+        Logger.printDebug(() -> "Deobfuscated " + count + " urls, videoId: " + videoId
+                + ", signatures: " + sigs.size() + ", 'n' parameters: " + nSigs.size()
+                + ", took: " + (System.currentTimeMillis() - startTime) + "ms");
+        return deobfuscatedUrls;
+    }
+
+    /**
+     * @return The parameters that are not deobfuscated.
+     */
+    @NonNull
+    private static List<String> getPendingParams(@NonNull Map<String, String> params) {
+        List<String> pendingParams = new ArrayList<>(params.size());
+        for (Map.Entry<String, String> entry : params.entrySet()) {
+            if (entry.getValue() == null) {
+                pendingParams.add(entry.getKey());
             }
-        } catch (Exception ex) {
-            Logger.printException(() -> "getUrlWithThrottlingParameterDeobfuscated failed", ex);
         }
-
-        Logger.printDebug(() -> "Failed to obfuscate 'n' parameter, videoId: " + videoId);
-        return obfuscatedUrl;
+        return pendingParams;
     }
 
     /**
@@ -668,32 +788,4 @@ public class ThrottlingParameterUtils {
     private static String replaceNParam(@NonNull String obfuscatedUrl, @NonNull String obfuscatedNParams, @NonNull String deObfuscatedNParams) {
         return obfuscatedUrl.replaceFirst("n=" + obfuscatedNParams, "n=" + deObfuscatedNParams);
     }
-
-    /**
-     * Deobfuscate the 'n' parameter.
-     * <p>
-     *
-     * @param obfuscatedUrl     Streaming url with obfuscated 'n' parameter.
-     * @param obfuscatedNParams Obfuscated 'n' parameter.
-     * @return Deobfuscated Pair(Deobfuscated streaming url, Deobfuscated 'n' parameter).
-     */
-    @NonNull
-    private static Pair<String, String> decodeNParam(@NonNull String obfuscatedUrl, @NonNull String obfuscatedNParams,
-                                                     boolean isTV) {
-        try {
-            PlayerDataExtractor extractor = getExtractor(isTV);
-            if (extractor != null) {
-                // The 'n' parameter deobfuscated by javascript rules.
-                String deObfuscatedNParams = extractor.extractNSig(obfuscatedNParams);
-                if (StringUtils.isNotEmpty(deObfuscatedNParams)) {
-                    String deObfuscatedUrl = replaceNParam(obfuscatedUrl, obfuscatedNParams, deObfuscatedNParams);
-                    return new Pair<>(deObfuscatedUrl, deObfuscatedNParams);
-                }
-            }
-        } catch (Exception ex) {
-            Logger.printException(() -> "decodeNSig failed", ex);
-        }
-
-        return new Pair<>(obfuscatedUrl, "");
-    }
 }
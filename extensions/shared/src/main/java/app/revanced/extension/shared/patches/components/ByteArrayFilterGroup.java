@@ -1,55 +1,19 @@
 package app.revanced.extension.shared.patches.components;
 
 import app.revanced.extension.shared.settings.BooleanSetting;
+import app.revanced.extension.shared.utils.BytePatternSearch;
 import app.revanced.extension.shared.utils.ByteTrieSearch;
 import app.revanced.extension.shared.utils.Logger;
 
 /**
- * If you have more than 1 filter patterns, then all instances of
+ * If you have more than 1 filter group, then all instances of
  * this class should filtered using {@link ByteArrayFilterGroupList#check(byte[])},
- * which uses a prefix tree to give better performance.
+ * which searches the patterns of all groups at once.
  */
 @SuppressWarnings("unused")
 public class ByteArrayFilterGroup extends FilterGroup<byte[]> {
 
-    private volatile int[][] failurePatterns;
-
-    // Modified implementation from https://stackoverflow.com/a/1507813
-    private static int indexOf(final byte[] data, final byte[] pattern, final int[] failure) {
-        // Finds the first occurrence of the pattern in the byte array using
-        // KMP matching algorithm.
-        int patternLength = pattern.length;
-        for (int i = 0, j = 0, dataLength = data.length; i < dataLength; i++) {
-            while (j > 0 && pattern[j] != data[i]) {
-                j = failure[j - 1];
-            }
-            if (pattern[j] == data[i]) {
-                j++;
-            }
-            if (j == patternLength) {
-                return i - patternLength + 1;
-            }
-        }
-        return -1;
-    }
-
-    private static int[] createFailurePattern(byte[] pattern) {
-        // Computes the failure function using a boot-strapping process,
-        // where the pattern is matched against itself.
-        final int patternLength = pattern.length;
-        final int[] failure = new int[patternLength];
-
-        for (int i = 1, j = 0; i < patternLength; i++) {
-            while (j > 0 && pattern[j] != pattern[i]) {
-                j = failure[j - 1];
-            }
-            if (pattern[j] == pattern[i]) {
-                j++;
-            }
-            failure[i] = j;
-        }
-        return failure;
-    }
+    private volatile BytePatternSearch search;
 
     public ByteArrayFilterGroup(BooleanSetting setting, byte[]... filters) {
         super(setting, filters);
@@ -62,35 +26,40 @@ public class ByteArrayFilterGroup extends FilterGroup<byte[]> {
         super(setting, ByteTrieSearch.convertStringsToBytes(filters));
     }
 
-    private synchronized void buildFailurePatterns() {
-        if (failurePatterns != null)
-            return; // Thread race and another thread already initialized the search.
-        Logger.printDebug(() -> "Building failure array for: " + this);
-        int[][] failurePatterns = new int[filters.length][];
-        int i = 0;
-        for (byte[] pattern : filters) {
-            failurePatterns[i++] = createFailurePattern(pattern);
+    BytePatternSearch getSearch() {
+        BytePatternSearch patternSearch = search;
+        if (patternSearch == null) {
+            patternSearch = buildSearch(); // Lazy load.
         }
-        this.failurePatterns = failurePatterns; // Must set after initialization finishes.
+        return patternSearch;
+    }
+
+    private synchronized BytePatternSearch buildSearch() {
+        BytePatternSearch search = this.search;
+        if (search == null) {
+            Logger.printDebug(() -> "Building pattern search for: " + this);
+            search = new BytePatternSearch(filters);
+            this.search = search; // Must set after initialization finishes.
+        }
+        return search;
     }
 
     @Override
     public FilterGroupResult check(final byte[] bytes) {
+        ProtoBufferIndex index = ProtoBufferIndex.getCurrentIndex(bytes);
+        if (index != null) {
+            return index.check(this);
+        }
+
         int matchedLength = 0;
         int matchedIndex = -1;
         if (isEnabled()) {
-            int[][] failures = failurePatterns;
-            if (failures == null) {
-                buildFailurePatterns(); // Lazy load.
-                failures = failurePatterns;
-            }
-            for (int i = 0, length = filters.length; i < length; i++) {
-                byte[] filter = filters[i];
-                matchedIndex = indexOf(bytes, filter, failures[i]);
-                if (matchedIndex >= 0) {
-                    matchedLength = filter.length;
-                    break;
-                }
+            BytePatternSearch patternSearch = getSearch();
+            // Same result as searching for each pattern in order, but the buffer is scanned only once.
+            final long match = patternSearch.findLowestPattern(bytes);
+            if (match != BytePatternSearch.NO_MATCH) {
+                matchedIndex = BytePatternSearch.getMatchedIndex(match);
+                matchedLength = filters[BytePatternSearch.getPatternIndex(match)].length;
             }
         }
         return new FilterGroupResult(setting, matchedIndex, matchedLength);
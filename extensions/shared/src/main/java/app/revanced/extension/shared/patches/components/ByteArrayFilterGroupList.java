@@ -1,14 +1,69 @@
 package app.revanced.extension.shared.patches.components;
 
-import app.revanced.extension.shared.utils.ByteTrieSearch;
+import java.util.ArrayList;
+import java.util.List;
+
+import app.revanced.extension.shared.settings.BooleanSetting;
+import app.revanced.extension.shared.utils.BytePatternSearch;
 
 /**
- * If searching for a single byte pattern, then it is slightly better to use
- * {@link ByteArrayFilterGroup#check(byte[])} as it uses KMP which is faster
- * than a prefix tree to search for only 1 pattern.
+ * Searches the patterns of all enabled groups using a single {@link BytePatternSearch},
+ * so each buffer is scanned once regardless of the number of groups.
  */
 public final class ByteArrayFilterGroupList extends FilterGroupList<byte[], ByteArrayFilterGroup> {
-    protected ByteTrieSearch createSearchGraph() {
-        return new ByteTrieSearch();
+
+    /**
+     * Pattern search of the enabled groups, and the setting of the group of each pattern.
+     */
+    private static final class GroupSearch {
+        final BytePatternSearch search;
+        final BooleanSetting[] patternSettings;
+
+        GroupSearch(BytePatternSearch search, BooleanSetting[] patternSettings) {
+            this.search = search;
+            this.patternSettings = patternSettings;
+        }
+    }
+
+    private volatile GroupSearch groupSearch = new GroupSearch(new BytePatternSearch(), new BooleanSetting[0]);
+
+    @Override
+    protected void buildSearch(List<ByteArrayFilterGroup> enabledGroups) {
+        List<byte[]> patterns = new ArrayList<>();
+        List<BooleanSetting> patternSettings = new ArrayList<>();
+        for (ByteArrayFilterGroup group : enabledGroups) {
+            for (byte[] pattern : group.filters) {
+                patterns.add(pattern);
+                patternSettings.add(group.setting);
+            }
+        }
+        groupSearch = new GroupSearch( // Must set after initialization finishes.
+                new BytePatternSearch(patterns.toArray(new byte[0][])),
+                patternSettings.toArray(new BooleanSetting[0])
+        );
+    }
+
+    @Override
+    public FilterGroup.FilterGroupResult check(byte[] bytes) {
+        ProtoBufferIndex index = ProtoBufferIndex.getCurrentIndex(bytes);
+        if (index != null) {
+            return index.check(this);
+        }
+        return check(bytes, 0, bytes.length);
+    }
+
+    FilterGroup.FilterGroupResult check(byte[] bytes, int startIndex, int endIndex) {
+        updateSearch();
+        final GroupSearch groupSearch = this.groupSearch;
+        final long match = groupSearch.search.findFirst(bytes, startIndex, endIndex);
+        if (match == BytePatternSearch.NO_MATCH) {
+            return new FilterGroup.FilterGroupResult();
+        }
+        final int patternIndex = BytePatternSearch.getPatternIndex(match);
+        return new FilterGroup.FilterGroupResult(
+                groupSearch.patternSettings[patternIndex],
+                BytePatternSearch.getMatchedIndex(match),
+                groupSearch.search.getPatternLength(patternIndex)
+        );
     }
 }
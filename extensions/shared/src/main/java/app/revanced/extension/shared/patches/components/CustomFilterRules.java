@@ -0,0 +1,243 @@
+package app.revanced.extension.shared.patches.components;
+
+import static app.revanced.extension.shared.utils.StringRef.str;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import app.revanced.extension.shared.utils.ByteTrieSearch;
+import app.revanced.extension.shared.utils.CharSequenceTrieSearch;
+import app.revanced.extension.shared.utils.Logger;
+import app.revanced.extension.shared.utils.Utils;
+
+/**
+ * Custom filter expressions compiled into their own search,
+ * and searched by {@link LithoFilterPatch} after all other filters.
+ * <p>
+ * Each expression is a path and optionally a proto buffer string:
+ * <pre>
+ * ^path$buffer string
+ * </pre>
+ * where '^' is optional and indicates the path must match the start,
+ * and '$' is optional and separates the path from the buffer string.
+ * <p>
+ * The custom filter text can change without restarting the app.
+ * The text is compiled on a background thread when it's set, and the litho threads
+ * use the previous rules until the compiled rules replace them.
+ * Recently compiled rules are kept, so changing back to a previous text is not compiled again.
+ * <p>
+ * Instances are immutable and are safe to use from multiple threads.
+ */
+public final class CustomFilterRules {
+
+    /**
+     * Optional character for the path that indicates the custom filter path must match the start.
+     * Must be the first character of the expression.
+     */
+    private static final char SYNTAX_STARTS_WITH = '^';
+
+    /**
+     * Optional character that separates the path from a proto buffer string pattern.
+     */
+    private static final char SYNTAX_BUFFER_SYMBOL = '$';
+
+    /**
+     * Maximum number of compiled texts to keep.
+     */
+    private static final int PARSE_CACHE_SIZE = 4;
+
+    /**
+     * Recently compiled rules, keyed by the hash of the text.
+     */
+    private static final Map<Integer, CustomFilterRules> parseCache =
+            new LinkedHashMap<>(PARSE_CACHE_SIZE, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, CustomFilterRules> eldest) {
+                    return size() > PARSE_CACHE_SIZE;
+                }
+            };
+
+    /**
+     * Rules used by the litho threads.
+     * Value is null if custom filtering is off, or if the first text set is not yet compiled.
+     */
+    @Nullable
+    private static volatile CustomFilterRules current;
+
+    /**
+     * Incremented each time the text is set, so rules of a text that was replaced while compiling are not used.
+     * Field is only used while holding the class lock.
+     */
+    private static int textVersion;
+
+    /**
+     * Expressions with the same path and syntax characters.
+     * All buffer strings of the same path are searched together,
+     * so the buffer is searched exactly once when multiple expressions use the same path.
+     */
+    private static final class PathRule {
+        final boolean startsWith;
+        final String path;
+        @Nullable
+        ByteTrieSearch bufferSearch;
+
+        PathRule(boolean startsWith, String path) {
+            this.startsWith = startsWith;
+            this.path = path;
+        }
+
+        void addBufferString(@NonNull String bufferString) {
+            if (bufferSearch == null) {
+                bufferSearch = new ByteTrieSearch();
+            }
+            bufferSearch.addPattern(bufferString.getBytes(StandardCharsets.UTF_8));
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder();
+            builder.append("CustomFilterGroup{");
+            builder.append("path=");
+            if (startsWith) builder.append(SYNTAX_STARTS_WITH);
+            builder.append(path);
+
+            if (bufferSearch != null) {
+                String delimitingCharacter = "❙";
+                builder.append(", bufferStrings=");
+                builder.append(delimitingCharacter);
+                for (byte[] bufferString : bufferSearch.getPatterns()) {
+                    builder.append(new String(bufferString, StandardCharsets.UTF_8));
+                    builder.append(delimitingCharacter);
+                }
+            }
+            builder.append("}");
+            return builder.toString();
+        }
+    }
+
+    /**
+     * Sets the custom filter text to use for all future filtering.
+     *
+     * @param text Custom filter text, or null to turn off custom filtering.
+     */
+    public static void setText(@Nullable String text) {
+        final int version;
+        synchronized (CustomFilterRules.class) {
+            version = ++textVersion;
+            if (text == null || text.isBlank()) {
+                current = null;
+                return;
+            }
+            final CustomFilterRules rules = current;
+            if (rules != null && rules.text.equals(text)) {
+                return;
+            }
+        }
+
+        Utils.runOnBackgroundThread(() -> {
+            final CustomFilterRules rules = compile(text);
+            synchronized (CustomFilterRules.class) {
+                // The text was changed while compiling.
+                if (version != textVersion) {
+                    return;
+                }
+                current = rules;
+            }
+        });
+    }
+
+    /**
+     * @return The rules of the current text, or null if custom filtering is off or the rules are not yet compiled.
+     */
+    @Nullable
+    static CustomFilterRules getCurrent() {
+        return current;
+    }
+
+    /**
+     * @return The compiled rules. Uses previously compiled rules if the same text was recently compiled.
+     */
+    @NonNull
+    static CustomFilterRules compile(@NonNull String text) {
+        final Integer key = text.hashCode();
+        synchronized (parseCache) {
+            CustomFilterRules rules = parseCache.get(key);
+            if (rules != null && rules.text.equals(text)) {
+                return rules;
+            }
+            rules = new CustomFilterRules(text);
+            parseCache.put(key, rules);
+            return rules;
+        }
+    }
+
+    private static void showInvalidSyntaxToast(@NonNull String expression) {
+        Utils.showToastLong(str("revanced_custom_filter_toast_invalid_syntax", expression));
+    }
+
+    @NonNull
+    private final String text;
+
+    private final CharSequenceTrieSearch pathSearch = new CharSequenceTrieSearch();
+
+    private CustomFilterRules(@NonNull String text) {
+        this.text = text;
+        pathSearch.setSearchMode(LithoFilterPatch.getSearchMode());
+
+        // Map key is the path including optional special characters (^ and/or $)
+        Map<String, PathRule> rules = new LinkedHashMap<>();
+        for (String expression : text.split("\n")) {
+            if (expression.isBlank()) continue;
+
+            final boolean pathStartsWith = expression.charAt(0) == SYNTAX_STARTS_WITH;
+            final int pathStart = pathStartsWith ? 1 : 0;
+            final int bufferSymbolIndex = expression.indexOf(SYNTAX_BUFFER_SYMBOL, pathStart);
+            final boolean hasBufferSymbol = bufferSymbolIndex >= 0;
+            final int pathEnd = hasBufferSymbol ? bufferSymbolIndex : expression.length();
+
+            final String path = expression.substring(pathStart, pathEnd);
+            final String bufferString = hasBufferSymbol ? expression.substring(bufferSymbolIndex + 1) : "";
+
+            if (path.isBlank() || (hasBufferSymbol && bufferString.isBlank())) {
+                showInvalidSyntaxToast(expression);
+                continue;
+            }
+
+            final String mapKey = hasBufferSymbol ? expression.substring(0, bufferSymbolIndex + 1) : expression;
+            PathRule rule = rules.get(mapKey);
+            if (rule == null) {
+                rule = new PathRule(pathStartsWith, path);
+                rules.put(mapKey, rule);
+            }
+            if (hasBufferSymbol) {
+                rule.addBufferString(bufferString);
+            }
+        }
+
+        for (PathRule rule : rules.values()) {
+            final boolean startsWith = rule.startsWith;
+            final ByteTrieSearch bufferSearch = rule.bufferSearch;
+            pathSearch.addPattern(rule.path, (textSearched, matchedStartIndex, matchedLength, callbackParameter) -> {
+                if (startsWith && matchedStartIndex != 0) {
+                    return false;
+                }
+                return bufferSearch == null
+                        || Filter.getBufferIndex((byte[]) callbackParameter).matches(bufferSearch, null);
+            });
+        }
+
+        Logger.printDebug(() -> "Using Custom filters: " + rules.values());
+    }
+
+    /**
+     * @return If any custom filter matches the path and buffer.
+     */
+    boolean matches(@NonNull CharSequence path, @NonNull byte[] buffer) {
+        return pathSearch.numberOfPatterns() != 0 && pathSearch.matches(path, 0, path.length(), buffer);
+    }
+}
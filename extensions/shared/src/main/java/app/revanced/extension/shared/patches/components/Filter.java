@@ -15,6 +15,7 @@ import java.util.List;
  * Then inside {@link #isFiltered(String, String, String, byte[], StringFilterGroup, FilterContentType, int)}
  * search for the buffer content using either a {@link ByteArrayFilterGroup} (if searching for 1 pattern)
  * or a {@link ByteArrayFilterGroupList} (if searching for more than 1 pattern).
+ * Other searches of the buffer can use {@link #getBufferIndex(byte[])} to search only the buffer strings.
  * <p>
  * All callbacks must be registered before the constructor completes.
  */
@@ -68,6 +69,53 @@ public abstract class Filter {
         allValueCallbacks.addAll(Arrays.asList(groups));
     }
 
+    /**
+     * The index of the proto buffer strings is shared by all filters, and is built once for each buffer.
+     * If the index is turned off or the buffer was not set by the litho thread,
+     * then the index contains the entire buffer as one string.
+     *
+     * @param buffer The buffer passed to
+     *               {@link #isFiltered(String, String, String, byte[], StringFilterGroup, FilterContentType, int)}.
+     */
+    protected static ProtoBufferIndex getBufferIndex(byte[] buffer) {
+        ProtoBufferIndex index = ProtoBufferIndex.getCurrentIndex(buffer);
+        return index != null
+                ? index
+                : new ProtoBufferIndex(buffer, false);
+    }
+
+    /**
+     * If the result of {@link #isFiltered(String, String, String, byte[], StringFilterGroup, FilterContentType, int)}
+     * for a group can be reused for other components with the same identifier, path and buffer.
+     * <p>
+     * Return true only if the result depends on nothing else except the method parameters and settings.
+     * Filters that check the navigation state, player type, or keep any state of their own must not be cached.
+     * <p>
+     * Called once for each group when the filter is registered.
+     *
+     * @param group A group added by this filter.
+     * @return If the verdict can be cached. Default implementation never caches.
+     */
+    public boolean isCacheable(StringFilterGroup group) {
+        return false;
+    }
+
+    /**
+     * If {@link #isFiltered(String, String, String, byte[], StringFilterGroup, FilterContentType, int)}
+     * uses the all value of an identifier or path group. Creating the all value is the largest allocation
+     * of filtering, and it's only created for groups that use it.
+     * All value groups always receive the all value.
+     * <p>
+     * Called once for each group when the filter is registered.
+     *
+     * @param group An identifier or path group added by this filter.
+     * @return If the all value is used. Default implementation does not use it,
+     * and the all value parameter is null.
+     */
+    public boolean usesAllValue(StringFilterGroup group) {
+        return false;
+    }
+
     /**
      * Called after an enabled filter has been matched.
      * Default implementation is to always filter the matched component and log the action.
@@ -7,41 +7,126 @@ import androidx.annotation.RequiresApi;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import java.util.Spliterator;
+import java.util.WeakHashMap;
 import java.util.function.Consumer;
 
-import app.revanced.extension.shared.utils.TrieSearch;
+import app.revanced.extension.shared.settings.Setting;
 
 @SuppressLint("ObsoleteSdkInt")
 @SuppressWarnings("unused")
 public abstract class FilterGroupList<V, T extends FilterGroup<V>> implements Iterable<T> {
 
+    /**
+     * Lists with at least one searchable group that has a setting.
+     * Weak keys, so a list is not kept only because it was once used.
+     */
+    private static final Set<FilterGroupList<?, ?>> listsWithSettings =
+            Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+    static {
+        // A single callback for all lists.
+        Setting.addValueChangedCallback(setting -> {
+            List<FilterGroupList<?, ?>> lists;
+            synchronized (listsWithSettings) {
+                lists = new ArrayList<>(listsWithSettings);
+            }
+            for (FilterGroupList<?, ?> list : lists) {
+                list.settingChanged(setting);
+            }
+        });
+    }
+
     private final List<T> filterGroups = new ArrayList<>();
-    private final TrieSearch<V> search = createSearchGraph();
 
+    /**
+     * Groups that are included in the search.  Does not change after the groups are added,
+     * as {@link FilterGroup#includeInSearch()} excludes groups that require a reboot to enable.
+     */
+    private final List<T> searchableGroups = new ArrayList<>();
+
+    /**
+     * Settings of all searchable groups.
+     */
+    private final Set<Setting<?>> searchableGroupSettings = new HashSet<>();
+
+    /**
+     * Incremented when groups are added or the setting of a searchable group changes.
+     */
+    private volatile int searchVersion;
+
+    /**
+     * Value of {@link #searchVersion} of the current search, or -1 if no search is built yet.
+     */
+    private volatile int builtSearchVersion = -1;
+
+    /**
+     * Adds groups. The search is built when the list is first checked,
+     * so lists that add groups with several calls only build the search once.
+     */
     @SafeVarargs
-    public final void addAll(final T... groups) {
+    public final synchronized void addAll(final T... groups) {
         filterGroups.addAll(Arrays.asList(groups));
 
         for (T group : groups) {
             if (!group.includeInSearch()) {
                 continue;
             }
-            for (V pattern : group.filters) {
-                search.addPattern(pattern, (textSearched, matchedStartIndex, matchedLength, callbackParameter) -> {
-                    if (group.isEnabled()) {
-                        FilterGroup.FilterGroupResult result = (FilterGroup.FilterGroupResult) callbackParameter;
-                        result.setValues(group.setting, matchedStartIndex, matchedLength);
-                        return true;
-                    }
-                    return false;
-                });
+            searchableGroups.add(group);
+            if (group.setting != null) {
+                searchableGroupSettings.add(group.setting);
+            }
+        }
+
+        if (!searchableGroupSettings.isEmpty()) {
+            listsWithSettings.add(this);
+        }
+        searchVersion++;
+    }
+
+    private synchronized void settingChanged(Setting<?> setting) {
+        if (searchableGroupSettings.contains(setting)) {
+            searchVersion++;
+        }
+    }
+
+    /**
+     * Builds the search if groups were added or a setting changed since the search was built.
+     * Must be called by {@link #check(Object)} before searching.
+     */
+    protected final void updateSearch() {
+        if (builtSearchVersion != searchVersion) {
+            rebuildSearch();
+        }
+    }
+
+    private synchronized void rebuildSearch() {
+        final int version = searchVersion;
+        if (builtSearchVersion == version) {
+            return; // Already built by another thread.
+        }
+        List<T> enabledGroups = new ArrayList<>(searchableGroups.size());
+        for (T group : searchableGroups) {
+            if (group.isEnabled()) {
+                enabledGroups.add(group);
             }
         }
+        buildSearch(enabledGroups);
+        builtSearchVersion = version;
     }
 
+    /**
+     * Replaces the search with a search of the enabled groups.
+     * Called before the first check, and before the next check after the setting of any searchable group changes.
+     * The search should only include the enabled groups, so a disabled group has no cost when searching.
+     */
+    protected abstract void buildSearch(List<T> enabledGroups);
+
     @NonNull
     @Override
     public Iterator<T> iterator() {
@@ -61,12 +146,8 @@ public abstract class FilterGroupList<V, T extends FilterGroup<V>> implements It
         return filterGroups.spliterator();
     }
 
-    public FilterGroup.FilterGroupResult check(V stack) {
-        FilterGroup.FilterGroupResult result = new FilterGroup.FilterGroupResult();
-        search.matches(stack, result);
-        return result;
-
-    }
-
-    protected abstract TrieSearch<V> createSearchGraph();
+    /**
+     * Implementations must call {@link #updateSearch()} before searching.
+     */
+    public abstract FilterGroup.FilterGroupResult check(V stack);
 }
@@ -0,0 +1,345 @@
+package app.revanced.extension.shared.patches.components;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.lang.ref.Reference;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import app.revanced.extension.shared.utils.Logger;
+
+/**
+ * Proto buffer most recently set by each litho thread, and the index and hash of the buffer.
+ * <p>
+ * The buffer can be set once and then filtered multiple times, so the buffer is kept after filtering completes.
+ * By default the buffer is kept until the same thread sets a new buffer, or until the thread dies.
+ * Large buffers can be hundreds of KB, and the retention policy can instead:
+ * <ul>
+ *   <li>Release a buffer that has not been used for a maximum age.
+ *       Buffers are released by {@link #releaseExpired()}, which can be called from any thread.</li>
+ *   <li>Keep buffers using soft references, so the garbage collector can release buffers when memory is low.</li>
+ * </ul>
+ * A released buffer is the same as a buffer that was never set.
+ * <p>
+ * The buffer array can be reused and overwritten by the app, so the index and hash
+ * are created each time a buffer is set, and are only used with the buffer they were created for.
+ * <p>
+ * Each thread has counters of the bytes it retains. All methods are thread safe.
+ */
+final class LithoBufferRetention {
+
+    /**
+     * Buffer set by a thread, with the values created when it was set.
+     */
+    private static final class Entry {
+        @NonNull
+        final byte[] buffer;
+        @Nullable
+        final ProtoBufferIndex index;
+        final boolean hashed;
+        final long hash;
+
+        Entry(@NonNull byte[] buffer, boolean indexStrings, boolean hashBuffer) {
+            this.buffer = buffer;
+            this.index = indexStrings
+                    ? new ProtoBufferIndex(buffer, true)
+                    : null;
+            this.hashed = hashBuffer;
+            this.hash = hashBuffer
+                    ? LithoFilterVerdictCache.hashBuffer(buffer)
+                    : 0;
+        }
+    }
+
+    /**
+     * Buffer of a single thread.
+     */
+    private static final class RetainedBuffer {
+        final String threadName;
+
+        /**
+         * An {@link Entry}, or a {@link Reference} to an entry. Null if no buffer is retained.
+         */
+        final AtomicReference<Object> value = new AtomicReference<>();
+
+        /**
+         * Time the buffer was last set or used.
+         */
+        volatile long lastUsedTime;
+
+        /**
+         * Counters updated only by the owning thread.
+         */
+        volatile long buffersSet;
+        volatile long peakRetainedBytes;
+
+        /**
+         * Counters updated by any thread.
+         */
+        final AtomicLong releasedByAge = new AtomicLong();
+        final AtomicLong releasedByGarbageCollector = new AtomicLong();
+
+        RetainedBuffer(String threadName) {
+            this.threadName = threadName;
+        }
+
+        /**
+         * @return The entry, or null if not set or released.
+         */
+        @Nullable
+        Entry get() {
+            final Object current = value.get();
+            if (!(current instanceof Reference<?> reference)) {
+                return (Entry) current;
+            }
+
+            Entry referent = (Entry) reference.get();
+            if (referent == null && value.compareAndSet(current, null)) {
+                releasedByGarbageCollector.incrementAndGet();
+            }
+            return referent;
+        }
+
+        long getRetainedBytes() {
+            return getBuffer(get()).length;
+        }
+    }
+
+    private static final byte[] EMPTY_BYTE_ARRAY = new byte[0];
+
+    /**
+     * Buffers of all threads that have set a buffer.
+     * Weak references, so the buffers of threads that have died are not kept.
+     */
+    private static final CopyOnWriteArrayList<WeakReference<RetainedBuffer>> allBuffers = new CopyOnWriteArrayList<>();
+
+    private static final ThreadLocal<RetainedBuffer> threadBuffer = new ThreadLocal<>() {
+        @Override
+        protected RetainedBuffer initialValue() {
+            RetainedBuffer buffer = new RetainedBuffer(Thread.currentThread().getName());
+            allBuffers.add(new WeakReference<>(buffer));
+            return buffer;
+        }
+    };
+
+    /**
+     * Maximum time a buffer is kept without being used, or zero to keep buffers until replaced.
+     */
+    private static volatile long maxAgeMillis;
+
+    private static volatile boolean useSoftReferences;
+
+    private LithoBufferRetention() {
+    }
+
+    /**
+     * @param maxAgeMillis      Maximum time to keep a buffer that is not used, or zero for no limit.
+     * @param useSoftReferences If buffers can be released by the garbage collector.
+     */
+    static void setPolicy(long maxAgeMillis, boolean useSoftReferences) {
+        LithoBufferRetention.maxAgeMillis = maxAgeMillis;
+        LithoBufferRetention.useSoftReferences = useSoftReferences;
+    }
+
+    static long getMaxAgeMillis() {
+        return maxAgeMillis;
+    }
+
+    private static byte[] getBuffer(@Nullable Object value) {
+        return value == null
+                ? EMPTY_BYTE_ARRAY
+                : ((Entry) value).buffer;
+    }
+
+    /**
+     * Sets the buffer of the calling thread, and replaces any previous buffer set by the same thread.
+     *
+     * @param indexStrings If the buffer is indexed with a {@link ProtoBufferIndex}.
+     * @param hashBuffer   If the buffer is hashed for {@link #getBufferHash(byte[])}.
+     */
+    static void set(@NonNull byte[] buffer, boolean indexStrings, boolean hashBuffer) {
+        RetainedBuffer retained = threadBuffer.get();
+        Object value = new Entry(buffer, indexStrings, hashBuffer);
+        if (useSoftReferences) {
+            value = new SoftReference<>(value);
+        }
+        retained.value.set(value);
+        retained.lastUsedTime = System.currentTimeMillis();
+
+        retained.buffersSet++;
+        if (buffer.length > retained.peakRetainedBytes) {
+            retained.peakRetainedBytes = buffer.length;
+        }
+    }
+
+    /**
+     * @return The buffer of the calling thread, or null if not set or released.
+     */
+    @Nullable
+    static byte[] getBuffer() {
+        RetainedBuffer retained = threadBuffer.get();
+        Entry entry = retained.get();
+        if (entry == null) {
+            return null;
+        }
+        retained.lastUsedTime = System.currentTimeMillis();
+        return entry.buffer;
+    }
+
+    /**
+     * @return The index of the buffer, if it's the buffer most recently set by the calling thread and was indexed.
+     */
+    @Nullable
+    static ProtoBufferIndex getIndex(@NonNull byte[] buffer) {
+        RetainedBuffer retained = threadBuffer.get();
+        Entry entry = retained.get();
+        if (entry != null && entry.buffer == buffer && entry.index != null) {
+            retained.lastUsedTime = System.currentTimeMillis();
+            return entry.index;
+        }
+        return null;
+    }
+
+    /**
+     * @return The hash of the buffer, created when the buffer was set if it's the buffer most recently set
+     * by the calling thread. Otherwise the buffer is hashed now.
+     */
+    static long getBufferHash(@NonNull byte[] buffer) {
+        RetainedBuffer retained = threadBuffer.get();
+        Entry entry = retained.get();
+        if (entry != null && entry.buffer == buffer && entry.hashed) {
+            return entry.hash;
+        }
+        return LithoFilterVerdictCache.hashBuffer(buffer);
+    }
+
+    /**
+     * Releases the buffers of all threads that have not been used for the maximum age.
+     *
+     * @return If any buffer is still retained.
+     */
+    static boolean releaseExpired() {
+        final long maxAge = maxAgeMillis;
+        if (maxAge <= 0) {
+            return false;
+        }
+
+        final long releaseBeforeTime = System.currentTimeMillis() - maxAge;
+        boolean anyRetained = false;
+        long releasedBytes = 0;
+        for (WeakReference<RetainedBuffer> reference : allBuffers) {
+            RetainedBuffer retained = reference.get();
+            if (retained == null) {
+                allBuffers.remove(reference); // Thread has died.
+                continue;
+            }
+
+            Object value = retained.value.get();
+            if (value == null) {
+                continue;
+            }
+            Object referent = (value instanceof Reference<?> valueReference)
+                    ? valueReference.get()
+                    : value;
+            if (referent == null) {
+                // Already released by the garbage collector, and not counted as released by age.
+                if (retained.value.compareAndSet(value, null)) {
+                    retained.releasedByGarbageCollector.incrementAndGet();
+                }
+                continue;
+            }
+            if (retained.lastUsedTime >= releaseBeforeTime) {
+                anyRetained = true;
+                continue;
+            }
+
+            final long bytes = getBuffer(referent).length;
+            // Does nothing if the thread set a different buffer during this check.
+            if (retained.value.compareAndSet(value, null)) {
+                retained.releasedByAge.incrementAndGet();
+                releasedBytes += bytes;
+            } else {
+                anyRetained = true;
+            }
+        }
+
+        if (releasedBytes > 0) {
+            final long bytes = releasedBytes;
+            Logger.printDebug(() -> "Released " + bytes + " bytes of litho buffers");
+        }
+        return anyRetained;
+    }
+
+    /**
+     * @return Human readable counters of each thread, or an empty string if no thread has set a buffer.
+     */
+    @NonNull
+    static String exportToString() {
+        List<ThreadCounters> counters = getCounters();
+        if (counters.isEmpty()) {
+            return "";
+        }
+
+        long totalBytes = 0;
+        for (ThreadCounters thread : counters) {
+            totalBytes += thread.retainedBytes;
+        }
+        StringBuilder builder = new StringBuilder("Retained buffers: ").append(formatKilobytes(totalBytes));
+        for (ThreadCounters thread : counters) {
+            builder.append("\n• ").append(thread.threadName)
+                    .append(": ").append(formatKilobytes(thread.retainedBytes))
+                    .append(", peak: ").append(formatKilobytes(thread.peakRetainedBytes))
+                    .append(", set: ").append(thread.buffersSet)
+                    .append(", released by age: ").append(thread.releasedByAge)
+                    .append(", released by garbage collector: ").append(thread.releasedByGarbageCollector);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Counter values of a thread at the time of exporting.
+     */
+    static final class ThreadCounters {
+        final String threadName;
+        final long retainedBytes;
+        final long peakRetainedBytes;
+        final long buffersSet;
+        final long releasedByAge;
+        final long releasedByGarbageCollector;
+
+        private ThreadCounters(RetainedBuffer retained) {
+            threadName = retained.threadName;
+            retainedBytes = retained.getRetainedBytes();
+            peakRetainedBytes = retained.peakRetainedBytes;
+            buffersSet = retained.buffersSet;
+            releasedByAge = retained.releasedByAge.get();
+            releasedByGarbageCollector = retained.releasedByGarbageCollector.get();
+        }
+    }
+
+    /**
+     * @return Counters of each thread that is alive and has set a buffer.
+     */
+    @NonNull
+    static List<ThreadCounters> getCounters() {
+        List<ThreadCounters> counters = new ArrayList<>();
+        for (WeakReference<RetainedBuffer> reference : allBuffers) {
+            RetainedBuffer retained = reference.get();
+            if (retained != null) {
+                counters.add(new ThreadCounters(retained));
+            }
+        }
+        return counters;
+    }
+
+    private static String formatKilobytes(long bytes) {
+        return String.format(Locale.ENGLISH, "%.1f KB", bytes / 1024.0);
+    }
+}
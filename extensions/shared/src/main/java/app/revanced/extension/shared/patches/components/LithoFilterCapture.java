@@ -0,0 +1,185 @@
+package app.revanced.extension.shared.patches.components;
+
+import android.content.Context;
+
+import androidx.annotation.GuardedBy;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import app.revanced.extension.shared.utils.Logger;
+import app.revanced.extension.shared.utils.Utils;
+
+/**
+ * Writes the inputs and verdict of each filtered Litho component to a capture file,
+ * so the captured feed can be replayed by the benchmarks on a desktop JVM.
+ * <p>
+ * Captures are saved to the app external files directory, in
+ * '{@value #CAPTURE_DIRECTORY}/capture_&lt;time&gt;.bin', and a new file is used each time the app starts.
+ * Capturing stops when the file reaches {@link #MAXIMUM_CAPTURE_BYTES}.
+ * <p>
+ * File format, using {@link DataOutputStream} (big endian):
+ * <pre>
+ * header:    int magic {@link #MAGIC}, short version {@link #VERSION}
+ * buffer:    byte {@link #RECORD_BUFFER}, int buffer id, int length, byte[length]
+ * component: byte {@link #RECORD_COMPONENT}, int buffer id, string identifier, string path,
+ *            string all value, boolean filtered
+ * string:    int UTF-8 length (-1 if null), byte[length]
+ * </pre>
+ * The same buffer is commonly used to filter many components, so each buffer is written once
+ * and components refer to the buffer id of the most recent buffer of the same thread.
+ * <p>
+ * All methods are thread safe.
+ */
+final class LithoFilterCapture {
+
+    static final String CAPTURE_DIRECTORY = "litho_capture";
+
+    static final int MAGIC = 0x52564C43; // "RVLC"
+    static final short VERSION = 1;
+    static final byte RECORD_BUFFER = 1;
+    static final byte RECORD_COMPONENT = 2;
+
+    private static final long MAXIMUM_CAPTURE_BYTES = 64 * 1024 * 1024;
+
+    /**
+     * Buffer most recently written by each thread.
+     */
+    private static final class ThreadBuffer {
+        @Nullable
+        byte[] buffer;
+        int bufferId;
+    }
+
+    private final ThreadLocal<ThreadBuffer> threadBuffer = new ThreadLocal<>() {
+        @Override
+        protected ThreadBuffer initialValue() {
+            return new ThreadBuffer();
+        }
+    };
+
+    @GuardedBy("this")
+    @Nullable
+    private DataOutputStream output;
+
+    @GuardedBy("this")
+    private boolean stopped;
+
+    @GuardedBy("this")
+    private int nextBufferId;
+
+    @GuardedBy("this")
+    private long componentCount;
+
+    /**
+     * Opens the capture file, if not already open.
+     *
+     * @return If components can be written.
+     */
+    @GuardedBy("this")
+    private boolean open() {
+        if (output != null) {
+            return true;
+        }
+        if (stopped) {
+            return false;
+        }
+
+        Context context = Utils.getContext();
+        if (context == null) {
+            return false; // Try again with the next component.
+        }
+
+        try {
+            File directory = new File(context.getExternalFilesDir(null), CAPTURE_DIRECTORY);
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                throw new IOException("Could not create directory: " + directory);
+            }
+            File file = new File(directory, "capture_" + System.currentTimeMillis() + ".bin");
+            output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+            output.writeInt(MAGIC);
+            output.writeShort(VERSION);
+            Logger.printDebug(() -> "Capturing litho components to: " + file);
+            return true;
+        } catch (IOException ex) {
+            Logger.printException(() -> "Could not create litho capture file", ex);
+            stop();
+            return false;
+        }
+    }
+
+    @GuardedBy("this")
+    private void stop() {
+        stopped = true;
+        if (output != null) {
+            try {
+                output.close();
+            } catch (IOException ex) {
+                Logger.printException(() -> "Could not close litho capture file", ex);
+            }
+            output = null;
+        }
+    }
+
+    private static void writeString(DataOutputStream output, @Nullable String value) throws IOException {
+        if (value == null) {
+            output.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    /**
+     * Writes a filtered component, and the buffer if it was not already written by the calling thread.
+     */
+    void write(@Nullable String identifier, @NonNull String path, @NonNull String allValue,
+               @NonNull byte[] buffer, boolean isFiltered) {
+        ThreadBuffer lastBuffer = threadBuffer.get();
+
+        synchronized (this) {
+            if (!open()) {
+                return;
+            }
+
+            DataOutputStream stream = output;
+            try {
+                if (lastBuffer.buffer != buffer) {
+                    final int bufferId = nextBufferId++;
+                    stream.writeByte(RECORD_BUFFER);
+                    stream.writeInt(bufferId);
+                    stream.writeInt(buffer.length);
+                    stream.write(buffer);
+                    lastBuffer.buffer = buffer;
+                    lastBuffer.bufferId = bufferId;
+                }
+
+                stream.writeByte(RECORD_COMPONENT);
+                stream.writeInt(lastBuffer.bufferId);
+                writeString(stream, identifier);
+                writeString(stream, path);
+                writeString(stream, allValue);
+                stream.writeBoolean(isFiltered);
+                // Flush each component, as the app can be closed at any time.
+                stream.flush();
+                componentCount++;
+
+                if (stream.size() >= MAXIMUM_CAPTURE_BYTES) {
+                    final long count = componentCount;
+                    Logger.printDebug(() -> "Litho capture is full, stopping after " + count + " components");
+                    stop();
+                }
+            } catch (IOException ex) {
+                Logger.printException(() -> "Could not write litho capture", ex);
+                stop();
+            }
+        }
+    }
+}
@@ -6,28 +6,84 @@ import androidx.annotation.Nullable;
 import org.apache.commons.lang3.StringUtils;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import app.revanced.extension.shared.settings.BaseSettings;
+import app.revanced.extension.shared.settings.Setting;
 import app.revanced.extension.shared.utils.Logger;
-import app.revanced.extension.shared.utils.StringTrieSearch;
+import app.revanced.extension.shared.utils.CharSequenceTrieSearch;
+import app.revanced.extension.shared.utils.TrieSearch;
+import app.revanced.extension.shared.utils.Utils;
 
 @SuppressWarnings("unused")
 public final class LithoFilterPatch {
     /**
      * Simple wrapper to pass the litho parameters through the prefix search.
+     * <p>
+     * One instance is reused per thread, and the path and all value Strings
+     * are only created if a filter callback needs them.
      */
     private static final class LithoFilterParameters {
-        final String identifier;
-        final String path;
-        final String allValue;
-        final byte[] buffer;
-
-        LithoFilterParameters(String lithoPath, @Nullable String lithoIdentifier, String allValues, byte[] buffer) {
-            this.path = lithoPath;
-            this.identifier = lithoIdentifier;
-            this.allValue = allValues;
+        StringBuilder pathBuilder;
+        @Nullable
+        String identifier;
+        private Object object;
+        byte[] buffer;
+
+        @Nullable
+        private String path;
+        @Nullable
+        private String allValue;
+
+        /**
+         * If all filter callbacks used so far allow caching the verdict.
+         */
+        boolean cacheable;
+
+        void setValues(StringBuilder pathBuilder, @Nullable String identifier, Object object, byte[] buffer) {
+            this.pathBuilder = pathBuilder;
+            this.identifier = identifier;
+            this.object = object;
             this.buffer = buffer;
+            this.path = null;
+            this.allValue = null;
+            this.cacheable = true;
+        }
+
+        /**
+         * @return The hash of the buffer, created when the buffer was set.
+         */
+        long getBufferHash() {
+            return LithoBufferRetention.getBufferHash(buffer);
+        }
+
+        /**
+         * Clears references so the litho objects are not retained after filtering completes.
+         */
+        void clear() {
+            setValues(null, null, null, null);
+        }
+
+        String getPath() {
+            String value = path;
+            if (value == null) {
+                value = pathBuilder.toString();
+                path = value;
+            }
+            return value;
+        }
+
+        String getAllValue() {
+            String value = allValue;
+            if (value == null) {
+                value = object.toString();
+                allValue = value;
+            }
+            return value;
         }
 
         @NonNull
@@ -38,7 +94,7 @@ public final class LithoFilterPatch {
             builder.append("\nID: ");
             builder.append(identifier);
             builder.append("\nPath: ");
-            builder.append(path);
+            builder.append(pathBuilder);
             if (BaseSettings.DEBUG_PROTOBUFFER.get()) {
                 builder.append("\nBufferStrings: ");
                 findAsciiStrings(builder, buffer);
@@ -77,7 +133,7 @@ public final class LithoFilterPatch {
     }
 
     /**
-     * Litho layout fixed thread pool size override.
+     * Litho layout fixed thread pool size override, or zero to use the unpatched size.
      * <p>
      * Unpatched YouTube uses a layout fixed thread pool between 1 and 3 threads:
      * <pre>
@@ -86,81 +142,245 @@ public final class LithoFilterPatch {
      * 3 threads -> Device has over 6 cores and more than 6GB of memory
      * </pre>
      * <p>
-     * Using more than 1 thread causes layout issues such as the You tab watch/playlist shelf
-     * that is sometimes incorrectly hidden (ReVanced is not hiding it), and seems to
-     * fix a race issue if using the active navigation tab status with litho filtering.
+     * Filtering is safe to use from multiple threads, but the default is still 1 thread
+     * as more than 1 thread previously caused layout issues such as the You tab watch/playlist shelf
+     * that is sometimes incorrectly hidden (ReVanced is not hiding it).
      */
-    private static final int LITHO_LAYOUT_THREAD_POOL_SIZE = 1;
+    private static final int LITHO_LAYOUT_THREAD_POOL_SIZE = Utils.validateValue(
+            BaseSettings.LITHO_LAYOUT_THREAD_POOL_SIZE,
+            0,
+            8,
+            "revanced_litho_layout_thread_pool_size_invalid_toast"
+    );
 
     private static final Filter[] filters = new Filter[]{
             new DummyFilter() // Replaced patching, do not touch.
     };
 
-    private static final StringTrieSearch pathSearchTree = new StringTrieSearch();
-    private static final StringTrieSearch identifierSearchTree = new StringTrieSearch();
-    private static final StringTrieSearch allValueSearchTree = new StringTrieSearch();
+    /**
+     * A filter group that is included in the search, and the filter that added it.
+     */
+    private static final class SearchableGroup {
+        final Filter filter;
+        final StringFilterGroup group;
+        final Filter.FilterContentType type;
+
+        /**
+         * Counters of the group, or null if statistics are turned off.
+         * Created once, so the counters are kept when the filter plan is rebuilt.
+         */
+        @Nullable
+        final LithoFilterStatistics.GroupStatistics statistics;
+
+        SearchableGroup(Filter filter, StringFilterGroup group, Filter.FilterContentType type) {
+            this.filter = filter;
+            this.group = group;
+            this.type = type;
+            this.statistics = LithoFilterStatistics.isEnabled()
+                    ? LithoFilterStatistics.register(filter, group, type)
+                    : null;
+        }
+    }
+
+    /**
+     * Search trees of the filter groups that are currently enabled.
+     * <p>
+     * Disabled groups are not added to the search trees, so the filter callbacks do not check
+     * if a group is enabled and a disabled group has no cost when filtering.
+     * Instances are not modified after construction, and a new instance replaces
+     * the current instance if the setting of any searchable group is changed.
+     */
+    private static final class FilterPlan {
+        final CharSequenceTrieSearch identifierSearchTree = new CharSequenceTrieSearch();
+        final CharSequenceTrieSearch pathSearchTree = new CharSequenceTrieSearch();
+        final CharSequenceTrieSearch allValueSearchTree = new CharSequenceTrieSearch();
+
+        FilterPlan() {
+            final TrieSearch.SearchMode searchMode = getSearchMode();
+            identifierSearchTree.setSearchMode(searchMode);
+            pathSearchTree.setSearchMode(searchMode);
+            allValueSearchTree.setSearchMode(searchMode);
+
+            for (SearchableGroup searchable : searchableGroups) {
+                if (!searchable.group.isEnabled()) {
+                    continue;
+                }
+
+                CharSequenceTrieSearch searchTree = switch (searchable.type) {
+                    case IDENTIFIER -> identifierSearchTree;
+                    case PATH -> pathSearchTree;
+                    default -> allValueSearchTree;
+                };
+                filterUsingCallbacks(searchTree, searchable);
+            }
+        }
+    }
+
+    /**
+     * Groups that are included in the search.  Does not change after the app starts,
+     * as {@link FilterGroup#includeInSearch()} excludes groups that require a reboot to enable.
+     */
+    private static final List<SearchableGroup> searchableGroups = new ArrayList<>();
+
+    /**
+     * Settings of all searchable groups.
+     */
+    private static final Set<Setting<?>> searchableGroupSettings = new HashSet<>();
+
+    private static volatile FilterPlan filterPlan;
 
     private static final byte[] EMPTY_BYTE_ARRAY = new byte[0];
 
     /**
-     * Because litho filtering is multithreaded and the buffer is passed in from a different injection point,
-     * the buffer is saved to a ThreadLocal so each calling thread does not interfere with other threads.
+     * Verdicts of previously filtered components, or null if the cache is turned off.
+     */
+    @Nullable
+    private static final LithoFilterVerdictCache verdictCache = BaseSettings.LITHO_FILTER_VERDICT_CACHE.get()
+            ? new LithoFilterVerdictCache()
+            : null;
+
+    /**
+     * Capture of the filtered components, or null if capturing is turned off.
+     */
+    @Nullable
+    private static final LithoFilterCapture capture = BaseSettings.LITHO_FILTER_CAPTURE.get()
+            ? new LithoFilterCapture()
+            : null;
+
+    /**
+     * If proto buffers are indexed when set.
      */
-    private static final ThreadLocal<byte[]> bufferThreadLocal = new ThreadLocal<>();
+    private static final boolean INDEX_BUFFER_STRINGS = BaseSettings.LITHO_FILTER_BUFFER_INDEX.get();
+
+    /**
+     * Maximum time in seconds to keep a proto buffer that is not used, or zero to keep buffers until replaced.
+     */
+    private static final int LITHO_BUFFER_MAX_AGE = Utils.validateValue(
+            BaseSettings.LITHO_BUFFER_MAX_AGE,
+            0,
+            3600,
+            "revanced_litho_buffer_max_age_invalid_toast"
+    );
+
+    /**
+     * If a task to release expired buffers is scheduled.
+     */
+    private static final AtomicBoolean releaseExpiredBuffersScheduled = new AtomicBoolean();
+
+    /**
+     * Reusable search parameters of each calling thread.
+     */
+    private static final ThreadLocal<LithoFilterParameters> parametersThreadLocal = new ThreadLocal<>() {
+        @Override
+        protected LithoFilterParameters initialValue() {
+            return new LithoFilterParameters();
+        }
+    };
 
     static {
+        // Because litho filtering is multithreaded and the buffer is passed in from a different injection point,
+        // the buffer is retained for each calling thread so each thread does not interfere with other threads.
+        LithoBufferRetention.setPolicy(LITHO_BUFFER_MAX_AGE * 1000L, BaseSettings.LITHO_BUFFER_SOFT_REFERENCES.get());
+
         for (Filter filter : filters) {
-            filterUsingCallbacks(identifierSearchTree, filter,
-                    filter.identifierCallbacks, Filter.FilterContentType.IDENTIFIER);
-            filterUsingCallbacks(pathSearchTree, filter,
-                    filter.pathCallbacks, Filter.FilterContentType.PATH);
-            filterUsingCallbacks(allValueSearchTree, filter,
-                    filter.allValueCallbacks, Filter.FilterContentType.ALLVALUE);
+            addSearchableGroups(filter, filter.identifierCallbacks, Filter.FilterContentType.IDENTIFIER);
+            addSearchableGroups(filter, filter.pathCallbacks, Filter.FilterContentType.PATH);
+            addSearchableGroups(filter, filter.allValueCallbacks, Filter.FilterContentType.ALLVALUE);
         }
 
-        Logger.printDebug(() -> "Using: "
-                + identifierSearchTree.numberOfPatterns() + " identifier filters"
-                + " (" + identifierSearchTree.getEstimatedMemorySize() + " KB), "
-                + pathSearchTree.numberOfPatterns() + " path filters"
-                + " (" + pathSearchTree.getEstimatedMemorySize() + " KB)");
-    }
+        rebuildFilterPlan();
 
-    private static void filterUsingCallbacks(StringTrieSearch pathSearchTree,
-                                             Filter filter, List<StringFilterGroup> groups,
-                                             Filter.FilterContentType type) {
-        String filterSimpleName = filter.getClass().getSimpleName();
+        Setting.addValueChangedCallback(setting -> {
+            if (searchableGroupSettings.contains(setting)) {
+                rebuildFilterPlan();
+            }
+            if (verdictCache != null) {
+                // Settings used by cacheable filters can also change without a restart.
+                // Must invalidate after the new plan is set, so a verdict of the old plan is never cached.
+                verdictCache.invalidate();
+            }
+        });
+    }
 
+    private static void addSearchableGroups(Filter filter, List<StringFilterGroup> groups,
+                                            Filter.FilterContentType type) {
         for (StringFilterGroup group : groups) {
             if (!group.includeInSearch()) {
                 continue;
             }
 
-            for (String pattern : group.filters) {
-                pathSearchTree.addPattern(pattern, (textSearched, matchedStartIndex,
-                                                    matchedLength, callbackParameter) -> {
-                            if (!group.isEnabled()) return false;
-
-                            LithoFilterParameters parameters = (LithoFilterParameters) callbackParameter;
-                            final boolean isFiltered = filter.isFiltered(parameters.path, parameters.identifier, parameters.allValue, parameters.buffer,
-                                    group, type, matchedStartIndex);
-
-                            if (isFiltered && BaseSettings.DEBUG.get()) {
-                                if (type == Filter.FilterContentType.IDENTIFIER) {
-                                    Logger.printDebug(() -> "Filtered " + filterSimpleName
-                                            + " identifier: " + parameters.identifier);
-                                } else if (type == Filter.FilterContentType.PATH) {
-                                    Logger.printDebug(() -> "Filtered " + filterSimpleName
-                                            + " path: " + parameters.path);
-                                } else if (type == Filter.FilterContentType.ALLVALUE) {
-                                    Logger.printDebug(() -> "Filtered " + filterSimpleName
-                                            + " object: " + parameters.allValue);
-                                }
-                            }
+            searchableGroups.add(new SearchableGroup(filter, group, type));
+            if (group.setting != null) {
+                searchableGroupSettings.add(group.setting);
+            }
+        }
+    }
+
+    /**
+     * @return Search mode of the Litho filter search trees.
+     */
+    static TrieSearch.SearchMode getSearchMode() {
+        if (BaseSettings.LITHO_FILTER_AHO_CORASICK.get()) {
+            return TrieSearch.SearchMode.AHO_CORASICK;
+        }
+        if (BaseSettings.LITHO_FILTER_PREFIX_TABLE.get()) {
+            return TrieSearch.SearchMode.PREFIX_TABLE;
+        }
+        return TrieSearch.SearchMode.PREFIX_TREE;
+    }
+
+    private static synchronized void rebuildFilterPlan() {
+        FilterPlan plan = new FilterPlan();
+        filterPlan = plan;
+
+        Logger.printDebug(() -> "Using " + plan.pathSearchTree.getSearchMode() + ": "
+                + plan.identifierSearchTree.numberOfPatterns() + " identifier filters"
+                + " (" + plan.identifierSearchTree.getEstimatedMemorySize() + " KB), "
+                + plan.pathSearchTree.numberOfPatterns() + " path filters"
+                + " (" + plan.pathSearchTree.getEstimatedMemorySize() + " KB)");
+    }
 
-                            return isFiltered;
+    private static void filterUsingCallbacks(CharSequenceTrieSearch searchTree, SearchableGroup searchable) {
+        final Filter filter = searchable.filter;
+        final StringFilterGroup group = searchable.group;
+        final Filter.FilterContentType type = searchable.type;
+        final LithoFilterStatistics.GroupStatistics statistics = searchable.statistics;
+        String filterSimpleName = filter.getClass().getSimpleName();
+        final boolean cacheable = filter.isCacheable(group);
+        final boolean usesAllValue = type == Filter.FilterContentType.ALLVALUE || filter.usesAllValue(group);
+
+        for (String pattern : group.filters) {
+            searchTree.addPattern(pattern, (textSearched, matchedStartIndex,
+                                            matchedLength, callbackParameter) -> {
+                        final long startTime = statistics == null ? 0 : System.nanoTime();
+                        LithoFilterParameters parameters = (LithoFilterParameters) callbackParameter;
+                        if (!cacheable) {
+                            parameters.cacheable = false;
                         }
-                );
-            }
+                        final boolean isFiltered = filter.isFiltered(parameters.getPath(), parameters.identifier,
+                                usesAllValue ? parameters.getAllValue() : null,
+                                parameters.buffer, group, type, matchedStartIndex);
+
+                        if (statistics != null) {
+                            statistics.record(isFiltered, System.nanoTime() - startTime);
+                        }
+
+                        if (isFiltered && BaseSettings.DEBUG.get()) {
+                            if (type == Filter.FilterContentType.IDENTIFIER) {
+                                Logger.printDebug(() -> "Filtered " + filterSimpleName
+                                        + " identifier: " + parameters.identifier);
+                            } else if (type == Filter.FilterContentType.PATH) {
+                                Logger.printDebug(() -> "Filtered " + filterSimpleName
+                                        + " path: " + parameters.getPath());
+                            } else if (type == Filter.FilterContentType.ALLVALUE) {
+                                Logger.printDebug(() -> "Filtered " + filterSimpleName
+                                        + " object: " + parameters.getAllValue());
+                            }
+                        }
+
+                        return isFiltered;
+                    }
+            );
         }
     }
 
@@ -169,11 +389,28 @@ public final class LithoFilterPatch {
      * Targets 20.22+.
      */
     public static void setProtoBuffer(byte[] buffer) {
-        // Set the buffer to a thread local.  The buffer will remain in memory, even after the call to #filter completes.
+        // Set the buffer for the calling thread.  The buffer will remain in memory, even after the call to #filter completes.
         // This is intentional, as it appears the buffer can be set once and then filtered multiple times.
         // The buffer will be cleared from memory after a new buffer is set by the same thread,
-        // or when the calling thread eventually dies.
-        bufferThreadLocal.set(buffer);
+        // when the calling thread eventually dies, or when released by the retention policy.
+        LithoBufferRetention.set(buffer, INDEX_BUFFER_STRINGS, verdictCache != null);
+        if (LITHO_BUFFER_MAX_AGE > 0 && releaseExpiredBuffersScheduled.compareAndSet(false, true)) {
+            scheduleReleaseExpiredBuffers();
+        }
+    }
+
+    private static void scheduleReleaseExpiredBuffers() {
+        Utils.runOnMainThreadDelayed(() -> {
+            if (LithoBufferRetention.releaseExpired()) {
+                scheduleReleaseExpiredBuffers();
+                return;
+            }
+            releaseExpiredBuffersScheduled.set(false);
+            // A buffer set while this check was running may not have scheduled a release.
+            if (LithoBufferRetention.releaseExpired() && releaseExpiredBuffersScheduled.compareAndSet(false, true)) {
+                scheduleReleaseExpiredBuffers();
+            }
+        }, LithoBufferRetention.getMaxAgeMillis());
     }
 
     /**
@@ -181,10 +418,6 @@ public final class LithoFilterPatch {
      * Targets 20.21 and lower.
      */
     public static void setProtoBuffer(@Nullable ByteBuffer buffer) {
-        // Set the buffer to a thread local.  The buffer will remain in memory, even after the call to #filter completes.
-        // This is intentional, as it appears the buffer can be set once and then filtered multiple times.
-        // The buffer will be cleared from memory after a new buffer is set by the same thread,
-        // or when the calling thread eventually dies.
         if (buffer == null || !buffer.hasArray()) {
             // It appears the buffer can be cleared out just before the call to #filter()
             // Ignore this null value and retain the last buffer that was set.
@@ -203,39 +436,83 @@ public final class LithoFilterPatch {
                 return false;
             }
 
-            byte[] buffer = bufferThreadLocal.get();
+            byte[] buffer = LithoBufferRetention.getBuffer();
             // Potentially the buffer may have been null or never set up until now.
             // Use an empty buffer so the litho id/path filters still work correctly.
             if (buffer == null) {
                 buffer = EMPTY_BYTE_ARRAY;
             }
 
-            LithoFilterParameters parameter = new LithoFilterParameters(pathBuilder.toString(), identifier,
-                    object.toString(), buffer);
+            LithoFilterParameters parameter = parametersThreadLocal.get();
+            parameter.setValues(pathBuilder, identifier, object, buffer);
+            try {
+                final boolean isFiltered = verdictCache == null
+                        ? filter(parameter)
+                        : filterUsingCache(verdictCache, parameter);
+                if (capture != null) {
+                    capture.write(identifier, parameter.getPath(), parameter.getAllValue(), buffer, isFiltered);
+                }
+                return isFiltered;
+            } finally {
+                parameter.clear();
+            }
+        } catch (Exception ex) {
+            Logger.printException(() -> "isFiltered failure", ex);
+        }
+
+        return false;
+    }
+
+    private static boolean filterUsingCache(LithoFilterVerdictCache verdictCache, LithoFilterParameters parameter) {
+        final long fingerprint = verdictCache.fingerprint(parameter.identifier,
+                parameter.pathBuilder, parameter.getBufferHash());
+        final int cachedVerdict = verdictCache.get(fingerprint);
+        if (cachedVerdict != LithoFilterVerdictCache.VERDICT_UNKNOWN) {
+            return cachedVerdict == LithoFilterVerdictCache.VERDICT_FILTERED;
+        }
+
+        final boolean isFiltered = filter(parameter);
+        if (parameter.cacheable) {
+            verdictCache.put(fingerprint, isFiltered);
+        }
+        return isFiltered;
+    }
+
+    private static boolean filter(LithoFilterParameters parameter) {
+        if (BaseSettings.DEBUG.get()) {
             Logger.printDebug(() -> "Searching " + parameter);
+        }
 
-            if (identifierSearchTree.matches(parameter.identifier, parameter)) {
-                return true;
-            }
+        final FilterPlan plan = filterPlan;
+        final String identifier = parameter.identifier;
+        if (identifier != null && plan.identifierSearchTree.matches(identifier, parameter)) {
+            return true;
+        }
 
-            if (pathSearchTree.matches(parameter.path, parameter)) {
-                return true;
-            }
+        // Search the path builder directly, and only create the path String if a filter matches.
+        if (plan.pathSearchTree.matches(parameter.pathBuilder, parameter)) {
+            return true;
+        }
 
-            if (allValueSearchTree.matches(parameter.allValue, parameter)) {
-                return true;
+        final CustomFilterRules customFilterRules = CustomFilterRules.getCurrent();
+        if (customFilterRules != null && customFilterRules.matches(parameter.pathBuilder, parameter.buffer)) {
+            if (BaseSettings.DEBUG.get()) {
+                Logger.printDebug(() -> "Filtered CustomFilter path: " + parameter.getPath());
             }
-        } catch (Exception ex) {
-            Logger.printException(() -> "isFiltered failure", ex);
+            return true;
         }
 
-        return false;
+        return plan.allValueSearchTree.numberOfPatterns() != 0
+                && plan.allValueSearchTree.matches(parameter.getAllValue(), parameter);
     }
 
     /**
      * Injection point.
      */
     public static int getExecutorCorePoolSize(int originalCorePoolSize) {
+        if (LITHO_LAYOUT_THREAD_POOL_SIZE == 0) {
+            return originalCorePoolSize;
+        }
         if (originalCorePoolSize != LITHO_LAYOUT_THREAD_POOL_SIZE) {
             Logger.printDebug(() -> "Overriding core thread pool size from: " + originalCorePoolSize
                     + " to: " + LITHO_LAYOUT_THREAD_POOL_SIZE);
@@ -248,6 +525,9 @@ public final class LithoFilterPatch {
      * Injection point.
      */
     public static int getExecutorMaxThreads(int originalMaxThreads) {
+        if (LITHO_LAYOUT_THREAD_POOL_SIZE == 0) {
+            return originalMaxThreads;
+        }
         if (originalMaxThreads != LITHO_LAYOUT_THREAD_POOL_SIZE) {
             Logger.printDebug(() -> "Overriding max thread pool size from: " + originalMaxThreads
                     + " to: " + LITHO_LAYOUT_THREAD_POOL_SIZE);
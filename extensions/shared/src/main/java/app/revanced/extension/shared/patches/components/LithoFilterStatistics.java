@@ -0,0 +1,249 @@
+package app.revanced.extension.shared.patches.components;
+
+import androidx.annotation.NonNull;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import app.revanced.extension.shared.settings.BaseSettings;
+
+/**
+ * Invocation, match and time counters of each filter group callback used by {@link LithoFilterPatch}.
+ * <p>
+ * Counters are only created and updated if {@link BaseSettings#LITHO_FILTER_STATISTICS} is enabled.
+ * All methods are thread safe.
+ */
+public final class LithoFilterStatistics {
+
+    /**
+     * Counters of a single filter group.
+     */
+    static final class GroupStatistics {
+        final String filterName;
+        final String groupName;
+        final Filter.FilterContentType type;
+
+        private final LongAdder invocations = new LongAdder();
+        private final LongAdder matches = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        private GroupStatistics(String filterName, String groupName, Filter.FilterContentType type) {
+            this.filterName = filterName;
+            this.groupName = groupName;
+            this.type = type;
+        }
+
+        void record(boolean isFiltered, long nanos) {
+            invocations.increment();
+            if (isFiltered) {
+                matches.increment();
+            }
+            totalNanos.add(nanos);
+
+            long max;
+            while (nanos > (max = maxNanos.get()) && !maxNanos.compareAndSet(max, nanos)) {
+                // Thread race and another thread updated the max value.
+            }
+        }
+
+        private void reset() {
+            invocations.reset();
+            matches.reset();
+            totalNanos.reset();
+            maxNanos.set(0);
+        }
+    }
+
+    /**
+     * Counter values of a group at the time of exporting.
+     */
+    private static final class GroupSnapshot {
+        final GroupStatistics group;
+        final long invocations;
+        final long matches;
+        final long totalNanos;
+        final long maxNanos;
+
+        GroupSnapshot(GroupStatistics group) {
+            this.group = group;
+            invocations = group.invocations.sum();
+            matches = group.matches.sum();
+            totalNanos = group.totalNanos.sum();
+            maxNanos = group.maxNanos.get();
+        }
+    }
+
+    /**
+     * Sum of the counters of all groups of a filter.
+     */
+    private static final class FilterTotals {
+        final String filterName;
+        final List<GroupSnapshot> groups = new ArrayList<>();
+        long invocations;
+        long matches;
+        long totalNanos;
+        long maxNanos;
+
+        FilterTotals(String filterName) {
+            this.filterName = filterName;
+        }
+    }
+
+    private static final List<GroupStatistics> allGroups = new CopyOnWriteArrayList<>();
+
+    private LithoFilterStatistics() {
+    }
+
+    public static boolean isEnabled() {
+        return BaseSettings.LITHO_FILTER_STATISTICS.get();
+    }
+
+    /**
+     * Creates counters for a filter group.  Called once for each searchable group.
+     */
+    static GroupStatistics register(Filter filter, StringFilterGroup group, Filter.FilterContentType type) {
+        String groupName = (group.setting == null ? "(null setting)" : group.setting.key)
+                + " [" + group.filters[0] + (group.filters.length > 1 ? ", ..." : "") + "]";
+        GroupStatistics statistics = new GroupStatistics(filter.getClass().getSimpleName(), groupName, type);
+        allGroups.add(statistics);
+        return statistics;
+    }
+
+    /**
+     * Clears all counters.
+     */
+    public static void reset() {
+        for (GroupStatistics group : allGroups) {
+            group.reset();
+        }
+    }
+
+    /**
+     * @return Totals of each filter, ordered by the total time used.
+     */
+    private static List<FilterTotals> getFilterTotals() {
+        Map<String, FilterTotals> totalsByFilter = new LinkedHashMap<>();
+        for (GroupStatistics group : allGroups) {
+            FilterTotals totals = totalsByFilter.get(group.filterName);
+            if (totals == null) {
+                totals = new FilterTotals(group.filterName);
+                totalsByFilter.put(group.filterName, totals);
+            }
+            GroupSnapshot snapshot = new GroupSnapshot(group);
+            totals.groups.add(snapshot);
+            totals.invocations += snapshot.invocations;
+            totals.matches += snapshot.matches;
+            totals.totalNanos += snapshot.totalNanos;
+            totals.maxNanos = Math.max(totals.maxNanos, snapshot.maxNanos);
+        }
+
+        List<FilterTotals> totals = new ArrayList<>(totalsByFilter.values());
+        totals.sort((first, second) -> Long.compare(second.totalNanos, first.totalNanos));
+        for (FilterTotals filterTotals : totals) {
+            filterTotals.groups.sort((first, second) -> Long.compare(second.totalNanos, first.totalNanos));
+        }
+        return totals;
+    }
+
+    private static String formatMillis(long nanos) {
+        return String.format(Locale.ENGLISH, "%.3f ms", nanos / 1_000_000.0);
+    }
+
+    /**
+     * @return Human readable counters of each filter and group that has been used, ordered by the total time used.
+     */
+    @NonNull
+    public static String exportToString() {
+        StringBuilder builder = new StringBuilder();
+        for (FilterTotals totals : getFilterTotals()) {
+            if (totals.invocations == 0) {
+                continue;
+            }
+            if (builder.length() > 0) {
+                builder.append("\n\n");
+            }
+            builder.append(totals.filterName)
+                    .append("\ncalls: ").append(totals.invocations)
+                    .append(", matches: ").append(totals.matches)
+                    .append("\ntotal: ").append(formatMillis(totals.totalNanos))
+                    .append(", max: ").append(formatMillis(totals.maxNanos));
+
+            for (GroupSnapshot snapshot : totals.groups) {
+                if (snapshot.invocations == 0) {
+                    continue;
+                }
+                builder.append("\n• ").append(snapshot.group.groupName)
+                        .append(": ").append(snapshot.invocations)
+                        .append(" / ").append(snapshot.matches)
+                        .append(", ").append(formatMillis(snapshot.totalNanos));
+            }
+        }
+
+        String retention = LithoBufferRetention.exportToString();
+        if (!retention.isEmpty()) {
+            if (builder.length() > 0) {
+                builder.append("\n\n");
+            }
+            builder.append(retention);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * @return Counters of all filters and groups, including groups that have not been used.
+     */
+    @NonNull
+    public static String exportToJson() throws JSONException {
+        JSONArray filters = new JSONArray();
+        for (FilterTotals totals : getFilterTotals()) {
+            JSONArray groups = new JSONArray();
+            for (GroupSnapshot snapshot : totals.groups) {
+                JSONObject groupJson = new JSONObject();
+                groupJson.put("name", snapshot.group.groupName);
+                groupJson.put("type", snapshot.group.type.name());
+                groupJson.put("invocations", snapshot.invocations);
+                groupJson.put("matches", snapshot.matches);
+                groupJson.put("totalNanos", snapshot.totalNanos);
+                groupJson.put("maxNanos", snapshot.maxNanos);
+                groups.put(groupJson);
+            }
+
+            JSONObject filterJson = new JSONObject();
+            filterJson.put("name", totals.filterName);
+            filterJson.put("invocations", totals.invocations);
+            filterJson.put("matches", totals.matches);
+            filterJson.put("totalNanos", totals.totalNanos);
+            filterJson.put("maxNanos", totals.maxNanos);
+            filterJson.put("groups", groups);
+            filters.put(filterJson);
+        }
+
+        JSONArray buffers = new JSONArray();
+        for (LithoBufferRetention.ThreadCounters counters : LithoBufferRetention.getCounters()) {
+            JSONObject bufferJson = new JSONObject();
+            bufferJson.put("thread", counters.threadName);
+            bufferJson.put("retainedBytes", counters.retainedBytes);
+            bufferJson.put("peakRetainedBytes", counters.peakRetainedBytes);
+            bufferJson.put("buffersSet", counters.buffersSet);
+            bufferJson.put("releasedByAge", counters.releasedByAge);
+            bufferJson.put("releasedByGarbageCollector", counters.releasedByGarbageCollector);
+            buffers.put(bufferJson);
+        }
+
+        JSONObject json = new JSONObject();
+        json.put("filters", filters);
+        json.put("buffers", buffers);
+        return json.toString(2);
+    }
+}
@@ -0,0 +1,163 @@
+package app.revanced.extension.shared.patches.components;
+
+import androidx.annotation.Nullable;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import app.revanced.extension.shared.settings.BaseSettings;
+import app.revanced.extension.shared.utils.Logger;
+
+/**
+ * Bounded cache of Litho filter verdicts, keyed by a 64-bit fingerprint
+ * of the component identifier, path, and proto buffer.
+ * <p>
+ * The cache is a fixed size direct mapped table, and a newer verdict replaces any older verdict
+ * that maps to the same table index. Lookups and updates are lock free and do not allocate,
+ * so the cache is safe to use from multiple litho threads at the same time.
+ * <p>
+ * Each fingerprint is mixed with a generation counter, and {@link #invalidate()} increments the generation.
+ * This discards all existing verdicts, including any verdict that a different thread
+ * is still computing using the settings that were active before the invalidation.
+ */
+final class LithoFilterVerdictCache {
+
+    static final int VERDICT_UNKNOWN = 0;
+    static final int VERDICT_FILTERED = 1;
+    static final int VERDICT_NOT_FILTERED = 2;
+
+    /**
+     * Number of verdicts to cache. Must be a power of 2.
+     */
+    private static final int CACHE_SIZE = 4096;
+
+    /**
+     * How often to log the cache hit rate.
+     */
+    private static final int LOG_HIT_RATE_INTERVAL = 2000;
+
+    private static final long FNV_64_OFFSET_BASIS = 0xCBF29CE484222325L;
+    private static final long FNV_64_PRIME = 0x100000001B3L;
+    private static final long GOLDEN_RATIO_64 = 0x9E3779B97F4A7C15L;
+
+    /**
+     * Separates the identifier and path, so the same characters split differently
+     * between the identifier and path do not give the same fingerprint.
+     */
+    private static final char FIELD_SEPARATOR = '\u0000';
+
+    /**
+     * Lowest bit is the verdict, and the remaining bits are the fingerprint.
+     * A value of zero is an empty entry.
+     */
+    private final AtomicLongArray entries = new AtomicLongArray(CACHE_SIZE);
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final AtomicLong nextLogLookupCount = new AtomicLong(LOG_HIT_RATE_INTERVAL);
+
+    /**
+     * 64-bit FNV-1a hash of the entire buffer.
+     */
+    static long hashBuffer(byte[] buffer) {
+        long hash = FNV_64_OFFSET_BASIS;
+        for (byte value : buffer) {
+            hash ^= (value & 0xFF);
+            hash *= FNV_64_PRIME;
+        }
+        return hash;
+    }
+
+    private static long hashCharacters(long hash, CharSequence text) {
+        for (int i = 0, length = text.length(); i < length; i++) {
+            hash ^= text.charAt(i);
+            hash *= FNV_64_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * Murmur3 64-bit finalizer, to spread the fingerprint bits used for the table index.
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB9FE1A85EC53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    /**
+     * @param bufferHash Hash of the buffer from {@link #hashBuffer(byte[])}.
+     * @return Key to use with {@link #get(long)} and {@link #put(long, boolean)}.
+     */
+    long fingerprint(@Nullable CharSequence identifier, CharSequence path, long bufferHash) {
+        long hash = FNV_64_OFFSET_BASIS;
+        if (identifier != null) {
+            hash = hashCharacters(hash, identifier);
+        }
+        hash ^= FIELD_SEPARATOR;
+        hash *= FNV_64_PRIME;
+        hash = hashCharacters(hash, path);
+
+        long key = mix(hash ^ mix(bufferHash) ^ (generation.get() * GOLDEN_RATIO_64));
+        // Clear the verdict bit, and set the second lowest bit so the key is never an empty entry.
+        return (key & ~1L) | 2L;
+    }
+
+    private static int tableIndex(long key) {
+        return (int) (key >>> 32) & (CACHE_SIZE - 1);
+    }
+
+    /**
+     * @return {@link #VERDICT_FILTERED}, {@link #VERDICT_NOT_FILTERED} or {@link #VERDICT_UNKNOWN}.
+     */
+    int get(long key) {
+        final long entry = entries.get(tableIndex(key));
+
+        lookups.increment();
+        final int verdict;
+        if ((entry & ~1L) == key) {
+            hits.increment();
+            verdict = (entry & 1L) != 0 ? VERDICT_FILTERED : VERDICT_NOT_FILTERED;
+        } else {
+            verdict = VERDICT_UNKNOWN;
+        }
+
+        if (BaseSettings.DEBUG.get()) {
+            logHitRate();
+        }
+
+        return verdict;
+    }
+
+    private void logHitRate() {
+        final long lookupCount = lookups.sum();
+        final long nextLog = nextLogLookupCount.get();
+        if (lookupCount < nextLog || !nextLogLookupCount.compareAndSet(nextLog, lookupCount + LOG_HIT_RATE_INTERVAL)) {
+            return; // Not time to log yet, or a different thread is logging.
+        }
+
+        final long hitCount = hits.sum();
+        Logger.printDebug(() -> "Verdict cache hit rate: "
+                + String.format(Locale.ENGLISH, "%.1f", 100.0 * hitCount / lookupCount) + "% ("
+                + hitCount + " hits of " + lookupCount + " lookups)");
+    }
+
+    void put(long key, boolean isFiltered) {
+        entries.set(tableIndex(key), isFiltered ? (key | 1L) : key);
+    }
+
+    /**
+     * Discards all cached verdicts.
+     */
+    void invalidate() {
+        generation.incrementAndGet();
+        Logger.printDebug(() -> "Verdict cache invalidated");
+    }
+}
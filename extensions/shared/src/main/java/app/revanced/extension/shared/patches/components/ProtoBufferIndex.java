@@ -0,0 +1,383 @@
+package app.revanced.extension.shared.patches.components;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import app.revanced.extension.shared.utils.BytePatternSearch;
+import app.revanced.extension.shared.utils.TrieSearch;
+
+/**
+ * Index of the UTF-8 string fields of a Litho proto buffer, and the search results of the buffer.
+ * <p>
+ * The index is built by walking the protobuf wire format. Length delimited fields that are valid UTF-8
+ * are indexed as strings, and other length delimited fields are walked as nested messages.
+ * A nested message with only text and small numbers is also valid UTF-8,
+ * and is indexed as a single string that includes all of it's fields.
+ * Binary data such as numbers, packed arrays and images is not indexed and is never searched.
+ * <p>
+ * If the buffer is not a valid proto buffer, then the entire buffer is indexed as one string.
+ * <p>
+ * The same buffer is commonly used to filter many components, and the results of
+ * filter group searches are kept until a different buffer is set or the buffer is released.
+ * <p>
+ * Instances are used only by the thread that set the buffer, and are not thread safe.
+ *
+ * @see Filter#getBufferIndex(byte[])
+ */
+public final class ProtoBufferIndex {
+
+    private static final int WIRE_TYPE_VARINT = 0;
+    private static final int WIRE_TYPE_FIXED_64 = 1;
+    private static final int WIRE_TYPE_LENGTH_DELIMITED = 2;
+    private static final int WIRE_TYPE_FIXED_32 = 5;
+
+    /**
+     * Maximum depth of nested messages to walk.
+     * Deeper messages are not indexed, unless the parent message is indexed as a string.
+     */
+    private static final int MAXIMUM_MESSAGE_DEPTH = 32;
+
+    /**
+     * Tag of the largest field number (2^29 - 1) and wire type.
+     */
+    private static final long MAXIMUM_TAG = 0xFFFFFFFFL;
+
+    @NonNull
+    final byte[] buffer;
+
+    /**
+     * If the buffer was a valid proto buffer.
+     */
+    private final boolean isProtoBuffer;
+
+    /**
+     * Start and end index of each string, in ascending order. Strings never overlap.
+     */
+    private int[] stringIndexes;
+
+    private int stringCount;
+
+    /**
+     * Value of the last varint read.
+     */
+    private long varintValue;
+
+    /**
+     * Results of previous searches of this buffer. Created only if used.
+     */
+    @Nullable
+    private Map<Object, Object> searchResults;
+
+    /**
+     * @param indexStrings If false, the buffer is not walked and the entire buffer is indexed as one string.
+     */
+    ProtoBufferIndex(@NonNull byte[] buffer, boolean indexStrings) {
+        this.buffer = buffer;
+
+        boolean isProtoBuffer = false;
+        if (indexStrings && buffer.length > 0) {
+            stringIndexes = new int[32];
+            isProtoBuffer = indexMessage(0, buffer.length, 0);
+        }
+        this.isProtoBuffer = isProtoBuffer;
+
+        if (!isProtoBuffer) {
+            stringIndexes = new int[]{0, buffer.length};
+            stringCount = 1;
+        }
+    }
+
+    /**
+     * @return The index of the buffer, if it's the buffer most recently set by the calling thread.
+     * @see LithoBufferRetention
+     */
+    @Nullable
+    static ProtoBufferIndex getCurrentIndex(@NonNull byte[] buffer) {
+        return LithoBufferRetention.getIndex(buffer);
+    }
+
+    /**
+     * @return If the message was valid and all fields were indexed.
+     */
+    private boolean indexMessage(int start, int end, int depth) {
+        final int startStringCount = stringCount;
+        int position = start;
+
+        while (position < end) {
+            position = readVarint(position, end);
+            final long tag = varintValue;
+            if (position < 0 || tag < (1 << 3) || tag > MAXIMUM_TAG) {
+                stringCount = startStringCount;
+                return false; // Invalid varint, or invalid field number.
+            }
+
+            switch ((int) tag & 0x07) {
+                case WIRE_TYPE_VARINT -> {
+                    position = readVarint(position, end);
+                    if (position < 0) {
+                        stringCount = startStringCount;
+                        return false;
+                    }
+                }
+                case WIRE_TYPE_FIXED_64 -> position += 8;
+                case WIRE_TYPE_FIXED_32 -> position += 4;
+                case WIRE_TYPE_LENGTH_DELIMITED -> {
+                    position = readVarint(position, end);
+                    final long length = varintValue;
+                    if (position < 0 || length < 0 || length > end - position) {
+                        stringCount = startStringCount;
+                        return false;
+                    }
+                    indexLengthDelimited(position, position + (int) length, depth);
+                    position += (int) length;
+                }
+                default -> {
+                    // Deprecated groups, or not a proto buffer.
+                    stringCount = startStringCount;
+                    return false;
+                }
+            }
+        }
+
+        if (position != end) {
+            stringCount = startStringCount;
+            return false; // Last fixed size field is truncated.
+        }
+        return true;
+    }
+
+    private void indexLengthDelimited(int start, int end, int depth) {
+        if (start == end) {
+            return;
+        }
+        if (isUtf8(buffer, start, end)) {
+            addString(start, end);
+            return;
+        }
+        if (depth < MAXIMUM_MESSAGE_DEPTH) {
+            indexMessage(start, end, depth + 1);
+        }
+        // Otherwise binary data that is not searched.
+    }
+
+    private void addString(int start, int end) {
+        final int index = stringCount * 2;
+        if (index == stringIndexes.length) {
+            stringIndexes = Arrays.copyOf(stringIndexes, index * 2);
+        }
+        stringIndexes[index] = start;
+        stringIndexes[index + 1] = end;
+        stringCount++;
+    }
+
+    /**
+     * Reads a varint, and saves the value to {@link #varintValue}.
+     *
+     * @return The position after the varint, or -1 if the varint is invalid or truncated.
+     */
+    private int readVarint(int position, int end) {
+        long value = 0;
+        for (int shift = 0; shift < 64 && position < end; shift += 7) {
+            final int b = buffer[position++];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                varintValue = value;
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isUtf8(byte[] buffer, int start, int end) {
+        int i = start;
+        while (i < end) {
+            final int b = buffer[i++];
+            if (b >= 0) {
+                continue;
+            }
+            final int continuationBytes;
+            if ((b & 0xE0) == 0xC0 && (b & 0xFF) >= 0xC2) {
+                continuationBytes = 1;
+            } else if ((b & 0xF0) == 0xE0) {
+                continuationBytes = 2;
+            } else if ((b & 0xF8) == 0xF0 && (b & 0xFF) <= 0xF4) {
+                continuationBytes = 3;
+            } else {
+                return false;
+            }
+            if (continuationBytes > end - i) {
+                return false;
+            }
+            for (int j = 0; j < continuationBytes; j++) {
+                if ((buffer[i++] & 0xC0) != 0x80) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @NonNull
+    public byte[] getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * @return If the buffer is a valid proto buffer.
+     * If false, the entire buffer is indexed as a single string.
+     */
+    public boolean isProtoBuffer() {
+        return isProtoBuffer;
+    }
+
+    public int getStringCount() {
+        return stringCount;
+    }
+
+    /**
+     * @return Start index of the string, inclusive.
+     */
+    public int getStringStart(int stringIndex) {
+        return stringIndexes[stringIndex * 2];
+    }
+
+    /**
+     * @return End index of the string, exclusive.
+     */
+    public int getStringEnd(int stringIndex) {
+        return stringIndexes[stringIndex * 2 + 1];
+    }
+
+    /**
+     * @return Total length of all indexed strings.
+     */
+    public int getStringsLength() {
+        int length = 0;
+        for (int i = 0; i < stringCount; i++) {
+            length += getStringEnd(i) - getStringStart(i);
+        }
+        return length;
+    }
+
+    /**
+     * Searches all indexed strings, and the result is reused for
+     * all future checks of this buffer using the same group.
+     * Gives the same result as {@link ByteArrayFilterGroup#check(byte[])},
+     * except matches outside the indexed strings are not found.
+     */
+    @NonNull
+    public FilterGroup.FilterGroupResult check(@NonNull ByteArrayFilterGroup group) {
+        if (!group.isEnabled()) {
+            return new FilterGroup.FilterGroupResult(group.setting, -1, 0);
+        }
+
+        Object previousResult = getSearchResult(group);
+        if (previousResult != null) {
+            return (FilterGroup.FilterGroupResult) previousResult;
+        }
+
+        BytePatternSearch search = group.getSearch();
+        long match = BytePatternSearch.NO_MATCH;
+        for (int i = 0; i < stringCount; i++) {
+            final long stringMatch = search.findLowestPattern(buffer, getStringStart(i), getStringEnd(i));
+            if (stringMatch != BytePatternSearch.NO_MATCH && (match == BytePatternSearch.NO_MATCH
+                    || BytePatternSearch.getPatternIndex(stringMatch) < BytePatternSearch.getPatternIndex(match))) {
+                match = stringMatch;
+                if (BytePatternSearch.getPatternIndex(match) == 0) {
+                    break; // No other pattern can be a better match.
+                }
+            }
+        }
+
+        FilterGroup.FilterGroupResult result = (match == BytePatternSearch.NO_MATCH)
+                ? new FilterGroup.FilterGroupResult(group.setting, -1, 0)
+                : new FilterGroup.FilterGroupResult(group.setting, BytePatternSearch.getMatchedIndex(match),
+                search.getPatternLength(BytePatternSearch.getPatternIndex(match)));
+        putSearchResult(group, result);
+        return result;
+    }
+
+    /**
+     * Searches all indexed strings, and the result is reused for
+     * all future checks of this buffer using the same group list.
+     * Gives the same result as {@link ByteArrayFilterGroupList#check(byte[])},
+     * except matches outside the indexed strings are not found.
+     */
+    @NonNull
+    public FilterGroup.FilterGroupResult check(@NonNull ByteArrayFilterGroupList groupList) {
+        Object previousResult = getSearchResult(groupList);
+        if (previousResult != null) {
+            return (FilterGroup.FilterGroupResult) previousResult;
+        }
+
+        FilterGroup.FilterGroupResult result = null;
+        for (int i = 0; i < stringCount; i++) {
+            result = groupList.check(buffer, getStringStart(i), getStringEnd(i));
+            if (result.isFiltered()) {
+                break;
+            }
+        }
+        if (result == null) {
+            result = new FilterGroup.FilterGroupResult();
+        }
+        putSearchResult(groupList, result);
+        return result;
+    }
+
+    /**
+     * Searches all indexed strings.
+     * If no callback parameter is used, then the result is reused for
+     * all future searches of this buffer using the same search.
+     *
+     * @param callbackParameter Optional parameter passed to the search callbacks.
+     * @return If any pattern matched, and it's callback halted searching.
+     */
+    public boolean matches(@NonNull TrieSearch<byte[]> search, @Nullable Object callbackParameter) {
+        if (callbackParameter == null) {
+            Object previousResult = getSearchResult(search);
+            if (previousResult != null) {
+                return (Boolean) previousResult;
+            }
+        }
+
+        boolean matches = false;
+        for (int i = 0; i < stringCount; i++) {
+            if (search.matches(buffer, getStringStart(i), getStringEnd(i), callbackParameter)) {
+                matches = true;
+                break;
+            }
+        }
+
+        if (callbackParameter == null) {
+            putSearchResult(search, matches);
+        }
+        return matches;
+    }
+
+    @Nullable
+    private Object getSearchResult(Object search) {
+        return searchResults == null
+                ? null
+                : searchResults.get(search);
+    }
+
+    private void putSearchResult(Object search, Object result) {
+        if (searchResults == null) {
+            searchResults = new IdentityHashMap<>();
+        }
+        searchResults.put(search, result);
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "ProtoBufferIndex{isProtoBuffer=" + isProtoBuffer
+                + ", strings=" + stringCount
+                + ", stringsLength=" + getStringsLength()
+                + ", bufferLength=" + buffer.length + "}";
+    }
+}
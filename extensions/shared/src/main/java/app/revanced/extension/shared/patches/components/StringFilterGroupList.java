@@ -1,9 +1,38 @@
 package app.revanced.extension.shared.patches.components;
 
+import java.util.List;
+
 import app.revanced.extension.shared.utils.StringTrieSearch;
 
 public final class StringFilterGroupList extends FilterGroupList<String, StringFilterGroup> {
-    protected StringTrieSearch createSearchGraph() {
-        return new StringTrieSearch();
+
+    /**
+     * Search graph of only the groups that are currently enabled, so the pattern callbacks
+     * do not check if a group is enabled.
+     * Not modified after it's set, and replaced if the setting of any searchable group is changed.
+     */
+    private volatile StringTrieSearch search;
+
+    @Override
+    protected void buildSearch(List<StringFilterGroup> enabledGroups) {
+        StringTrieSearch newSearch = new StringTrieSearch();
+        for (StringFilterGroup group : enabledGroups) {
+            for (String pattern : group.filters) {
+                newSearch.addPattern(pattern, (textSearched, matchedStartIndex, matchedLength, callbackParameter) -> {
+                    FilterGroup.FilterGroupResult result = (FilterGroup.FilterGroupResult) callbackParameter;
+                    result.setValues(group.setting, matchedStartIndex, matchedLength);
+                    return true;
+                });
+            }
+        }
+        search = newSearch; // Must set after initialization finishes.
+    }
+
+    @Override
+    public FilterGroup.FilterGroupResult check(String stack) {
+        updateSearch();
+        FilterGroup.FilterGroupResult result = new FilterGroup.FilterGroupResult();
+        search.matches(stack, result);
+        return result;
     }
 }
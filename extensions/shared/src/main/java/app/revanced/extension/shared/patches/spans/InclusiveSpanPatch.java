@@ -12,6 +12,7 @@ import android.text.style.TypefaceSpan;
 
 import androidx.annotation.NonNull;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import app.revanced.extension.shared.settings.BaseSettings;
@@ -83,6 +84,46 @@ public final class InclusiveSpanPatch {
         }
     }
 
+    /**
+     * Filter groups that match a conversion context.
+     * The conversion context is searched once, and the result is used for all spans set with the same context.
+     */
+    private static final class ConversionContextMatch {
+        /**
+         * Used if no enabled filter group matches the conversion context.
+         */
+        static final ConversionContextMatch NO_MATCH = new ConversionContextMatch("", new ArrayList<>(0));
+
+        final String conversionContext;
+        final Filter[] filters;
+        final StringFilterGroup[] groups;
+
+        ConversionContextMatch(String conversionContext, List<SearchableGroup> matches) {
+            this.conversionContext = conversionContext;
+            final int size = matches.size();
+            filters = new Filter[size];
+            groups = new StringFilterGroup[size];
+            for (int i = 0; i < size; i++) {
+                SearchableGroup match = matches.get(i);
+                filters[i] = match.filter;
+                groups[i] = match.group;
+            }
+        }
+    }
+
+    /**
+     * A filter group that is included in the search, and the filter that added it.
+     */
+    private static final class SearchableGroup {
+        final Filter filter;
+        final StringFilterGroup group;
+
+        SearchableGroup(Filter filter, StringFilterGroup group) {
+            this.filter = filter;
+            this.group = group;
+        }
+    }
+
     private static SpanType getSpanType(Object span) {
         if (span instanceof ClickableSpan) {
             return SpanType.CLICKABLE;
@@ -113,18 +154,23 @@ public final class InclusiveSpanPatch {
             new DummyFilter() // Replaced by patch.
     };
 
+    /**
+     * Search of all groups. Callbacks add the matched groups to the list passed as the callback parameter.
+     */
     private static final StringTrieSearch searchTree = new StringTrieSearch();
 
+    private static final List<SearchableGroup> searchableGroups = new ArrayList<>();
 
     /**
      * Because litho filtering is multi-threaded and the buffer is passed in from a different injection point,
-     * the buffer is saved to a ThreadLocal so each calling thread does not interfere with other threads.
+     * the conversion context search result is saved to a ThreadLocal
+     * so each calling thread does not interfere with other threads.
      */
-    private static final ThreadLocal<String> conversionContextThreadLocal = new ThreadLocal<>();
+    private static final ThreadLocal<ConversionContextMatch> conversionContextThreadLocal = new ThreadLocal<>();
 
     static {
         for (Filter filter : filters) {
-            filterUsingCallbacks(filter, filter.callbacks);
+            addSearchableGroups(filter, filter.callbacks);
         }
 
         if (BaseSettings.DEBUG_SPANNABLE.get()) {
@@ -134,36 +180,53 @@ public final class InclusiveSpanPatch {
         }
     }
 
-    private static void filterUsingCallbacks(Filter filter, List<StringFilterGroup> groups) {
-        String filterSimpleName = filter.getClass().getSimpleName();
-
+    private static void addSearchableGroups(Filter filter, List<StringFilterGroup> groups) {
         for (StringFilterGroup group : groups) {
             if (!group.includeInSearch()) {
                 continue;
             }
 
+            SearchableGroup searchable = new SearchableGroup(filter, group);
+            searchableGroups.add(searchable);
             for (String pattern : group.filters) {
-                InclusiveSpanPatch.searchTree.addPattern(pattern, (textSearched, matchedStartIndex,
-                                                                   matchedLength, callbackParameter) -> {
-                            if (!group.isEnabled()) return false;
-
-                            LithoFilterParameters parameters = (LithoFilterParameters) callbackParameter;
-                            final boolean isFiltered = filter.skip(parameters.conversionContext, parameters.spannableString,
-                                    parameters.span, parameters.start, parameters.end, parameters.flags, parameters.isWord,
-                                    parameters.spanType, group);
-
-                            if (isFiltered && BaseSettings.DEBUG_SPANNABLE.get()) {
-                                Logger.printDebug(() -> "Removed " + filterSimpleName
-                                        + " setSpan: " + parameters.spanType);
+                searchTree.addPattern(pattern, (textSearched, matchedStartIndex,
+                                                matchedLength, callbackParameter) -> {
+                            //noinspection unchecked
+                            List<SearchableGroup> matches = (List<SearchableGroup>) callbackParameter;
+                            if (group.isEnabled() && !matches.contains(searchable)) {
+                                matches.add(searchable);
                             }
-
-                            return isFiltered;
+                            return false; // Continue searching for all other groups.
                         }
                 );
             }
         }
     }
 
+    private static boolean anyGroupIsEnabled() {
+        for (SearchableGroup searchable : searchableGroups) {
+            if (searchable.group.isEnabled()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return All enabled groups that match the conversion context, in the order they matched.
+     */
+    private static ConversionContextMatch searchConversionContext(String conversionContext) {
+        if (conversionContext.isEmpty()) {
+            return ConversionContextMatch.NO_MATCH;
+        }
+
+        List<SearchableGroup> matches = new ArrayList<>(2);
+        searchTree.matches(conversionContext, matches);
+        return matches.isEmpty()
+                ? ConversionContextMatch.NO_MATCH
+                : new ConversionContextMatch(conversionContext, matches);
+    }
+
     /**
      * Injection point.
      *
@@ -171,25 +234,47 @@ public final class InclusiveSpanPatch {
      */
     public static CharSequence setConversionContext(@NonNull Object conversionContext,
                                                     @NonNull CharSequence original) {
-        conversionContextThreadLocal.set(conversionContext.toString());
+        try {
+            // Converting the context to a String is not free,
+            // and is not needed if every filter is turned off.
+            conversionContextThreadLocal.set(anyGroupIsEnabled()
+                    ? searchConversionContext(conversionContext.toString())
+                    : ConversionContextMatch.NO_MATCH);
+        } catch (Exception ex) {
+            conversionContextThreadLocal.remove();
+            Logger.printException(() -> "setConversionContext failure", ex);
+        }
         return original;
     }
 
     private static boolean returnEarly(SpannableString spannableString, Object span, int start, int end, int flags) {
         try {
-            final String conversionContext = conversionContextThreadLocal.get();
-            if (conversionContext == null || conversionContext.isEmpty()) {
+            final ConversionContextMatch match = conversionContextThreadLocal.get();
+            if (match == null || match == ConversionContextMatch.NO_MATCH) {
                 return false;
             }
 
             LithoFilterParameters parameter =
-                    new LithoFilterParameters(conversionContext, spannableString, span, start, end, flags);
+                    new LithoFilterParameters(match.conversionContext, spannableString, span, start, end, flags);
 
             if (BaseSettings.DEBUG_SPANNABLE.get()) {
                 Logger.printDebug(() -> "Searching...\n\u200B\n" + parameter);
             }
 
-            return searchTree.matches(parameter.conversionContext, parameter);
+            for (int i = 0, length = match.groups.length; i < length; i++) {
+                final Filter filter = match.filters[i];
+                final StringFilterGroup group = match.groups[i];
+                if (filter.skip(parameter.conversionContext, parameter.spannableString,
+                        parameter.span, parameter.start, parameter.end, parameter.flags, parameter.isWord,
+                        parameter.spanType, group)) {
+                    if (BaseSettings.DEBUG_SPANNABLE.get()) {
+                        Logger.printDebug(() -> "Removed " + filter.getClass().getSimpleName()
+                                + " setSpan: " + parameter.spanType);
+                    }
+                    return true;
+                }
+            }
+            return false;
         } catch (Exception ex) {
             Logger.printException(() -> "Spans filter failure", ex);
         }
@@ -30,6 +30,8 @@ public class SpoofStreamingDataPatch {
             BaseSettings.SPOOF_STREAMING_DATA.get() && PatchStatus.SpoofStreamingData();
     private static final boolean SPOOF_STREAMING_DATA_PRIORITIZE_VIDEO_QUALITY =
             SPOOF_STREAMING_DATA && BaseSettings.SPOOF_STREAMING_DATA_PRIORITIZE_VIDEO_QUALITY.get();
+    private static final boolean SPOOF_STREAMING_DATA_PREFETCH =
+            SPOOF_STREAMING_DATA && BaseSettings.SPOOF_STREAMING_DATA_PREFETCH.get();
     private static final boolean SPOOF_STREAMING_DATA_USE_JS =
             SPOOF_STREAMING_DATA && BaseSettings.SPOOF_STREAMING_DATA_USE_JS.get();
     private static final boolean SPOOF_STREAMING_DATA_USE_JS_ALL =
@@ -54,6 +56,12 @@ public class SpoofStreamingDataPatch {
     private static final Uri INTERNET_CONNECTION_CHECK_URI =
             Uri.parse(INTERNET_CONNECTION_CHECK_URI_STRING);
 
+    /**
+     * Playback time after which the next video is prefetched.
+     * Videos that are skipped in the first seconds are not prefetched.
+     */
+    private static final long PREFETCH_MINIMUM_PLAYBACK_TIME_MILLISECONDS = 10 * 1000L;
+
     /**
      * Parameters used when playing scrim.
      */
@@ -83,6 +91,12 @@ public class SpoofStreamingDataPatch {
     @NonNull
     private static volatile String reasonSkipped = "";
 
+    /**
+     * Video that the next video was last prefetched for.
+     */
+    @NonNull
+    private static String prefetchedVideoId = "";
+
     /**
      * Injection point.
      * /att/get requests are used to obtain a PoToken challenge.
@@ -232,6 +246,30 @@ public class SpoofStreamingDataPatch {
         }
     }
 
+    /**
+     * Called from {@link VideoInformation#setVideoTime(long)}.
+     * <p>
+     * Prefetches the streams of the next video once for each video, after the video has played for a while.
+     */
+    public static void prefetchNextVideo(long videoTime) {
+        if (SPOOF_STREAMING_DATA_PREFETCH && videoTime >= PREFETCH_MINIMUM_PLAYBACK_TIME_MILLISECONDS) {
+            try {
+                String videoId = VideoInformation.getVideoId();
+                if (!isValidVideoId(videoId) || videoId.equals(prefetchedVideoId)) {
+                    return;
+                }
+                prefetchedVideoId = videoId;
+                if (VideoInformation.getLiveStreamState() || VideoInformation.lastVideoIdIsShort()) {
+                    return;
+                }
+
+                StreamingDataRequest.prefetchNextVideo(videoId, VideoInformation.getPlaylistId());
+            } catch (Exception ex) {
+                Logger.printException(() -> "prefetchNextVideo failure", ex);
+            }
+        }
+    }
+
     public static boolean isValidVideoId(@Nullable String videoId) {
         return videoId != null && !videoId.isEmpty() && !"zzzzzzzzzzz".equals(videoId);
     }
@@ -6,6 +6,7 @@ import app.revanced.extension.shared.innertube.client.YouTubeClient.ClientType
 import app.revanced.extension.shared.innertube.requests.InnerTubeRequestBody.createApplicationRequestBody
 import app.revanced.extension.shared.innertube.requests.InnerTubeRequestBody.createJSRequestBody
 import app.revanced.extension.shared.innertube.requests.InnerTubeRequestBody.getInnerTubeResponseConnectionFromRoute
+import app.revanced.extension.shared.innertube.requests.InnerTubeRoutes.GET_NEXT_VIDEO_ID
 import app.revanced.extension.shared.innertube.requests.InnerTubeRoutes.GET_STREAMING_DATA
 import app.revanced.extension.shared.innertube.utils.PlayerResponseOuterClass.PlayerResponse
 import app.revanced.extension.shared.innertube.utils.StreamingDataOuterClassUtils.getAdaptiveFormats
@@ -14,6 +15,7 @@ import app.revanced.extension.shared.innertube.utils.StreamingDataOuterClassUtil
 import app.revanced.extension.shared.innertube.utils.ThrottlingParameterUtils
 import app.revanced.extension.shared.patches.components.ByteArrayFilterGroup
 import app.revanced.extension.shared.patches.spoof.StreamingDataOuterClassPatch.parseFrom
+import app.revanced.extension.shared.requests.Requester
 import app.revanced.extension.shared.settings.BaseSettings
 import app.revanced.extension.shared.utils.Logger
 import app.revanced.extension.shared.utils.StringRef.str
@@ -22,16 +24,18 @@ import com.google.protos.youtube.api.innertube.StreamingDataOuterClass.Streaming
 import com.liskovsoft.youtubeapi.app.PoTokenGate
 import org.apache.commons.lang3.BooleanUtils
 import org.apache.commons.lang3.StringUtils
-import java.io.BufferedInputStream
-import java.io.ByteArrayOutputStream
+import org.json.JSONException
+import org.json.JSONObject
 import java.io.IOException
 import java.net.HttpURLConnection
 import java.net.SocketTimeoutException
 import java.nio.ByteBuffer
 import java.util.Collections
+import java.util.EnumMap
 import java.util.Objects
 import java.util.concurrent.ExecutionException
 import java.util.concurrent.Future
+import java.util.concurrent.Semaphore
 import java.util.concurrent.TimeUnit
 import java.util.concurrent.TimeoutException
 
@@ -44,15 +48,35 @@ import java.util.concurrent.TimeoutException
  * since the stock app would not use expired streams and therefor
  * the extension replace stream hook is called only if YT
  * did use its own client streams.
+ *
+ * If prefetching is enabled, the streams of the next video are also fetched
+ * while the current video plays, and are used if YT fetches the next video before the streams expire.
  */
 @Suppress("deprecation")
 class StreamingDataRequest private constructor(
     videoId: String,
     requestHeader: Map<String, String>,
     reasonSkipped: String,
+    private val isPrefetch: Boolean,
 ) {
     private val videoId: String
-    private val future: Future<StreamingData?>
+
+    /**
+     * If the request header has an authorization, so login-required clients could be used.
+     */
+    private val isSignedIn = StringUtils.isNotEmpty(requestHeader[AUTHORIZATION_HEADER])
+
+    /**
+     * Time this instance and the fetch future was created.
+     */
+    private val timeFetched = System.currentTimeMillis()
+    private val future: Future<FetchResult?>
+
+    /**
+     * If the prefetched streams were used by YT, and should not be used again.
+     */
+    @Volatile
+    private var prefetchUsed = false
 
     init {
         Objects.requireNonNull(requestHeader)
@@ -62,6 +86,7 @@ class StreamingDataRequest private constructor(
                 videoId,
                 requestHeader,
                 reasonSkipped,
+                isPrefetch,
             )
         }
     }
@@ -70,10 +95,72 @@ class StreamingDataRequest private constructor(
         return future.isDone
     }
 
+    /**
+     * @return The fetch result, or null if the fetch is not completed or failed.
+     */
+    private fun getCompletedResult(): FetchResult? {
+        if (!fetchCompleted()) {
+            return null
+        }
+        return try {
+            future.get()
+        } catch (ex: ExecutionException) {
+            null
+        }
+    }
+
+    /**
+     * @return If the streams are being fetched, or were fetched and have not expired.
+     */
+    private fun isUsable(now: Long): Boolean {
+        if (!fetchCompleted()) {
+            return now - timeFetched < MAX_MILLISECONDS_TO_WAIT_FOR_FETCH
+        }
+        val result = getCompletedResult()
+        return result != null
+                && now < result.expiresAt
+                && now - timeFetched < PREFETCH_RETENTION_TIME_MILLISECONDS
+    }
+
+    /**
+     * Marks the prefetched streams as used, if they can be used.
+     *
+     * Only streams that were fetched, have not expired,
+     * and are of a client that a request of YT would also use are used.
+     * A prefetch that is still in progress or failed is not used, and YT fetches the streams again.
+     */
+    private fun usePrefetch(
+        now: Long,
+        requestHeader: Map<String, String>,
+        reasonSkipped: String,
+    ): Boolean {
+        if (!isPrefetch || prefetchUsed || !isUsable(now)) {
+            return false
+        }
+        val result = getCompletedResult() ?: return false
+        // The prefetch is made without the restrictions of the video, such as Shorts that do not use javascript clients.
+        // A client that is allowed for the video is the same client a request of the video would use,
+        // since all clients before it were allowed for the prefetch and were not playable.
+        // A request that is signed in can also use login-required clients, so the prefetch must be signed in too.
+        if (!isClientAllowed(result.clientType, requestHeader, reasonSkipped)
+            || isSignedIn != StringUtils.isNotEmpty(requestHeader[AUTHORIZATION_HEADER])
+        ) {
+            Logger.printDebug { "Ignoring prefetched video streams of client: ${result.clientType} (reasonSkipped: $reasonSkipped, videoId: $videoId)" }
+            return false
+        }
+        prefetchUsed = true
+        return true
+    }
+
     val stream: StreamingData?
         get() {
             try {
-                return future[MAX_MILLISECONDS_TO_WAIT_FOR_FETCH.toLong(), TimeUnit.MILLISECONDS]
+                val result = future[MAX_MILLISECONDS_TO_WAIT_FOR_FETCH.toLong(), TimeUnit.MILLISECONDS]
+                if (isPrefetch && result != null) {
+                    // Prefetches do not set the client when fetched, so the client of the playing video is not replaced.
+                    lastSpoofedClient = result.clientType
+                }
+                return result?.streamingData
             } catch (ex: TimeoutException) {
                 Logger.printInfo(
                     { "getStream timed out" },
@@ -104,23 +191,81 @@ class StreamingDataRequest private constructor(
         private const val VISITOR_ID_HEADER: String = "X-Goog-Visitor-Id"
         private const val MAX_MILLISECONDS_TO_WAIT_FOR_FETCH = 20 * 1000
 
+        /**
+         * How long prefetched streams can be used, even if the streaming urls expire later.
+         */
+        private const val PREFETCH_RETENTION_TIME_MILLISECONDS = 30 * 60 * 1000L // 30 minutes
+
+        /**
+         * Prefetched streams are not used this long before the streaming urls expire,
+         * so the urls do not expire while the video plays.
+         */
+        private const val PREFETCH_EXPIRY_MARGIN_MILLISECONDS = 10 * 60 * 1000L // 10 minutes
+
+        /**
+         * Maximum videos prefetched at the same time.
+         */
+        private const val PREFETCH_MAX_CONCURRENT = 2
+
+        /**
+         * Initial buffer size of a response without a content length.
+         * The buffer is doubled if the response is larger.
+         */
+        private const val RESPONSE_BUFFER_INITIAL_SIZE = 64 * 1024
+
         private val SPOOF_STREAMING_DATA_DEFAULT_CLIENT: ClientType =
             BaseSettings.SPOOF_STREAMING_DATA_DEFAULT_CLIENT.get()
         private val CLIENT_ORDER_TO_USE: Array<ClientType> =
             YouTubeClient.availableClientTypes(SPOOF_STREAMING_DATA_DEFAULT_CLIENT)
         private val SPOOF_STREAMING_DATA_USE_JS_BYPASS_FAKE_BUFFERING: Boolean =
             BaseSettings.SPOOF_STREAMING_DATA_USE_JS_BYPASS_FAKE_BUFFERING.get()
+        private val SPOOF_STREAMING_DATA_HEDGED_REQUESTS: Boolean =
+            BaseSettings.SPOOF_STREAMING_DATA_HEDGED_REQUESTS.get()
+        private val SPOOF_STREAMING_DATA_HEDGED_REQUESTS_DELAY: Int =
+            if (SPOOF_STREAMING_DATA_HEDGED_REQUESTS) Utils.validateValue(
+                BaseSettings.SPOOF_STREAMING_DATA_HEDGED_REQUESTS_DELAY,
+                0,
+                10000,
+                "revanced_spoof_streaming_data_hedged_requests_delay_invalid_toast"
+            ) else 0
+        private val SPOOF_STREAMING_DATA_HEDGED_REQUESTS_IMMEDIATE: Int =
+            if (SPOOF_STREAMING_DATA_HEDGED_REQUESTS) Utils.validateValue(
+                BaseSettings.SPOOF_STREAMING_DATA_HEDGED_REQUESTS_IMMEDIATE,
+                1,
+                10,
+                "revanced_spoof_streaming_data_hedged_requests_immediate_invalid_toast"
+            ) else 1
+        private val SPOOF_STREAMING_DATA_PREFETCH: Boolean =
+            BaseSettings.SPOOF_STREAMING_DATA_PREFETCH.get()
+        private val SPOOF_STREAMING_DATA_PREFETCH_METERED: Boolean =
+            SPOOF_STREAMING_DATA_PREFETCH && BaseSettings.SPOOF_STREAMING_DATA_PREFETCH_METERED.get()
         private val liveStreams: ByteArrayFilterGroup =
             ByteArrayFilterGroup(
                 null,
                 "yt_live_broadcast",
                 "yt_premiere_broadcast"
             )
+        private val CLIENT_REJECTED = ClientResult()
+        private val CLIENT_UPCOMING = ClientResult(isUpcoming = true)
         private var lastSpoofedClient: ClientType? = null
 
+        /**
+         * Number of videos each client was used for, when using hedged requests.
+         */
+        @GuardedBy("itself")
+        private val hedgedRequestWins: MutableMap<ClientType, Int> = EnumMap(ClientType::class.java)
+
         // When this value is not empty, it is used as the preferred language when creating the RequestBody.
         private var overrideLanguage: String = ""
 
+        /**
+         * Request header of the last video fetched by YT, used to prefetch the next video.
+         */
+        @Volatile
+        private var lastRequestHeader: Map<String, String>? = null
+
+        private val prefetchPermits = Semaphore(PREFETCH_MAX_CONCURRENT)
+
         @GuardedBy("itself")
         val cache: MutableMap<String, StreamingDataRequest> = Collections.synchronizedMap(
             object : LinkedHashMap<String, StreamingDataRequest>(100) {
@@ -139,6 +284,15 @@ class StreamingDataRequest private constructor(
         val lastSpoofedClientIsNoAuth: Boolean
             get() = BooleanUtils.isFalse(lastSpoofedClient?.supportsCookies?: true)
 
+        /**
+         * Number of videos each client was used for, when using hedged requests.
+         */
+        @JvmStatic
+        val hedgedRequestStatistics: String
+            get() = synchronized(hedgedRequestWins) {
+                hedgedRequestWins.entries.joinToString { "${it.key.friendlyName}: ${it.value}" }
+            }
+
         @JvmStatic
         fun overrideLanguage(language: String) {
             overrideLanguage = language
@@ -150,13 +304,77 @@ class StreamingDataRequest private constructor(
             fetchHeaders: Map<String, String>,
             reasonSkipped: String,
         ) {
-            // Always fetch, even if there is an existing request for the same video.
-            cache[videoId] =
-                StreamingDataRequest(
-                    videoId,
-                    fetchHeaders,
-                    reasonSkipped,
-                )
+            if (SPOOF_STREAMING_DATA_PREFETCH) {
+                lastRequestHeader = LinkedHashMap(fetchHeaders)
+            }
+            synchronized(cache) {
+                val prefetchedRequest = cache[videoId]
+                if (prefetchedRequest != null
+                    && prefetchedRequest.usePrefetch(System.currentTimeMillis(), fetchHeaders, reasonSkipped)
+                ) {
+                    Logger.printDebug { "Using prefetched video streams (videoId: $videoId)" }
+                    return
+                }
+                // Always fetch, even if there is an existing request for the same video.
+                cache[videoId] =
+                    StreamingDataRequest(
+                        videoId,
+                        fetchHeaders,
+                        reasonSkipped,
+                        false,
+                    )
+            }
+        }
+
+        /**
+         * Fetches the streams of the video that plays after the current video,
+         * which is the next video of the playlist, or the autoplay video if there is no playlist.
+         *
+         * Videos are not prefetched on metered networks unless enabled,
+         * or if [PREFETCH_MAX_CONCURRENT] videos are already being prefetched.
+         */
+        @JvmStatic
+        fun prefetchNextVideo(videoId: String, playlistId: String) {
+            if (!SPOOF_STREAMING_DATA_PREFETCH) return
+            val requestHeader = lastRequestHeader ?: return
+
+            if (!SPOOF_STREAMING_DATA_PREFETCH_METERED && Utils.isNetworkMetered()) {
+                Logger.printDebug { "Skipped prefetching on metered network (videoId: $videoId)" }
+                return
+            }
+            if (!prefetchPermits.tryAcquire()) {
+                Logger.printDebug { "Skipped prefetching, too many prefetches in progress (videoId: $videoId)" }
+                return
+            }
+
+            Utils.runOnBackgroundThread {
+                try {
+                    val nextVideoId = fetchNextVideoId(videoId, playlistId, requestHeader)
+                        ?: return@runOnBackgroundThread
+                    val request = synchronized(cache) {
+                        val existingRequest = cache[nextVideoId]
+                        if (existingRequest != null && existingRequest.isUsable(System.currentTimeMillis())) {
+                            Logger.printDebug { "Skipped prefetching, streams already fetched (videoId: $nextVideoId)" }
+                            return@runOnBackgroundThread
+                        }
+                        Logger.printDebug { "Prefetching video streams (videoId: $nextVideoId, current videoId: $videoId)" }
+                        StreamingDataRequest(
+                            nextVideoId,
+                            requestHeader,
+                            "",
+                            true,
+                        ).also { cache[nextVideoId] = it }
+                    }
+                    // Hold the permit until the streams are fetched.
+                    request.future.get()
+                } catch (ex: ExecutionException) {
+                    Logger.printException({ "Prefetch failed" }, ex)
+                } catch (ex: InterruptedException) {
+                    Thread.currentThread().interrupt() // Restore interrupt status flag.
+                } finally {
+                    prefetchPermits.release()
+                }
+            }
         }
 
         @JvmStatic
@@ -202,23 +420,50 @@ class StreamingDataRequest private constructor(
             return requestHeader
         }
 
-        private fun getPlayabilityStatus(
+        /**
+         * Reads the response body. If the length of the body is known,
+         * the body is read into an array of that size and is not copied.
+         *
+         * @return The response body. The buffer array can be larger than the body.
+         */
+        @Throws(IOException::class)
+        private fun readResponse(connection: HttpURLConnection): ByteBuffer {
+            val contentLength = connection.contentLength
+            connection.inputStream.use { inputStream ->
+                var buffer = ByteArray(
+                    if (contentLength > 0) contentLength else RESPONSE_BUFFER_INITIAL_SIZE
+                )
+                var size = 0
+                while (true) {
+                    if (size == buffer.size) {
+                        // The buffer is full. Usually the body has ended, otherwise grow the buffer.
+                        val nextByte = inputStream.read()
+                        if (nextByte < 0) break
+                        buffer = buffer.copyOf(size * 2)
+                        buffer[size++] = nextByte.toByte()
+                    }
+                    val bytesRead = inputStream.read(buffer, size, buffer.size - size)
+                    if (bytesRead < 0) break
+                    size += bytesRead
+                }
+                return ByteBuffer.wrap(buffer, 0, size)
+            }
+        }
+
+        /**
+         * Parses the response once, for the playability status and the formats.
+         */
+        private fun parsePlayerResponse(
             videoId: String,
-            streamBytes: ByteArray
-        ): String? {
+            response: ByteBuffer
+        ): PlayerResponse? {
             val startTime = System.currentTimeMillis()
             try {
-                val playerResponse: PlayerResponse? = PlayerResponse.parseFrom(streamBytes)
-                if (playerResponse != null) {
-                    val playabilityStatus = playerResponse.getPlayabilityStatus()
-                    if (playabilityStatus != null) {
-                        return playabilityStatus.getStatus().name
-                    }
-                }
+                return PlayerResponse.parseFrom(response.duplicate())
             } catch (ex: Exception) {
-                Logger.printException({ "Get playability status failed" }, ex)
+                Logger.printException({ "Parse player response failed" }, ex)
             } finally {
-                Logger.printDebug { "Get playability status end (videoId: $videoId, took: ${(System.currentTimeMillis() - startTime)} ms)" }
+                Logger.printDebug { "Parse player response end (videoId: $videoId, took: ${(System.currentTimeMillis() - startTime)} ms)" }
             }
 
             return null
@@ -227,12 +472,11 @@ class StreamingDataRequest private constructor(
         private fun getDeobfuscatedUrlArrayList(
             clientType: ClientType,
             videoId: String,
-            streamBytes: ByteArray,
+            playerResponse: PlayerResponse?,
         ): Pair<ArrayList<String>?, ArrayList<String>?>? {
             val startTime = System.currentTimeMillis()
 
             try {
-                val playerResponse: PlayerResponse? = PlayerResponse.parseFrom(streamBytes)
                 if (playerResponse != null) {
                     val streamingData = playerResponse.getStreamingData()
                     if (streamingData == null) {
@@ -245,114 +489,73 @@ class StreamingDataRequest private constructor(
                         return null
                     }
 
-                    val deobfuscatedAdaptiveFormatsArrayList: ArrayList<String> =
-                        ArrayList(adaptiveFormatsCount)
-                    val requirePoToken = clientType.requirePoToken
-                    val isTV = !requirePoToken
-                    val sessionPoToken = if (requirePoToken)
+                    // The urls of all formats are deobfuscated together, adaptiveFormats first.
+                    var formatsCount = streamingData.formatsCount
+                    val urls = arrayOfNulls<String>(adaptiveFormatsCount + formatsCount)
+                    val signatureCiphers = arrayOfNulls<String>(urls.size)
+
+                    for (i in 0..<adaptiveFormatsCount) {
+                        val adaptiveFormats = streamingData.getAdaptiveFormats(i)
+                        urls[i] = adaptiveFormats.url
+                        signatureCiphers[i] = adaptiveFormats.signatureCipher
+                        if (urls[i].isNullOrEmpty() && signatureCiphers[i].isNullOrEmpty()) {
+                            // Neither streamingUrl nor signatureCipher are present in the response.
+                            // In this case, decoding serverAbrStreamingUrl is required to obtain streamingUrl.
+                            // This feature is not yet implemented in RVX.
+                            Logger.printDebug { "Neither streamingUrl nor signatureCipher were found, legacy client will be used" }
+                            return null
+                        }
+                    }
+                    for (i in 0..<formatsCount) {
+                        val formats = streamingData.getFormats(i)
+                        urls[adaptiveFormatsCount + i] = formats.url
+                        signatureCiphers[adaptiveFormatsCount + i] = formats.signatureCipher
+                        if (formats.url.isNullOrEmpty() && formats.signatureCipher.isNullOrEmpty()) {
+                            Logger.printDebug { "Neither streamingUrl nor signatureCipher were found" }
+                            formatsCount = 0
+                            break
+                        }
+                    }
+
+                    val deobfuscatedUrls =
+                        ThrottlingParameterUtils.getUrlsWithThrottlingParameterDeobfuscated(
+                            videoId,
+                            urls.copyOf(adaptiveFormatsCount + formatsCount),
+                            signatureCiphers.copyOf(adaptiveFormatsCount + formatsCount),
+                            !clientType.requirePoToken
+                        )
+
+                    val sessionPoToken = if (clientType.requirePoToken)
                         PoTokenGate.getSessionPoToken(videoId)
                     else
                         null
 
+                    val deobfuscatedAdaptiveFormatsArrayList: ArrayList<String> =
+                        ArrayList(adaptiveFormatsCount)
                     for (i in 0..<adaptiveFormatsCount) {
-                        val adaptiveFormats = streamingData.getAdaptiveFormats(i)
-
-                        if (adaptiveFormats != null) {
-                            var streamUrl: String?
-                            val url: String? = adaptiveFormats.url
-                            val signatureCipher: String? = adaptiveFormats.signatureCipher
-
-                            if (!url.isNullOrEmpty()) {
-                                streamUrl = url
-                            } else if (!signatureCipher.isNullOrEmpty()) {
-                                streamUrl =
-                                    ThrottlingParameterUtils.getUrlWithThrottlingParameterObfuscated(
-                                        videoId,
-                                        signatureCipher,
-                                        isTV
-                                    )
-                            } else {
-                                // Neither streamingUrl nor signatureCipher are present in the response.
-                                // In this case, decoding serverAbrStreamingUrl is required to obtain streamingUrl.
-                                // This feature is not yet implemented in RVX.
-                                Logger.printDebug { "Neither streamingUrl nor signatureCipher were found, legacy client will be used" }
-                                return null
-                            }
-                            // streamUrl not found, trying to fetch with legacy client.
-                            if (streamUrl.isNullOrEmpty()) {
-                                Logger.printDebug { "StreamUrl was not found, legacy client will be used" }
-                                return null
-                            }
-                            var deobfuscatedUrl =
-                                ThrottlingParameterUtils.getUrlWithThrottlingParameterDeobfuscated(
-                                    videoId,
-                                    streamUrl,
-                                    isTV
-                                )
-                            if (!deobfuscatedUrl.isNullOrEmpty() && !sessionPoToken.isNullOrEmpty()) {
-                                deobfuscatedUrl += "&pot=$sessionPoToken"
-                            }
-                            if (deobfuscatedUrl.isNullOrEmpty()) {
-                                Logger.printDebug { "Failed to decrypt n-sig or signatureCipher, please check if latest regular expressions are being used" }
-                                return null
-                            }
-                            deobfuscatedAdaptiveFormatsArrayList.add(i, deobfuscatedUrl)
+                        var deobfuscatedUrl = deobfuscatedUrls[i]
+                        if (deobfuscatedUrl.isNullOrEmpty()) {
+                            Logger.printDebug { "Failed to decrypt n-sig or signatureCipher, please check if latest regular expressions are being used" }
+                            return null
                         }
+                        if (!sessionPoToken.isNullOrEmpty()) {
+                            deobfuscatedUrl += "&pot=$sessionPoToken"
+                        }
+                        deobfuscatedAdaptiveFormatsArrayList.add(deobfuscatedUrl)
                     }
 
-                    val deobfuscatedFormatsArrayList: ArrayList<String> = ArrayList(0)
-                    val formatsCount = streamingData.formatsCount
-                    if (formatsCount > 0) {
-                        for (i in 0..<formatsCount) {
-                            val formats = streamingData.getFormats(i)
-                            if (formats == null) {
-                                Logger.printDebug { "Formats is empty" }
-                                deobfuscatedFormatsArrayList.clear()
-                                break
-                            }
-                            var streamUrl: String?
-                            val url: String? = formats.url
-                            val signatureCipher: String? = formats.signatureCipher
-
-                            if (!url.isNullOrEmpty()) {
-                                streamUrl = url
-                            } else if (!signatureCipher.isNullOrEmpty()) {
-                                streamUrl =
-                                    ThrottlingParameterUtils.getUrlWithThrottlingParameterObfuscated(
-                                        videoId,
-                                        signatureCipher,
-                                        isTV
-                                    )
-                            } else {
-                                // Neither streamingUrl nor signatureCipher are present in the response.
-                                // In this case, decoding serverAbrStreamingUrl is required to obtain streamingUrl.
-                                // This feature is not yet implemented in RVX.
-                                Logger.printDebug { "Neither streamingUrl nor signatureCipher were found" }
-                                deobfuscatedFormatsArrayList.clear()
-                                break
-                            }
-                            // streamUrl not found, trying to fetch with legacy client.
-                            if (streamUrl.isNullOrEmpty()) {
-                                Logger.printDebug { "StreamUrl was not found" }
-                                deobfuscatedFormatsArrayList.clear()
-                                break
-                            }
-                            var deobfuscatedUrl =
-                                ThrottlingParameterUtils.getUrlWithThrottlingParameterDeobfuscated(
-                                    videoId,
-                                    streamUrl,
-                                    isTV
-                                )
-                            if (!deobfuscatedUrl.isNullOrEmpty() && !sessionPoToken.isNullOrEmpty()) {
-                                deobfuscatedUrl += "&pot=$sessionPoToken"
-                            }
-                            if (deobfuscatedUrl.isNullOrEmpty()) {
-                                Logger.printDebug { "Failed to decrypt n-sig or signatureCipher" }
-                                deobfuscatedFormatsArrayList.clear()
-                                break
-                            }
-                            deobfuscatedFormatsArrayList.add(i, deobfuscatedUrl)
+                    val deobfuscatedFormatsArrayList: ArrayList<String> = ArrayList(formatsCount)
+                    for (i in 0..<formatsCount) {
+                        var deobfuscatedUrl = deobfuscatedUrls[adaptiveFormatsCount + i]
+                        if (deobfuscatedUrl.isNullOrEmpty()) {
+                            Logger.printDebug { "Failed to decrypt n-sig or signatureCipher" }
+                            deobfuscatedFormatsArrayList.clear()
+                            break
+                        }
+                        if (!sessionPoToken.isNullOrEmpty()) {
+                            deobfuscatedUrl += "&pot=$sessionPoToken"
                         }
+                        deobfuscatedFormatsArrayList.add(deobfuscatedUrl)
                     }
 
                     return Pair(
@@ -390,24 +593,27 @@ class StreamingDataRequest private constructor(
         }
 
         private fun send(
-            clientType: ClientType,
+            request: ClientRequest,
             videoId: String,
             requestHeader: Map<String, String>,
         ): HttpURLConnection? {
-            Objects.requireNonNull(clientType)
+            Objects.requireNonNull(request)
             Objects.requireNonNull(videoId)
             Objects.requireNonNull(requestHeader)
 
+            val clientType = request.clientType
             val startTime = System.currentTimeMillis()
             Logger.printDebug { "Fetching video streams for: $videoId using client: $clientType" }
 
+            var connection: HttpURLConnection? = null
+            var responseAccepted = false
             try {
                 val requestBody = if (clientType.requireJS) {
                     // Javascript is used to get the signatureTimestamp
                     createJSRequestBody(
                         clientType = clientType,
                         videoId = videoId,
-                        language = overrideLanguage,
+                        language = request.language,
                         isGVS = true,
                         bypassFakeBuffering = SPOOF_STREAMING_DATA_USE_JS_BYPASS_FAKE_BUFFERING,
                     )
@@ -415,22 +621,30 @@ class StreamingDataRequest private constructor(
                     createApplicationRequestBody(
                         clientType = clientType,
                         videoId = videoId,
-                        language = overrideLanguage
+                        language = request.language
                     )
                 }
 
-                val connection =
+                connection =
                     getInnerTubeResponseConnectionFromRoute(
                         GET_STREAMING_DATA,
                         clientType,
                         replaceVisitorData(clientType, videoId, requestHeader)
                     )
+                request.connection = connection
+                if (request.cancelled) {
+                    return null
+                }
 
                 connection.setFixedLengthStreamingMode(requestBody.size)
                 connection.outputStream.write(requestBody)
 
                 val responseCode = connection.responseCode
-                if (responseCode == 200) return connection
+                if (responseCode == 200) {
+                    // The caller reads the response, and then disconnects.
+                    responseAccepted = true
+                    return connection
+                }
 
                 // This situation likely means the patches are outdated.
                 // Use a toast message that suggests updating.
@@ -442,148 +656,330 @@ class StreamingDataRequest private constructor(
             } catch (ex: SocketTimeoutException) {
                 handleConnectionError("Connection timeout", ex)
             } catch (ex: IOException) {
-                handleConnectionError("Network error", ex)
+                if (request.cancelled) {
+                    Logger.printDebug { "Cancelled fetching video streams (clientType: $clientType, videoId: $videoId)" }
+                } else {
+                    handleConnectionError("Network error", ex)
+                }
             } catch (ex: Exception) {
                 Logger.printException({ "send failed" }, ex)
             } finally {
+                if (!responseAccepted) {
+                    // Releases the pooled connection of a rejected or failed request.
+                    connection?.disconnect()
+                }
                 Logger.printDebug { "Fetching video streams request end (videoId: $videoId, took: ${(System.currentTimeMillis() - startTime)} ms)" }
             }
 
             return null
         }
 
-        private fun fetch(
+        /**
+         * @return If the client can be used for a video with the request header and reason skipped.
+         */
+        private fun isClientAllowed(
+            clientType: ClientType,
+            requestHeader: Map<String, String>,
+            reasonSkipped: String,
+        ): Boolean {
+            if (clientType.requireAuth &&
+                StringUtils.isEmpty(requestHeader[AUTHORIZATION_HEADER])
+            ) {
+                // Login-required client.
+                return false
+            }
+            // Decrypting signatureCipher takes time, so videos start 5 to 15 seconds late.
+            // Unlike regular videos, no one would be willing to wait 5 to 15 seconds to play a 10-second Shorts.
+            // For this reason, Shorts uses legacy clients that are not protected by signatureCipher.
+            return !clientType.requireJS || reasonSkipped.isEmpty()
+        }
+
+        /**
+         * @return The clients to request, in the order to use.
+         */
+        private fun getClientRequests(
             videoId: String,
             requestHeader: Map<String, String>,
             reasonSkipped: String,
-        ): StreamingData? {
-            Utils.verifyOffMainThread()
-            lastSpoofedClient = null
+            preferredLanguage: String,
+        ): List<ClientRequest> {
+            val requests = ArrayList<ClientRequest>(CLIENT_ORDER_TO_USE.size)
+            var language = preferredLanguage
 
-            // Retry with different client if empty response body is received.
             for (clientType in CLIENT_ORDER_TO_USE) {
-                if (clientType.requireAuth &&
-                    StringUtils.isEmpty(requestHeader[AUTHORIZATION_HEADER])
-                ) {
-                    Logger.printDebug { "Skipped login-required client (clientType: $clientType, videoId: $videoId)" }
-                    continue
-                }
-                // Decrypting signatureCipher takes time, so videos start 5 to 15 seconds late.
-                // Unlike regular videos, no one would be willing to wait 5 to 15 seconds to play a 10-second Shorts.
-                // For this reason, Shorts uses legacy clients that are not protected by signatureCipher.
-                if (clientType.requireJS && reasonSkipped.isNotEmpty()) {
-                    Logger.printDebug { "Skipped javascript required client (reasonSkipped: $reasonSkipped, clientType: $clientType, videoId: $videoId)" }
+                if (!isClientAllowed(clientType, requestHeader, reasonSkipped)) {
+                    Logger.printDebug { "Skipped client (reasonSkipped: $reasonSkipped, clientType: $clientType, videoId: $videoId)" }
                     continue
                 }
                 if (!clientType.supportsCookies
                     && BaseSettings.DISABLE_AUTO_AUDIO_TRACKS.get()
-                    && overrideLanguage.isEmpty()) {
+                    && language.isEmpty()) {
                     // Volapük (ISO 639-1 language code: vo) is a constructed language created in 1879 for academic purposes and is not used anywhere else.
                     // Using this language code disables auto-dubbing.
                     //
                     // However, the 'Mobile Web' client did not receive a valid player response when using this language code.
                     //
                     // For compatibility with the 'Mobile Web' client, Norwegian (ISO 639-1 language code: no) is used.
-                    overrideLanguage = "no"
+                    language = "no"
                 }
 
-                val connection = send(clientType, videoId, requestHeader)
-                if (connection != null) {
+                requests.add(ClientRequest(clientType, language))
+            }
+
+            return requests
+        }
+
+        /**
+         * Fetches and parses the streams of a single client.
+         */
+        private fun fetchClient(
+            request: ClientRequest,
+            videoId: String,
+            requestHeader: Map<String, String>,
+        ): ClientResult {
+            val clientType = request.clientType
+            val connection = send(request, videoId, requestHeader) ?: return CLIENT_REJECTED
+
+            try {
+                // gzip encoding doesn't response with content length (-1),
+                // but empty response body does.
+                if (connection.contentLength == 0) {
+                    Logger.printDebug { "Received empty response (clientType: $clientType, videoId: $videoId)" }
+                    return CLIENT_REJECTED
+                }
+                val response = readResponse(connection)
+
+                // Android Creator can't play livestreams, but it doesn't have an empty response (no formats available).
+                // Since it doesn't have an empty response, the app doesn't try to fetch with another client, and it tries to play the livestream.
+                // However, the response doesn't contain any formats available, so an exception is thrown.
+                // As a workaround for this issue, if Android Creator is used for fetching, it should check if the video is a livestream.
+                if (clientType == ClientType.ANDROID_CREATOR
+                    && liveStreams.check(response.array()).isFiltered //
+                ) {
+                    Logger.printDebug { "Ignore Android Studio spoofing as it is a livestream (videoId: $videoId)" }
+                    return CLIENT_REJECTED
+                }
+
+                val playerResponse = parsePlayerResponse(videoId, response)
+                val playabilityStatus = playerResponse?.playabilityStatus?.status?.name
+                if (playabilityStatus == "LIVE_STREAM_OFFLINE") {
+                    Logger.printDebug { "Ignore UPCOMING video (videoId: $videoId)" }
+                    return CLIENT_UPCOMING
+                }
+                if (playabilityStatus != "OK") {
+                    Logger.printDebug { "Ignore unplayable video, (playabilityStatus: $playabilityStatus, clientType: $clientType, videoId: $videoId)" }
+                    return CLIENT_REJECTED
+                }
+
+                // Parses the Proto Buffer and returns StreamingData (GeneratedMessage).
+                // This is the class used by the app, and cannot be created from the parsed player response.
+                var streamingData = parseFrom(response.duplicate())
+                if (streamingData == null) {
+                    Logger.printDebug { "Ignore empty streamingData, (clientType: $clientType, videoId: $videoId)" }
+                    return CLIENT_REJECTED
+                }
+                val expiresInSeconds = playerResponse?.streamingData?.expiresInSeconds ?: 0L
+                if (!clientType.requireJS) {
+                    return ClientResult(streamingData, expiresInSeconds)
+                }
+                if (request.cancelled) {
+                    // Another client was used, and decrypting the urls is not needed.
+                    return CLIENT_REJECTED
+                }
+
+                // ArrayList containing the deobfuscated streamingUrl
+                val arrayLists = getDeobfuscatedUrlArrayList(
+                    clientType,
+                    videoId,
+                    playerResponse
+                ) ?: return CLIENT_REJECTED
+
+                // MutableMap containing the deobfuscated streamingUrl.
+                // This is used for clients where streamingUrl is obfuscated.
+                val deobfuscatedAdaptiveFormatsArrayList =
+                    arrayLists.first
+                val deobfuscatedFormatsArrayList =
+                    arrayLists.second
+                if (!deobfuscatedAdaptiveFormatsArrayList.isNullOrEmpty()) {
+                    streamingData =
+                        deobfuscateStreamingData(
+                            deobfuscatedUrlArrayList = deobfuscatedAdaptiveFormatsArrayList,
+                            isAdaptiveFormats = true,
+                            streamingData = streamingData
+                        )
+                }
+                if (!deobfuscatedFormatsArrayList.isNullOrEmpty()) {
+                    streamingData =
+                        deobfuscateStreamingData(
+                            deobfuscatedUrlArrayList = deobfuscatedFormatsArrayList,
+                            isAdaptiveFormats = false,
+                            streamingData = streamingData
+                        )
+                }
+                return ClientResult(streamingData, expiresInSeconds)
+            } catch (ex: IOException) {
+                if (request.cancelled) {
+                    Logger.printDebug { "Cancelled reading video streams (clientType: $clientType, videoId: $videoId)" }
+                } else {
+                    Logger.printException({ "Fetch failed while processing response data" }, ex)
+                }
+            } finally {
+                // Returns the connection to the pool if the response was read, otherwise closes it.
+                connection.disconnect()
+            }
+
+            return CLIENT_REJECTED
+        }
+
+        /**
+         * Requests the clients one at a time, until a client is playable.
+         */
+        private fun fetchSequential(
+            requests: List<ClientRequest>,
+            videoId: String,
+            requestHeader: Map<String, String>,
+        ): Pair<ClientRequest, ClientResult>? {
+            for (request in requests) {
+                val result = fetchClient(request, videoId, requestHeader)
+                if (result.streamingData != null || result.isUpcoming) {
+                    return Pair(request, result)
+                }
+            }
+            return null
+        }
+
+        /**
+         * Requests the first clients immediately, and requests each following client in parallel
+         * if no client has finished after the hedged request delay.
+         * A client that fails also starts the next client immediately.
+         *
+         * The result of the first playable client in the client order is used, even if a client later
+         * in the order finishes first, and the requests of all other clients are cancelled.
+         */
+        private fun fetchHedged(
+            requests: List<ClientRequest>,
+            videoId: String,
+            requestHeader: Map<String, String>,
+        ): Pair<ClientRequest, ClientResult>? {
+            val startTime = System.currentTimeMillis()
+            val futures = ArrayList<Future<ClientResult>>(requests.size)
+            var nextLaunchTime = 0L
+            var winner: ClientRequest? = null
+
+            fun launch() {
+                val request = requests[futures.size]
+                futures.add(Utils.submitOnBackgroundThread {
+                    fetchClient(request, videoId, requestHeader)
+                })
+                nextLaunchTime = System.currentTimeMillis() + SPOOF_STREAMING_DATA_HEDGED_REQUESTS_DELAY
+            }
+
+            try {
+                while (futures.size < minOf(SPOOF_STREAMING_DATA_HEDGED_REQUESTS_IMMEDIATE, requests.size)) {
+                    launch()
+                }
+
+                var index = 0
+                while (index < requests.size) {
+                    if (futures.size <= index) {
+                        launch()
+                    }
+
+                    var result: ClientResult
                     try {
-                        // gzip encoding doesn't response with content length (-1),
-                        // but empty response body does.
-                        if (connection.contentLength == 0) {
-                            Logger.printDebug { "Received empty response (clientType: $clientType, videoId: $videoId)" }
-                        } else {
-                            BufferedInputStream(connection.inputStream).use { inputStream ->
-                                ByteArrayOutputStream().use { stream ->
-                                    val buffer = ByteArray(2048)
-                                    var bytesRead: Int
-                                    while ((inputStream.read(buffer)
-                                            .also { bytesRead = it }) >= 0
-                                    ) {
-                                        stream.write(buffer, 0, bytesRead)
-                                    }
-                                    // Android Creator can't play livestreams, but it doesn't have an empty response (no formats available).
-                                    // Since it doesn't have an empty response, the app doesn't try to fetch with another client, and it tries to play the livestream.
-                                    // However, the response doesn't contain any formats available, so an exception is thrown.
-                                    // As a workaround for this issue, if Android Creator is used for fetching, it should check if the video is a livestream.
-                                    if (clientType == ClientType.ANDROID_CREATOR
-                                        && liveStreams.check(buffer).isFiltered //
-                                    ) {
-                                        Logger.printDebug { "Ignore Android Studio spoofing as it is a livestream (videoId: $videoId)" }
-                                    } else {
-                                        lastSpoofedClient = null
-
-                                        // Parses the Proto Buffer and returns StreamingData (GeneratedMessage).
-                                        val streamBytes: ByteArray = stream.toByteArray()
-
-                                        val playabilityStatus =
-                                            getPlayabilityStatus(videoId, streamBytes)
-                                        if (playabilityStatus == "OK") {
-                                            var streamingData =
-                                                parseFrom(ByteBuffer.wrap(streamBytes))
-
-                                            if (streamingData != null) {
-                                                if (clientType.requireJS) {
-                                                    // ArrayList containing the deobfuscated streamingUrl
-                                                    val arrayLists = getDeobfuscatedUrlArrayList(
-                                                        clientType,
-                                                        videoId,
-                                                        streamBytes
-                                                    )
-                                                    if (arrayLists != null) {
-                                                        // MutableMap containing the deobfuscated streamingUrl.
-                                                        // This is used for clients where streamingUrl is obfuscated.
-                                                        val deobfuscatedAdaptiveFormatsArrayList =
-                                                            arrayLists.first
-                                                        val deobfuscatedFormatsArrayList =
-                                                            arrayLists.second
-                                                        if (!deobfuscatedAdaptiveFormatsArrayList.isNullOrEmpty()) {
-                                                            streamingData =
-                                                                deobfuscateStreamingData(
-                                                                    deobfuscatedUrlArrayList = deobfuscatedAdaptiveFormatsArrayList,
-                                                                    isAdaptiveFormats = true,
-                                                                    streamingData = streamingData
-                                                                )
-                                                        }
-                                                        if (!deobfuscatedFormatsArrayList.isNullOrEmpty()) {
-                                                            streamingData =
-                                                                deobfuscateStreamingData(
-                                                                    deobfuscatedUrlArrayList = deobfuscatedFormatsArrayList,
-                                                                    isAdaptiveFormats = false,
-                                                                    streamingData = streamingData
-                                                                )
-                                                        }
-
-                                                        lastSpoofedClient = clientType
-                                                        overrideLanguage = ""
-                                                        return streamingData
-                                                    }
-                                                } else {
-                                                    lastSpoofedClient = clientType
-                                                    overrideLanguage = ""
-                                                    return streamingData
-                                                }
-                                            } else {
-                                                Logger.printDebug { "Ignore empty streamingData, (clientType: $clientType, videoId: $videoId)" }
-                                            }
-                                        } else if (playabilityStatus == "LIVE_STREAM_OFFLINE") {
-                                            Logger.printDebug { "Ignore UPCOMING video (videoId: $videoId)" }
-                                            return null
-                                        } else {
-                                            Logger.printDebug { "Ignore unplayable video, (playabilityStatus: $playabilityStatus, clientType: $clientType, videoId: $videoId)" }
-                                        }
-                                    }
-                                }
+                        if (futures.size < requests.size) {
+                            val waitMillis = nextLaunchTime - System.currentTimeMillis()
+                            if (waitMillis <= 0) {
+                                launch()
+                                continue
                             }
+                            result = futures[index][waitMillis, TimeUnit.MILLISECONDS]
+                        } else {
+                            result = futures[index].get()
+                        }
+                    } catch (ex: TimeoutException) {
+                        continue // Request the next client.
+                    } catch (ex: ExecutionException) {
+                        Logger.printException({ "Hedged request failed" }, ex)
+                        result = CLIENT_REJECTED
+                    }
+
+                    if (result.streamingData != null || result.isUpcoming) {
+                        val request = requests[index]
+                        winner = request
+                        synchronized(hedgedRequestWins) {
+                            hedgedRequestWins.merge(request.clientType, 1) { wins, one -> wins + one }
+                        }
+                        Logger.printDebug {
+                            "Hedged request used client: ${request.clientType} (videoId: $videoId, clients requested: ${futures.size}, " +
+                                    "took: ${(System.currentTimeMillis() - startTime)} ms, wins: $hedgedRequestStatistics)"
                         }
-                    } catch (ex: IOException) {
-                        Logger.printException({ "Fetch failed while processing response data" }, ex)
+                        return Pair(request, result)
+                    }
+
+                    index++
+                }
+            } finally {
+                for (i in futures.indices) {
+                    val request = requests[i]
+                    if (request !== winner) {
+                        request.cancel()
+                        futures[i].cancel(false)
                     }
                 }
             }
 
+            return null
+        }
+
+        private fun fetch(
+            videoId: String,
+            requestHeader: Map<String, String>,
+            reasonSkipped: String,
+            isPrefetch: Boolean,
+        ): FetchResult? {
+            Utils.verifyOffMainThread()
+            if (!isPrefetch) {
+                lastSpoofedClient = null
+            }
+
+            // Retry with different client if empty response body is received.
+            // The language override is only used for the video that is playing.
+            val requests = getClientRequests(
+                videoId,
+                requestHeader,
+                reasonSkipped,
+                if (isPrefetch) "" else overrideLanguage
+            )
+            // Prefetching is not time critical, so only the clients needed are requested.
+            val used = if (!isPrefetch && SPOOF_STREAMING_DATA_HEDGED_REQUESTS && requests.size > 1) {
+                fetchHedged(requests, videoId, requestHeader)
+            } else {
+                fetchSequential(requests, videoId, requestHeader)
+            }
+
+            if (used != null) {
+                val (request, result) = used
+                val streamingData = result.streamingData
+                if (result.isUpcoming || streamingData == null) {
+                    return null
+                }
+                if (!isPrefetch) {
+                    lastSpoofedClient = request.clientType
+                    overrideLanguage = ""
+                }
+                val expiresAt = if (result.expiresInSeconds > 0)
+                    System.currentTimeMillis() + result.expiresInSeconds * 1000 - PREFETCH_EXPIRY_MARGIN_MILLISECONDS
+                else
+                    Long.MAX_VALUE
+                return FetchResult(request.clientType, streamingData, expiresAt)
+            }
+
+            if (isPrefetch) {
+                Logger.printDebug { "Could not prefetch any client streams (videoId: $videoId)" }
+                return null
+            }
+
             overrideLanguage = ""
 
             handleConnectionError(
@@ -600,5 +996,160 @@ class StreamingDataRequest private constructor(
             }
             return null
         }
+
+        /**
+         * @return The video that plays after the video, or null if there is no next video.
+         */
+        private fun fetchNextVideoId(
+            videoId: String,
+            playlistId: String,
+            requestHeader: Map<String, String>,
+        ): String? {
+            val startTime = System.currentTimeMillis()
+            val clientType = ClientType.ANDROID_VR
+            Logger.printDebug { "Fetching next video request for: $videoId, using client: $clientType" }
+
+            var connection: HttpURLConnection? = null
+            try {
+                connection = getInnerTubeResponseConnectionFromRoute(
+                    GET_NEXT_VIDEO_ID,
+                    clientType,
+                    requestHeader
+                )
+                val requestBody =
+                    createApplicationRequestBody(
+                        clientType = clientType,
+                        videoId = videoId,
+                        playlistId = playlistId.ifEmpty { null },
+                    )
+
+                connection.setFixedLengthStreamingMode(requestBody.size)
+                connection.outputStream.write(requestBody)
+
+                val responseCode = connection.responseCode
+                if (responseCode == 200) {
+                    return parseNextVideoId(videoId, Requester.parseJSONObject(connection))
+                }
+
+                handleConnectionError(
+                    ("$clientType not available with response code: "
+                            + responseCode + " message: " + connection.responseMessage),
+                    null
+                )
+            } catch (ex: SocketTimeoutException) {
+                handleConnectionError("Connection timeout", ex)
+            } catch (ex: IOException) {
+                handleConnectionError("Network error", ex)
+            } catch (ex: Exception) {
+                Logger.printException({ "fetchNextVideoId failed" }, ex)
+            } finally {
+                connection?.disconnect()
+                Logger.printDebug { "Fetching next video request end (videoId: $videoId, took: ${(System.currentTimeMillis() - startTime)} ms)" }
+            }
+
+            return null
+        }
+
+        private fun parseNextVideoId(videoId: String, nextJson: JSONObject): String? {
+            try {
+                val singleColumnWatchNextResultsJsonObject: JSONObject =
+                    nextJson
+                        .getJSONObject("contents")
+                        .getJSONObject("singleColumnWatchNextResults")
+
+                val playlistJsonObject: JSONObject? =
+                    singleColumnWatchNextResultsJsonObject
+                        .optJSONObject("playlist")
+                        ?.optJSONObject("playlist")
+                if (playlistJsonObject != null) {
+                    // The playlist contents are only the videos around the current video,
+                    // so the current video is found by the video id instead of the index.
+                    val contentsJsonArray = playlistJsonObject.optJSONArray("contents")
+                        ?: return null
+                    for (i in 0..<contentsJsonArray.length() - 1) {
+                        if (getPlaylistVideoId(contentsJsonArray.optJSONObject(i)) == videoId) {
+                            return getPlaylistVideoId(contentsJsonArray.optJSONObject(i + 1))
+                        }
+                    }
+                    return null
+                }
+
+                return singleColumnWatchNextResultsJsonObject
+                    .optJSONObject("autoplay")
+                    ?.optJSONObject("autoplay")
+                    ?.optJSONArray("sets")
+                    ?.optJSONObject(0)
+                    ?.optJSONObject("autoplayVideo")
+                    ?.optJSONObject("watchEndpoint")
+                    ?.optString("videoId")
+                    ?.ifEmpty { null }
+            } catch (e: JSONException) {
+                Logger.printException(
+                    { "Fetch failed while processing next video response data for response: $nextJson" },
+                    e
+                )
+            }
+
+            return null
+        }
+
+        private fun getPlaylistVideoId(playlistItemJsonObject: JSONObject?): String? {
+            return playlistItemJsonObject
+                ?.optJSONObject("playlistPanelVideoRenderer")
+                ?.optString("videoId")
+                ?.ifEmpty { null }
+        }
     }
+
+    /**
+     * A request of a single client.
+     */
+    private class ClientRequest(
+        val clientType: ClientType,
+        /**
+         * Language used to create the request body.
+         */
+        val language: String,
+    ) {
+        @Volatile
+        var connection: HttpURLConnection? = null
+
+        @Volatile
+        var cancelled = false
+
+        /**
+         * Cancels the request, if a different client is used.
+         */
+        fun cancel() {
+            cancelled = true
+            connection?.disconnect()
+        }
+    }
+
+    /**
+     * Result of a single client.
+     */
+    private class ClientResult(
+        val streamingData: StreamingData? = null,
+        /**
+         * How long the streaming urls can be used.
+         */
+        val expiresInSeconds: Long = 0,
+        /**
+         * If the video is upcoming, and no other client should be used.
+         */
+        val isUpcoming: Boolean = false,
+    )
+
+    /**
+     * Streams of a video, and the client used.
+     */
+    private class FetchResult(
+        val clientType: ClientType,
+        val streamingData: StreamingData,
+        /**
+         * Time the prefetched streams can no longer be used.
+         */
+        val expiresAt: Long,
+    )
 }
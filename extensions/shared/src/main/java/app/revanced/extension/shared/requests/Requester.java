@@ -24,7 +24,7 @@ public class Requester {
 
     public static HttpURLConnection getConnectionFromCompiledRoute(String apiUrl, Route.CompiledRoute route) throws IOException {
         String url = apiUrl + route.getCompiledRoute();
-        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        HttpURLConnection connection = getConnection(url);
         // Request data is in the URL parameters and no body is sent.
         // The calling code must set a length if using a request body.
         connection.setFixedLengthStreamingMode(0);
@@ -36,6 +36,14 @@ public class Requester {
         return connection;
     }
 
+    /**
+     * @return A connection that sends the request using the {@link SharedHttpClient},
+     *         and reuses the open connections of all other extension requests.
+     */
+    public static HttpURLConnection getConnection(String url) throws IOException {
+        return new SharedHttpURLConnection(new URL(url));
+    }
+
     /**
      * Parse the {@link HttpURLConnection}, and closes the underlying InputStream.
      */
@@ -0,0 +1,95 @@
+package app.revanced.extension.shared.requests;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+
+/**
+ * HTTP client shared by all extension network requests.
+ * <p>
+ * All clients returned by this class, and all clients created with {@link OkHttpClient#newBuilder()}
+ * from these clients, use the same connection pool and dispatcher.
+ * Repeated requests to the same host reuse an idle connection and skip the TCP and TLS handshakes,
+ * and HTTP/2 hosts multiplex concurrent requests over a single connection.
+ * <p>
+ * Responses are decompressed if the request does not set an 'Accept-Encoding' header.
+ */
+public final class SharedHttpClient {
+
+    /**
+     * Number of idle connections to keep. Requests use only a few hosts at a time
+     * (YouTube, Return YouTube Dislike, SponsorBlock, DeArrow, Gemini).
+     */
+    private static final int MAX_IDLE_CONNECTIONS = 8;
+
+    /**
+     * How long to keep an idle connection.
+     */
+    private static final long KEEP_ALIVE_DURATION_MINUTES = 5;
+
+    /**
+     * Maximum concurrent asynchronous requests to a single host.
+     */
+    private static final int MAX_REQUESTS_PER_HOST = 10;
+
+    private static final OkHttpClient client;
+
+    /**
+     * Clients with different timeouts, keyed by the connect and read timeout.
+     */
+    private static final Map<Long, OkHttpClient> clientsByTimeout = new ConcurrentHashMap<>();
+
+    static {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequestsPerHost(MAX_REQUESTS_PER_HOST);
+
+        client = new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_DURATION_MINUTES, TimeUnit.MINUTES))
+                .dispatcher(dispatcher)
+                .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .retryOnConnectionFailure(true)
+                .build();
+    }
+
+    private SharedHttpClient() {
+    }
+
+    /**
+     * @return The shared client, with the default OkHttp timeouts.
+     */
+    @NonNull
+    public static OkHttpClient getClient() {
+        return client;
+    }
+
+    /**
+     * @param connectTimeoutMillis Connect timeout, or zero for no timeout.
+     * @param readTimeoutMillis    Read timeout, or zero for no timeout.
+     * @return A client that uses the shared connection pool and the timeouts.
+     */
+    @NonNull
+    public static OkHttpClient getClient(int connectTimeoutMillis, int readTimeoutMillis) {
+        final long key = ((long) connectTimeoutMillis << 32) | (readTimeoutMillis & 0xFFFFFFFFL);
+        return clientsByTimeout.computeIfAbsent(key, k -> client.newBuilder()
+                .connectTimeout(connectTimeoutMillis, TimeUnit.MILLISECONDS)
+                .readTimeout(readTimeoutMillis, TimeUnit.MILLISECONDS)
+                .writeTimeout(readTimeoutMillis, TimeUnit.MILLISECONDS)
+                .build());
+    }
+
+    /**
+     * @return The connection pool of the shared client, for clients that are not created from the shared client.
+     */
+    @NonNull
+    public static ConnectionPool getConnectionPool() {
+        return client.connectionPool();
+    }
+}
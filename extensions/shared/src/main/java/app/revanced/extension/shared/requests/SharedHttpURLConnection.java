@@ -0,0 +1,278 @@
+package app.revanced.extension.shared.requests;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import okhttp3.Call;
+import okhttp3.Headers;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
+/**
+ * {@link HttpURLConnection} that sends the request using the {@link SharedHttpClient},
+ * so the existing request code reuses the connections of the shared client.
+ * <p>
+ * The request properties and request body are kept until the response is first used,
+ * and then the request is sent with a single call.
+ * Only the parts of {@link HttpURLConnection} used by the extension requests are supported.
+ * <p>
+ * {@link #disconnect()} can be called from any thread, and cancels a request that is in progress.
+ * After the response is read, the connection is returned to the connection pool instead of closed.
+ */
+final class SharedHttpURLConnection extends HttpURLConnection {
+
+    private final Headers.Builder requestHeaders = new Headers.Builder();
+
+    @Nullable
+    private ByteArrayOutputStream requestBody;
+
+    @Nullable
+    private volatile Call call;
+
+    private volatile boolean disconnected;
+
+    /**
+     * Volatile, as {@link #disconnect()} closes the response from any thread.
+     */
+    @Nullable
+    private volatile Response response;
+
+    @Nullable
+    private IOException failure;
+
+    SharedHttpURLConnection(@NonNull URL url) {
+        super(url);
+    }
+
+    private void checkNotConnected() {
+        if (connected) {
+            throw new IllegalStateException("Already connected");
+        }
+    }
+
+    @Override
+    public void setRequestProperty(String key, String value) {
+        checkNotConnected();
+        requestHeaders.set(key, value);
+    }
+
+    @Override
+    public void addRequestProperty(String key, String value) {
+        checkNotConnected();
+        requestHeaders.add(key, value);
+    }
+
+    @Override
+    public String getRequestProperty(String key) {
+        return requestHeaders.get(key);
+    }
+
+    @Override
+    public Map<String, List<String>> getRequestProperties() {
+        return requestHeaders.build().toMultimap();
+    }
+
+    @Override
+    public OutputStream getOutputStream() throws IOException {
+        checkNotConnected();
+        if (requestBody == null) {
+            if (method.equals("GET")) {
+                method = "POST"; // Same as the default HttpURLConnection.
+            }
+            requestBody = new ByteArrayOutputStream(fixedContentLength > 0 ? fixedContentLength : 512);
+        }
+        return requestBody;
+    }
+
+    /**
+     * Sends the request, if not already sent.
+     */
+    @NonNull
+    private synchronized Response execute() throws IOException {
+        if (response != null) {
+            return response;
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        connected = true;
+
+        RequestBody body = null;
+        if (requestBody != null || method.equals("POST") || method.equals("PUT") || method.equals("PATCH")) {
+            // Content type is set by the request properties.
+            body = RequestBody.create(requestBody == null
+                    ? new byte[0]
+                    : requestBody.toByteArray(), null);
+        }
+        Request request = new Request.Builder()
+                .url(url)
+                .headers(requestHeaders.build())
+                .method(method, body)
+                .build();
+
+        OkHttpClient client = SharedHttpClient.getClient(getConnectTimeout(), getReadTimeout());
+        if (!getInstanceFollowRedirects()) {
+            client = client.newBuilder().followRedirects(false).build();
+        }
+
+        try {
+            Call newCall = client.newCall(request);
+            call = newCall;
+            if (disconnected) {
+                newCall.cancel();
+            }
+            Response newResponse = newCall.execute();
+            response = newResponse;
+            if (disconnected) {
+                // Disconnected before the response was set.
+                newResponse.close();
+            }
+            responseCode = newResponse.code();
+            responseMessage = newResponse.message();
+            return newResponse;
+        } catch (IOException ex) {
+            failure = ex;
+            throw ex;
+        }
+    }
+
+    @Override
+    public void connect() throws IOException {
+        execute();
+    }
+
+    @Override
+    public void disconnect() {
+        disconnected = true;
+        Call currentCall = call;
+        if (currentCall != null) {
+            currentCall.cancel();
+        }
+        Response currentResponse = response;
+        if (currentResponse != null) {
+            currentResponse.close();
+        }
+    }
+
+    @Override
+    public boolean usingProxy() {
+        return false;
+    }
+
+    @Override
+    public int getResponseCode() throws IOException {
+        return execute().code();
+    }
+
+    @Override
+    public String getResponseMessage() throws IOException {
+        return execute().message();
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        Response currentResponse = execute();
+        final int code = currentResponse.code();
+        if (code >= HTTP_BAD_REQUEST) {
+            if (code == HTTP_NOT_FOUND || code == HTTP_GONE) {
+                throw new FileNotFoundException(url.toString());
+            }
+            throw new IOException("Server returned HTTP response code: " + code + " for URL: " + url);
+        }
+        return currentResponse.body().byteStream();
+    }
+
+    @Override
+    public InputStream getErrorStream() {
+        Response currentResponse;
+        synchronized (this) {
+            currentResponse = response;
+        }
+        if (currentResponse == null || currentResponse.code() < HTTP_BAD_REQUEST) {
+            return null;
+        }
+        return currentResponse.body().byteStream();
+    }
+
+    @Nullable
+    private Response getResponseOrNull() {
+        try {
+            return execute();
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+
+    @Override
+    public String getHeaderField(String name) {
+        Response currentResponse = getResponseOrNull();
+        return currentResponse == null
+                ? null
+                : currentResponse.header(name);
+    }
+
+    /**
+     * @param n Zero for the status line, or the index of a response header plus one,
+     *          the same as {@link HttpURLConnection}.
+     */
+    @Override
+    public String getHeaderField(int n) {
+        Response currentResponse = getResponseOrNull();
+        if (currentResponse == null) {
+            return null;
+        }
+        if (n == 0) {
+            return getStatusLine(currentResponse);
+        }
+        return (n < 0 || n > currentResponse.headers().size())
+                ? null
+                : currentResponse.headers().value(n - 1);
+    }
+
+    /**
+     * @param n Index of a response header plus one. The status line at zero has no key.
+     */
+    @Override
+    public String getHeaderFieldKey(int n) {
+        Response currentResponse = getResponseOrNull();
+        return (currentResponse == null || n <= 0 || n > currentResponse.headers().size())
+                ? null
+                : currentResponse.headers().name(n - 1);
+    }
+
+    /**
+     * @return The status line, such as 'HTTP/1.1 200 OK'. HTTP/2 responses use 'HTTP/1.1',
+     * the same as the platform connection.
+     */
+    private static String getStatusLine(Response response) {
+        StringBuilder builder = new StringBuilder(response.protocol() == Protocol.HTTP_1_0 ? "HTTP/1.0" : "HTTP/1.1")
+                .append(' ').append(response.code());
+        final String message = response.message();
+        if (!message.isEmpty()) {
+            builder.append(' ').append(message);
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public Map<String, List<String>> getHeaderFields() {
+        Response currentResponse = getResponseOrNull();
+        return currentResponse == null
+                ? Collections.emptyMap()
+                : currentResponse.headers().toMultimap();
+    }
+}
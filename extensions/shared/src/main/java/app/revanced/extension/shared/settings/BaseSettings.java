@@ -26,6 +26,15 @@ public class BaseSettings {
     public static final BooleanSetting DEBUG_PROTOBUFFER = new BooleanSetting("revanced_debug_protobuffer", FALSE, parent(DEBUG));
     public static final BooleanSetting DEBUG_SPANNABLE = new BooleanSetting("revanced_debug_spannable", FALSE, parent(DEBUG));
     public static final BooleanSetting DEBUG_TOAST_ON_ERROR = new BooleanSetting("revanced_debug_toast_on_error", FALSE);
+    public static final BooleanSetting LITHO_FILTER_AHO_CORASICK = new BooleanSetting("revanced_litho_filter_aho_corasick", FALSE, true);
+    public static final BooleanSetting LITHO_FILTER_PREFIX_TABLE = new BooleanSetting("revanced_litho_filter_prefix_table", FALSE, true);
+    public static final BooleanSetting LITHO_FILTER_VERDICT_CACHE = new BooleanSetting("revanced_litho_filter_verdict_cache", FALSE, true);
+    public static final BooleanSetting LITHO_FILTER_BUFFER_INDEX = new BooleanSetting("revanced_litho_filter_buffer_index", FALSE, true);
+    public static final BooleanSetting LITHO_FILTER_STATISTICS = new BooleanSetting("revanced_litho_filter_statistics", FALSE, true);
+    public static final BooleanSetting LITHO_FILTER_CAPTURE = new BooleanSetting("revanced_litho_filter_capture", FALSE, true);
+    public static final IntegerSetting LITHO_LAYOUT_THREAD_POOL_SIZE = new IntegerSetting("revanced_litho_layout_thread_pool_size", 1, true);
+    public static final IntegerSetting LITHO_BUFFER_MAX_AGE = new IntegerSetting("revanced_litho_buffer_max_age", 0, true);
+    public static final BooleanSetting LITHO_BUFFER_SOFT_REFERENCES = new BooleanSetting("revanced_litho_buffer_soft_references", FALSE, true);
     public static final BooleanSetting SETTINGS_INITIALIZED = new BooleanSetting("revanced_settings_initialized", FALSE, false, false);
     public static final BooleanSetting GMS_SHOW_DIALOG = new BooleanSetting("revanced_gms_show_dialog", TRUE);
 
@@ -41,6 +50,11 @@ public class BaseSettings {
     public static final BooleanSetting SPOOF_STREAMING_DATA_RELOAD_VIDEO_BUTTON = new BooleanSetting("revanced_spoof_streaming_data_reload_video_button", TRUE, true, parent(SPOOF_STREAMING_DATA));
     public static final BooleanSetting SPOOF_STREAMING_DATA_RELOAD_VIDEO_BUTTON_ALWAYS_SHOW = new BooleanSetting("revanced_spoof_streaming_data_reload_video_button_always_show", TRUE, true, new ShowReloadVideoButtonAvailability());
     public static final BooleanSetting SPOOF_STREAMING_DATA_STATS_FOR_NERDS = new BooleanSetting("revanced_spoof_streaming_data_stats_for_nerds", TRUE, parent(SPOOF_STREAMING_DATA));
+    public static final BooleanSetting SPOOF_STREAMING_DATA_HEDGED_REQUESTS = new BooleanSetting("revanced_spoof_streaming_data_hedged_requests", FALSE, true, parent(SPOOF_STREAMING_DATA));
+    public static final IntegerSetting SPOOF_STREAMING_DATA_HEDGED_REQUESTS_DELAY = new IntegerSetting("revanced_spoof_streaming_data_hedged_requests_delay", 500, true, parent(SPOOF_STREAMING_DATA_HEDGED_REQUESTS));
+    public static final IntegerSetting SPOOF_STREAMING_DATA_HEDGED_REQUESTS_IMMEDIATE = new IntegerSetting("revanced_spoof_streaming_data_hedged_requests_immediate", 1, true, parent(SPOOF_STREAMING_DATA_HEDGED_REQUESTS));
+    public static final BooleanSetting SPOOF_STREAMING_DATA_PREFETCH = new BooleanSetting("revanced_spoof_streaming_data_prefetch", FALSE, true, parent(SPOOF_STREAMING_DATA));
+    public static final BooleanSetting SPOOF_STREAMING_DATA_PREFETCH_METERED = new BooleanSetting("revanced_spoof_streaming_data_prefetch_metered", FALSE, true, parent(SPOOF_STREAMING_DATA_PREFETCH));
 
     public static final BooleanSetting SPOOF_STREAMING_DATA_VR_DISABLE_AV1 = new BooleanSetting("revanced_spoof_streaming_data_vr_disable_av1", !SpoofStreamingDataYouTube(), true, new ClientAndroidVRAvailability());
 
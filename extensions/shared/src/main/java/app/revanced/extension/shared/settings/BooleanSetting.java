@@ -59,6 +59,8 @@ public class BooleanSetting extends Setting<Boolean> {
         if (setting.isSetToDefault()) {
             setting.removeFromPreferences();
         }
+
+        setting.notifyValueChanged();
     }
 
     @Override
@@ -80,6 +82,7 @@ public class BooleanSetting extends Setting<Boolean> {
     public void saveValueFromString(@NonNull String newValue) {
         setValueFromString(newValue);
         preferences.saveString(key, newValue);
+        notifyValueChanged();
     }
 
     @Override
@@ -105,6 +105,7 @@ public class EnumSetting<T extends Enum<?>> extends Setting<T> {
     public void saveValueFromString(@NonNull String newValue) {
         setValueFromString(newValue);
         preferences.saveString(key, newValue);
+        notifyValueChanged();
     }
 
     @Override
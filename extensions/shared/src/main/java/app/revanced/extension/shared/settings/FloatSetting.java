@@ -66,6 +66,7 @@ public class FloatSetting extends Setting<Float> {
     public void saveValueFromString(@NonNull String newValue) {
         setValueFromString(newValue);
         preferences.saveString(key, newValue);
+        notifyValueChanged();
     }
 
     @Override
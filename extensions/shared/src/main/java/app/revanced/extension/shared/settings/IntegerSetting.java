@@ -66,6 +66,7 @@ public class IntegerSetting extends Setting<Integer> {
     public void saveValueFromString(@NonNull String newValue) {
         setValueFromString(newValue);
         preferences.saveString(key, newValue);
+        notifyValueChanged();
     }
 
     @Override
@@ -66,6 +66,7 @@ public class LongSetting extends Setting<Long> {
     public void saveValueFromString(@NonNull String newValue) {
         setValueFromString(newValue);
         preferences.saveString(key, newValue);
+        notifyValueChanged();
     }
 
     @Override
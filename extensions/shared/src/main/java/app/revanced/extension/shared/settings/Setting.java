@@ -18,6 +18,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import app.revanced.extension.shared.settings.preference.SharedPrefCategory;
 import app.revanced.extension.shared.utils.Logger;
@@ -84,6 +85,43 @@ public abstract class Setting<T> {
 
     private static final List<ImportExportCallback> importExportCallbacks = new ArrayList<>();
 
+    /**
+     * Callback for changes to the value of any setting.
+     */
+    public interface ValueChangedCallback {
+        /**
+         * Called after the value of a setting is changed, including changes done by importing.
+         * Can be called from any thread.
+         */
+        void settingChanged(Setting<?> setting);
+    }
+
+    /**
+     * Copy on write, since callbacks are rarely added but
+     * can be called from any thread that changes a setting.
+     */
+    private static final List<ValueChangedCallback> valueChangedCallbacks = new CopyOnWriteArrayList<>();
+
+    /**
+     * Adds a callback that is called after any setting value is changed.
+     */
+    public static void addValueChangedCallback(ValueChangedCallback callback) {
+        valueChangedCallbacks.add(Objects.requireNonNull(callback));
+    }
+
+    /**
+     * Calls all {@link ValueChangedCallback}. Must be called after {@link #value} is changed.
+     */
+    protected final void notifyValueChanged() {
+        for (ValueChangedCallback callback : valueChangedCallbacks) {
+            try {
+                callback.settingChanged(this);
+            } catch (Exception ex) {
+                Logger.printException(() -> "settingChanged failure: " + key, ex);
+            }
+        }
+    }
+
     /**
      * Adds a callback for {@link #importFromJSON(Context, String)} and {@link #exportToJson(Context)}.
      */
@@ -304,6 +342,7 @@ public abstract class Setting<T> {
      */
     public static void privateSetValueFromString(Setting<?> setting, String newValue) {
         setting.setValueFromString(newValue);
+        setting.notifyValueChanged();
 
         // Clear the preference value since default is used, to allow changing
         // the changing the default for a future release.  Without this after upgrading
@@ -339,6 +378,8 @@ public abstract class Setting<T> {
         } else {
             saveToPreferences();
         }
+
+        notifyValueChanged();
     }
 
     /**
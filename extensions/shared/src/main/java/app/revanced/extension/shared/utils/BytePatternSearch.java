@@ -0,0 +1,388 @@
+package app.revanced.extension.shared.utils;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * Searches binary data for multiple byte patterns in a single pass,
+ * using Wu-Manber skip ahead shifts.
+ * <p>
+ * A window the length of the shortest pattern is moved over the data, and the last bytes of the window
+ * determine how far the window can safely skip ahead. Only if the shift is zero are the patterns
+ * ending with those bytes compared against the data. For long patterns most windows are skipped
+ * entirely, and the data is scanned once regardless of the number of patterns.
+ * <p>
+ * Very short patterns would limit the shift of every window to almost nothing,
+ * so patterns of {@link #SHORT_PATTERN_LENGTH} or fewer bytes are instead searched for separately.
+ * <p>
+ * Instances are immutable and are safe to use from multiple threads.
+ */
+public final class BytePatternSearch {
+
+    /**
+     * Returned by the search methods if no pattern matches.
+     */
+    public static final long NO_MATCH = -1;
+
+    /**
+     * Patterns of this length or shorter are not included in the shift table.
+     */
+    private static final int SHORT_PATTERN_LENGTH = 2;
+
+    /**
+     * Minimum window length to use blocks of 2 bytes.
+     * Shorter windows use blocks of 1 byte, as with 2 byte blocks the maximum shift is too small.
+     */
+    private static final int MIN_WINDOW_LENGTH_FOR_BYTE_PAIRS = 6;
+
+    /**
+     * Number of bits of a 2 byte block hash.
+     */
+    private static final int BYTE_PAIR_HASH_BITS = 12;
+
+    private final byte[][] patterns;
+
+    /**
+     * Length of the shortest long pattern, or zero if all patterns are short.
+     */
+    private final int windowLength;
+
+    /**
+     * Number of bytes at the end of the window used to look up the shift.  Either 1 or 2.
+     */
+    private final int blockLength;
+
+    /**
+     * Distance the window can move for each block hash.
+     * Values are capped at {@link Byte#MAX_VALUE}, which is always a safe shift.
+     */
+    private final byte[] shifts;
+
+    /**
+     * Start index of each block hash in {@link #bucketPatterns}.
+     * Has one extra entry, so the patterns of a hash end at the start of the next hash.
+     */
+    private final int[] bucketStart;
+
+    /**
+     * Index of each long pattern, grouped by the hash of the last block of the pattern window.
+     * Patterns of each hash are in ascending order.
+     */
+    private final int[] bucketPatterns;
+
+    /**
+     * Index of each short pattern, in ascending order.
+     */
+    private final int[] shortPatterns;
+
+    /**
+     * Lowest index of all long patterns, or {@link Integer#MAX_VALUE} if there are none.
+     */
+    private final int lowestLongPattern;
+
+    public BytePatternSearch(@NonNull byte[]... patterns) {
+        this.patterns = patterns;
+
+        int windowLength = Integer.MAX_VALUE;
+        int numberOfShortPatterns = 0;
+        int lowestLongPattern = Integer.MAX_VALUE;
+        for (int i = 0, length = patterns.length; i < length; i++) {
+            final int patternLength = patterns[i].length;
+            if (patternLength <= SHORT_PATTERN_LENGTH) {
+                numberOfShortPatterns++;
+            } else {
+                windowLength = Math.min(windowLength, patternLength);
+                lowestLongPattern = Math.min(lowestLongPattern, i);
+            }
+        }
+        this.lowestLongPattern = lowestLongPattern;
+
+        shortPatterns = new int[numberOfShortPatterns];
+        for (int i = 0, j = 0, length = patterns.length; i < length; i++) {
+            if (patterns[i].length <= SHORT_PATTERN_LENGTH) {
+                shortPatterns[j++] = i;
+            }
+        }
+
+        if (windowLength == Integer.MAX_VALUE) {
+            this.windowLength = 0;
+            blockLength = 1;
+            shifts = new byte[0];
+            bucketStart = new int[1];
+            bucketPatterns = new int[0];
+            return;
+        }
+
+        this.windowLength = windowLength;
+        blockLength = (windowLength >= MIN_WINDOW_LENGTH_FOR_BYTE_PAIRS) ? 2 : 1;
+        final int tableSize = (blockLength == 2) ? (1 << BYTE_PAIR_HASH_BITS) : 256;
+
+        shifts = new byte[tableSize];
+        Arrays.fill(shifts, (byte) Math.min(windowLength - blockLength + 1, Byte.MAX_VALUE));
+        final int[] bucketSizes = new int[tableSize];
+
+        for (byte[] pattern : patterns) {
+            if (pattern.length <= SHORT_PATTERN_LENGTH) {
+                continue;
+            }
+            for (int i = blockLength - 1; i < windowLength; i++) {
+                final int hash = hash(pattern, i);
+                final int shift = windowLength - 1 - i;
+                if (shift < shifts[hash]) {
+                    shifts[hash] = (byte) shift;
+                }
+            }
+            bucketSizes[hash(pattern, windowLength - 1)]++;
+        }
+
+        bucketStart = new int[tableSize + 1];
+        for (int hash = 0; hash < tableSize; hash++) {
+            bucketStart[hash + 1] = bucketStart[hash] + bucketSizes[hash];
+        }
+        bucketPatterns = new int[bucketStart[tableSize]];
+        final int[] bucketEnd = Arrays.copyOf(bucketStart, tableSize);
+        for (int i = 0, length = patterns.length; i < length; i++) {
+            if (patterns[i].length > SHORT_PATTERN_LENGTH) {
+                bucketPatterns[bucketEnd[hash(patterns[i], windowLength - 1)]++] = i;
+            }
+        }
+    }
+
+    /**
+     * @return Hash of the block that ends at the index.
+     */
+    private int hash(byte[] data, int endIndex) {
+        if (blockLength == 1) {
+            return data[endIndex] & 0xFF;
+        }
+        return (((data[endIndex - 1] & 0xFF) << 4) ^ (data[endIndex] & 0xFF))
+                & ((1 << BYTE_PAIR_HASH_BITS) - 1);
+    }
+
+    private static boolean regionMatches(byte[] data, int startIndex, int endIndex, byte[] pattern) {
+        final int patternLength = pattern.length;
+        if (startIndex + patternLength > endIndex) {
+            return false;
+        }
+        for (int i = 0; i < patternLength; i++) {
+            if (data[startIndex + i] != pattern[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param matchLimit Exclusive limit of the match start index.
+     * @return First index of the pattern, or -1 if not found.
+     */
+    private static int indexOf(byte[] data, int startIndex, int endIndex, byte[] pattern, int matchLimit) {
+        if (pattern.length == 0) {
+            return startIndex;
+        }
+        final byte first = pattern[0];
+        matchLimit = Math.min(matchLimit, endIndex - pattern.length + 1);
+        for (int i = startIndex; i < matchLimit; i++) {
+            if (data[i] == first && regionMatches(data, i, endIndex, pattern)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the match with the lowest start index. If multiple patterns match at the same start index,
+     * the shortest pattern is used, and then the pattern with the lowest index.
+     * This is the same match a prefix tree search gives.
+     *
+     * @return The match, or {@link #NO_MATCH}.
+     * @see #getPatternIndex(long)
+     * @see #getMatchedIndex(long)
+     */
+    public long findFirst(@NonNull byte[] data) {
+        return findFirst(data, 0, data.length);
+    }
+
+    /**
+     * @param startIndex Index to start searching, inclusive value.
+     * @param endIndex   Index to stop matching, exclusive value.
+     * @see #findFirst(byte[])
+     */
+    public long findFirst(@NonNull byte[] data, int startIndex, int endIndex) {
+        int matchedIndex = Integer.MAX_VALUE;
+        int matchedPattern = -1;
+
+        // Short patterns first, so the shift search can stop at the first short pattern match.
+        for (int patternIndex : shortPatterns) {
+            // Also find matches at the current matched index, as a shorter pattern is a better match.
+            final int matchLimit = (matchedIndex == Integer.MAX_VALUE) ? matchedIndex : matchedIndex + 1;
+            final int index = indexOf(data, startIndex, endIndex, patterns[patternIndex], matchLimit);
+            if (index >= 0 && isBetterMatch(index, patternIndex, matchedIndex, matchedPattern)) {
+                matchedIndex = index;
+                matchedPattern = patternIndex;
+            }
+        }
+
+        if (windowLength > 0) {
+            final int windowLength = this.windowLength;
+            // Windows that start after a short pattern match cannot give a better match.
+            final int lastWindowEnd = (matchedPattern < 0)
+                    ? endIndex - 1
+                    : Math.min(endIndex - 1, matchedIndex + windowLength - 1);
+            int windowEnd = startIndex + windowLength - 1;
+            while (windowEnd <= lastWindowEnd) {
+                final int hash = hash(data, windowEnd);
+                final int shift = shifts[hash];
+                if (shift != 0) {
+                    windowEnd += shift;
+                    continue;
+                }
+
+                // All patterns of the bucket are compared, as a later pattern can be shorter.
+                final int windowStart = windowEnd - windowLength + 1;
+                for (int i = bucketStart[hash], end = bucketStart[hash + 1]; i < end; i++) {
+                    final int patternIndex = bucketPatterns[i];
+                    if (isBetterMatch(windowStart, patternIndex, matchedIndex, matchedPattern)
+                            && regionMatches(data, windowStart, endIndex, patterns[patternIndex])) {
+                        matchedIndex = windowStart;
+                        matchedPattern = patternIndex;
+                    }
+                }
+                if (matchedIndex == windowStart) {
+                    break;
+                }
+                windowEnd++;
+            }
+        }
+
+        return matchedPattern < 0
+                ? NO_MATCH
+                : createMatch(matchedPattern, matchedIndex);
+    }
+
+    /**
+     * @return If a match is before the current match, or at the same index with a shorter pattern,
+     * or at the same index with a pattern of the same length and a lower pattern index.
+     */
+    private boolean isBetterMatch(int index, int patternIndex, int matchedIndex, int matchedPattern) {
+        if (matchedPattern < 0 || index < matchedIndex) {
+            return true;
+        }
+        if (index > matchedIndex) {
+            return false;
+        }
+        final int patternLength = patterns[patternIndex].length;
+        final int matchedLength = patterns[matchedPattern].length;
+        return patternLength < matchedLength
+                || (patternLength == matchedLength && patternIndex < matchedPattern);
+    }
+
+    /**
+     * Finds the first occurrence of the lowest index pattern that matches anywhere in the data.
+     * This gives the same result as searching for each pattern one at a time in the order they were added,
+     * but the data is scanned only once.
+     *
+     * @return The match, or {@link #NO_MATCH}.
+     * @see #getPatternIndex(long)
+     * @see #getMatchedIndex(long)
+     */
+    public long findLowestPattern(@NonNull byte[] data) {
+        return findLowestPattern(data, 0, data.length);
+    }
+
+    /**
+     * @param startIndex Index to start searching, inclusive value.
+     * @param endIndex   Index to stop matching, exclusive value.
+     * @see #findLowestPattern(byte[])
+     */
+    public long findLowestPattern(@NonNull byte[] data, int startIndex, int endIndex) {
+        int matchedIndex = -1;
+        int matchedPattern = Integer.MAX_VALUE;
+
+        if (windowLength > 0) {
+            final int windowLength = this.windowLength;
+            final int lowestLongPattern = this.lowestLongPattern;
+            final int lastWindowEnd = endIndex - 1;
+            int windowEnd = startIndex + windowLength - 1;
+            while (windowEnd <= lastWindowEnd) {
+                final int hash = hash(data, windowEnd);
+                final int shift = shifts[hash];
+                if (shift != 0) {
+                    windowEnd += shift;
+                    continue;
+                }
+
+                // Each window start is greater than the previous,
+                // so the first match of each pattern is always the first occurrence.
+                final int windowStart = windowEnd - windowLength + 1;
+                for (int i = bucketStart[hash], end = bucketStart[hash + 1]; i < end; i++) {
+                    final int patternIndex = bucketPatterns[i];
+                    if (patternIndex >= matchedPattern) {
+                        break; // Patterns are in ascending order.
+                    }
+                    if (regionMatches(data, windowStart, endIndex, patterns[patternIndex])) {
+                        matchedIndex = windowStart;
+                        matchedPattern = patternIndex;
+                        break;
+                    }
+                }
+                if (matchedPattern == lowestLongPattern) {
+                    break; // No other long pattern can be a better match.
+                }
+                windowEnd++;
+            }
+        }
+
+        for (int patternIndex : shortPatterns) {
+            if (patternIndex >= matchedPattern) {
+                break;
+            }
+            final int index = indexOf(data, startIndex, endIndex, patterns[patternIndex], Integer.MAX_VALUE);
+            if (index >= 0) {
+                matchedIndex = index;
+                matchedPattern = patternIndex;
+                break;
+            }
+        }
+
+        return matchedIndex < 0
+                ? NO_MATCH
+                : createMatch(matchedPattern, matchedIndex);
+    }
+
+    private static long createMatch(int patternIndex, int matchedIndex) {
+        return ((long) patternIndex << 32) | matchedIndex;
+    }
+
+    /**
+     * @param match Match returned from a search. Must not be {@link #NO_MATCH}.
+     * @return Index of the pattern that matched, in the order given to the constructor.
+     */
+    public static int getPatternIndex(long match) {
+        return (int) (match >>> 32);
+    }
+
+    /**
+     * @param match Match returned from a search. Must not be {@link #NO_MATCH}.
+     * @return Start index of the match in the searched data.
+     */
+    public static int getMatchedIndex(long match) {
+        return (int) match;
+    }
+
+    public int getPatternLength(int patternIndex) {
+        return patterns[patternIndex].length;
+    }
+
+    public int numberOfPatterns() {
+        return patterns.length;
+    }
+
+    /**
+     * @return Estimated memory size (in bytes) of this instance, not including the patterns.
+     */
+    public int getEstimatedMemorySize() {
+        return shifts.length + (bucketStart.length + bucketPatterns.length + shortPatterns.length) * Integer.BYTES;
+    }
+}
@@ -31,6 +31,84 @@ public final class ByteTrieSearch extends TrieSearch<byte[]> {
         }
     }
 
+    /**
+     * Compares UTF-8 text ignoring case, by using the case folded bytes of both the patterns and the search text.
+     * <p>
+     * Only characters with the same UTF-8 length in both upper and lower case are folded.
+     * This includes all of ASCII, Latin, Greek, Cyrillic and Armenian, and all other characters
+     * are compared exactly. Because no character changes length, a match index and length
+     * of the folded text is also the index and length of the original unfolded text.
+     * <p>
+     * Each byte is folded using only the bytes of the same code point, so the folding is the same
+     * at any search start index and does not depend on previous bytes of the search.
+     */
+    private static final class CaseFoldingByteTrieNode extends TrieNode<byte[]> {
+        /**
+         * Case folded code point of each 2 byte UTF-8 code point (U+0080 to U+07FF), indexed by the code point.
+         * Code points that do not fold to another 2 byte code point map to themselves,
+         * as do the invalid overlong values below U+0080.
+         */
+        private static final char[] TWO_BYTE_FOLDED_CODE_POINTS = new char[0x800];
+
+        static {
+            for (int codePoint = 0; codePoint < 0x800; codePoint++) {
+                // Upper case then lower case, so characters such as the Greek final sigma also fold.
+                final int folded = Character.toLowerCase(Character.toUpperCase(codePoint));
+                final boolean isTwoBytes = codePoint >= 0x80 && folded >= 0x80 && folded < 0x800;
+                TWO_BYTE_FOLDED_CODE_POINTS[codePoint] = (char) (isTwoBytes ? folded : codePoint);
+            }
+        }
+
+        CaseFoldingByteTrieNode() {
+            super();
+        }
+
+        CaseFoldingByteTrieNode(char nodeCharacterValue) {
+            super(nodeCharacterValue);
+        }
+
+        @Override
+        TrieNode<byte[]> createNode(char nodeCharacterValue) {
+            return new CaseFoldingByteTrieNode(nodeCharacterValue);
+        }
+
+        @Override
+        char getCharValue(byte[] text, int index) {
+            final int value = text[index];
+            if (value >= 0) {
+                // ASCII.
+                return (char) ((value >= 'A' && value <= 'Z') ? (value | 0x20) : value);
+            }
+
+            if ((value & 0xE0) == 0xC0) {
+                // First byte of a 2 byte code point.
+                final int nextIndex = index + 1;
+                if (nextIndex < text.length && (text[nextIndex] & 0xC0) == 0x80) {
+                    final int folded = foldTwoByteCodePoint(value, text[nextIndex]);
+                    return (char) (byte) (0xC0 | (folded >> 6));
+                }
+            } else if ((value & 0xC0) == 0x80 && index > 0) {
+                // Continuation byte, and only the second byte of a 2 byte code point is folded.
+                final int previous = text[index - 1];
+                if ((previous & 0xE0) == 0xC0) {
+                    final int folded = foldTwoByteCodePoint(previous, value);
+                    return (char) (byte) (0x80 | (folded & 0x3F));
+                }
+            }
+
+            return (char) value;
+        }
+
+        private static int foldTwoByteCodePoint(int firstByte, int secondByte) {
+            return TWO_BYTE_FOLDED_CODE_POINTS[((firstByte & 0x1F) << 6) | (secondByte & 0x3F)];
+        }
+
+        @Override
+        int getTextLength(byte[] text) {
+            return text.length;
+        }
+    }
+
     /**
      * Helper method for the common usage of converting Strings to raw UTF-8 bytes.
      */
@@ -43,8 +121,24 @@ public final class ByteTrieSearch extends TrieSearch<byte[]> {
         return replacement;
     }
 
+    private final boolean ignoreCase;
+
     public ByteTrieSearch(@NonNull byte[]... patterns) {
-        super(new ByteTrieNode(), patterns);
+        this(false, patterns);
     }
-}
 
+    /**
+     * @param ignoreCase If patterns match UTF-8 text of any case.
+     *                   Upper and lower case are folded for ASCII, Latin, Greek, Cyrillic and Armenian,
+     *                   and all other characters must match exactly.
+     *                   Patterns should be complete UTF-8 strings.
+     */
+    public ByteTrieSearch(boolean ignoreCase, @NonNull byte[]... patterns) {
+        super(ignoreCase ? new CaseFoldingByteTrieNode() : new ByteTrieNode(), patterns);
+        this.ignoreCase = ignoreCase;
+    }
+
+    public boolean isIgnoreCase() {
+        return ignoreCase;
+    }
+}
@@ -0,0 +1,311 @@
+package app.revanced.extension.shared.utils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import app.revanced.extension.shared.utils.TrieSearch.TrieNode;
+import app.revanced.extension.shared.utils.TrieSearch.TriePatternMatchedCallback;
+
+/**
+ * Aho-Corasick automaton built from the patterns of a {@link TrieSearch}.
+ * <p>
+ * The prefix tree restarts from the root node at every index of the search text,
+ * giving a worst case of O(n * m) where n is the search text length and m is the longest pattern length.
+ * This automaton instead follows failure links on a mismatch,
+ * so each character of the search text is visited only once.
+ * <p>
+ * Matches are reported in order of their end index (the prefix tree reports in order of the start index),
+ * but every match is still passed to the pattern callback until a callback halts the search.
+ * <p>
+ * Instances are immutable after construction and are safe to use from multiple threads.
+ */
+final class TrieAutomaton<T> {
+
+    private static final int ROOT_STATE = 0;
+
+    private static final int NO_STATE = -1;
+
+    /**
+     * How much to expand a state transition table when resizing.
+     */
+    private static final int TABLE_SIZE_INCREMENT = 2;
+
+    /**
+     * Used only to read the characters of the search text and patterns.
+     */
+    private final TrieNode<T> characterSource;
+
+    /**
+     * Start index of each state transition table in {@link #transitionCharacters}.
+     */
+    private final int[] transitionTableStart;
+
+    /**
+     * Size of each state transition table, or zero if the state has no transitions.
+     * <p>
+     * Tables use perfect hashing, the same as the prefix tree children arrays.
+     * A character always maps to index: (character % tableSize).
+     */
+    private final int[] transitionTableSize;
+
+    private final char[] transitionCharacters;
+
+    private final int[] transitionStates;
+
+    /**
+     * State to continue from if the next character has no transition.
+     */
+    private final int[] failureStates;
+
+    /**
+     * The closest state reachable thru failure links that is the end of a pattern,
+     * or the root state if none exist.
+     */
+    private final int[] outputLinkStates;
+
+    /**
+     * Pattern length of each state.
+     */
+    private final int[] stateDepth;
+
+    /**
+     * Start index of each state callbacks in {@link #outputCallbacks}.
+     * Has one extra entry, so the callbacks of a state end at the start of the next state.
+     */
+    private final int[] outputStart;
+
+    private final TriePatternMatchedCallback<T>[] outputCallbacks;
+
+    /**
+     * @param characterSource Node used to read characters of the patterns and search text.
+     * @param patterns        Patterns to match.
+     * @param patternLengths  Length of each pattern.
+     * @param callbacks       Callback of each pattern, where null indicates to always accept a pattern match.
+     */
+    TrieAutomaton(@NonNull TrieNode<T> characterSource, @NonNull List<T> patterns,
+                  @NonNull List<Integer> patternLengths,
+                  @NonNull List<TriePatternMatchedCallback<T>> callbacks) {
+        this.characterSource = characterSource;
+
+        // Build the goto graph.
+        List<Map<Character, Integer>> transitions = new ArrayList<>();
+        List<List<TriePatternMatchedCallback<T>>> outputs = new ArrayList<>();
+        List<Integer> depths = new ArrayList<>();
+        transitions.add(new HashMap<>());
+        outputs.add(null);
+        depths.add(0);
+
+        for (int i = 0, size = patterns.size(); i < size; i++) {
+            final T pattern = patterns.get(i);
+            final int patternLength = patternLengths.get(i);
+            int state = ROOT_STATE;
+            for (int j = 0; j < patternLength; j++) {
+                final char character = characterSource.getCharValue(pattern, j);
+                Integer next = transitions.get(state).get(character);
+                if (next == null) {
+                    next = transitions.size();
+                    transitions.add(new HashMap<>());
+                    outputs.add(null);
+                    depths.add(j + 1);
+                    transitions.get(state).put(character, next);
+                }
+                state = next;
+            }
+            List<TriePatternMatchedCallback<T>> stateOutputs = outputs.get(state);
+            if (stateOutputs == null) {
+                stateOutputs = new ArrayList<>(1);
+                outputs.set(state, stateOutputs);
+            }
+            stateOutputs.add(callbacks.get(i));
+        }
+
+        final int numberOfStates = transitions.size();
+        failureStates = new int[numberOfStates];
+        outputLinkStates = new int[numberOfStates];
+        stateDepth = new int[numberOfStates];
+        for (int state = 0; state < numberOfStates; state++) {
+            stateDepth[state] = depths.get(state);
+        }
+
+        // Breadth first traversal to set the failure and output links.
+        // Parent states are always processed before their children.
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int child : transitions.get(ROOT_STATE).values()) {
+            failureStates[child] = ROOT_STATE;
+            outputLinkStates[child] = ROOT_STATE;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            final int state = queue.poll();
+            for (Map.Entry<Character, Integer> entry : transitions.get(state).entrySet()) {
+                final char character = entry.getKey();
+                final int child = entry.getValue();
+
+                int failure = failureStates[state];
+                Integer failureNext;
+                while ((failureNext = transitions.get(failure).get(character)) == null && failure != ROOT_STATE) {
+                    failure = failureStates[failure];
+                }
+                failure = (failureNext == null) ? ROOT_STATE : failureNext;
+                failureStates[child] = failure;
+                outputLinkStates[child] = (outputs.get(failure) != null)
+                        ? failure
+                        : outputLinkStates[failure];
+                queue.add(child);
+            }
+        }
+
+        // Flatten the transitions into perfect hash tables.
+        transitionTableStart = new int[numberOfStates];
+        transitionTableSize = new int[numberOfStates];
+        List<char[]> tableCharacters = new ArrayList<>(numberOfStates);
+        List<int[]> tableStates = new ArrayList<>(numberOfStates);
+        int totalTableSize = 0;
+        for (int state = 0; state < numberOfStates; state++) {
+            Map<Character, Integer> stateTransitions = transitions.get(state);
+            transitionTableStart[state] = totalTableSize;
+            if (stateTransitions.isEmpty()) {
+                tableCharacters.add(null);
+                tableStates.add(null);
+                continue;
+            }
+
+            int tableSize = stateTransitions.size();
+            char[] characters;
+            int[] states;
+            while (true) {
+                characters = new char[tableSize];
+                states = new int[tableSize];
+                Arrays.fill(states, NO_STATE);
+                boolean collision = false;
+                for (Map.Entry<Character, Integer> entry : stateTransitions.entrySet()) {
+                    final char character = entry.getKey();
+                    final int index = character % tableSize;
+                    if (states[index] != NO_STATE) {
+                        collision = true;
+                        break;
+                    }
+                    characters[index] = character;
+                    states[index] = entry.getValue();
+                }
+                if (!collision) {
+                    break;
+                }
+                tableSize += TABLE_SIZE_INCREMENT;
+            }
+
+            transitionTableSize[state] = tableSize;
+            tableCharacters.add(characters);
+            tableStates.add(states);
+            totalTableSize += tableSize;
+        }
+
+        transitionCharacters = new char[totalTableSize];
+        transitionStates = new int[totalTableSize];
+        for (int state = 0; state < numberOfStates; state++) {
+            char[] characters = tableCharacters.get(state);
+            if (characters != null) {
+                final int start = transitionTableStart[state];
+                final int tableSize = transitionTableSize[state];
+                System.arraycopy(characters, 0, transitionCharacters, start, tableSize);
+                System.arraycopy(tableStates.get(state), 0, transitionStates, start, tableSize);
+            }
+        }
+
+        // Flatten the pattern callbacks.
+        outputStart = new int[numberOfStates + 1];
+        int numberOfCallbacks = 0;
+        for (int state = 0; state < numberOfStates; state++) {
+            outputStart[state] = numberOfCallbacks;
+            List<TriePatternMatchedCallback<T>> stateOutputs = outputs.get(state);
+            if (stateOutputs != null) {
+                numberOfCallbacks += stateOutputs.size();
+            }
+        }
+        outputStart[numberOfStates] = numberOfCallbacks;
+
+        //noinspection unchecked
+        outputCallbacks = new TriePatternMatchedCallback[numberOfCallbacks];
+        for (int state = 0; state < numberOfStates; state++) {
+            List<TriePatternMatchedCallback<T>> stateOutputs = outputs.get(state);
+            if (stateOutputs != null) {
+                int index = outputStart[state];
+                for (TriePatternMatchedCallback<T> callback : stateOutputs) {
+                    outputCallbacks[index++] = callback;
+                }
+            }
+        }
+    }
+
+    private int transition(int state, char character) {
+        final int tableSize = transitionTableSize[state];
+        if (tableSize == 0) {
+            return NO_STATE;
+        }
+        final int index = transitionTableStart[state] + (character % tableSize);
+        return transitionCharacters[index] == character
+                ? transitionStates[index]
+                : NO_STATE;
+    }
+
+    /**
+     * @param searchText         Text to search for patterns in.
+     * @param searchTextIndex    Start index, inclusive.
+     * @param searchTextEndIndex End index, exclusive.
+     * @return If any pattern matches, and it's associated callback halted the search.
+     */
+    boolean matches(final T searchText, final int searchTextIndex, final int searchTextEndIndex,
+                    @Nullable final Object callbackParameter) {
+        final TrieNode<T> source = characterSource;
+        int state = ROOT_STATE;
+
+        for (int i = searchTextIndex; i < searchTextEndIndex; i++) {
+            final char character = source.getCharValue(searchText, i);
+            int next;
+            while ((next = transition(state, character)) == NO_STATE && state != ROOT_STATE) {
+                state = failureStates[state];
+            }
+            if (next == NO_STATE) {
+                continue; // At the root state, and no pattern starts with this character.
+            }
+            state = next;
+
+            int outputState = (outputStart[state] != outputStart[state + 1])
+                    ? state
+                    : outputLinkStates[state];
+            while (outputState != ROOT_STATE) {
+                final int matchLength = stateDepth[outputState];
+                final int matchStartIndex = i + 1 - matchLength;
+                for (int j = outputStart[outputState], end = outputStart[outputState + 1]; j < end; j++) {
+                    TriePatternMatchedCallback<T> callback = outputCallbacks[j];
+                    if (callback == null) {
+                        return true; // No callback and all matches are valid.
+                    }
+                    if (callback.patternMatched(searchText, matchStartIndex, matchLength, callbackParameter)) {
+                        return true; // Callback confirmed the match.
+                    }
+                }
+                outputState = outputLinkStates[outputState];
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * @return Estimated memory size (in bytes) of this instance.
+     */
+    int getEstimatedMemorySize() {
+        final int numberOfStates = stateDepth.length;
+        return numberOfStates * 6 * Integer.BYTES
+                + transitionCharacters.length * (Character.BYTES + Integer.BYTES)
+                + outputCallbacks.length * 4;
+    }
+}
@@ -5,8 +5,11 @@ import androidx.annotation.Nullable;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 /**
  * Searches for a group of different patterns using a trie (prefix tree).
@@ -14,6 +17,29 @@ import java.util.Objects;
  */
 public abstract class TrieSearch<T> {
 
+    /**
+     * Engine used to search for patterns.
+     */
+    public enum SearchMode {
+        /**
+         * Walks the prefix tree starting from every index of the search text.
+         */
+        PREFIX_TREE,
+        /**
+         * Aho-Corasick automaton built from the same patterns.
+         * Each character of the search text is visited once, regardless of the pattern lengths.
+         *
+         * @see TrieAutomaton
+         */
+        AHO_CORASICK,
+        /**
+         * The same prefix tree, stored in primitive arrays instead of an object per node.
+         *
+         * @see TrieTable
+         */
+        PREFIX_TABLE
+    }
+
     public interface TriePatternMatchedCallback<T> {
         /**
          * Called when a pattern is matched.
@@ -75,7 +101,7 @@ public abstract class TrieSearch<T> {
         private static final char ROOT_NODE_CHARACTER_VALUE = 0;  // ASCII null character.
 
         /**
-         * How much to expand the children array when resizing.
+         * How much to expand the children array size until perfect hashing is found.
          */
         private static final int CHILDREN_ARRAY_INCREASE_SIZE_INCREMENT = 2;
 
@@ -97,7 +123,7 @@ public abstract class TrieSearch<T> {
         /**
          * All child nodes. Only present if no compressed leaf exist.
          * <p>
-         * Array is dynamically increased in size as needed,
+         * Array is sized when the node is built,
          * and uses perfect hashing for the elements it contains.
          * <p>
          * So if the array contains a given character,
@@ -133,82 +159,97 @@ public abstract class TrieSearch<T> {
         }
 
         /**
-         * @param pattern       Pattern to add.
-         * @param patternIndex  Current recursive index of the pattern.
-         * @param patternLength Length of the pattern.
-         * @param callback      Callback, where a value of NULL indicates to always accept a pattern match.
+         * Builds this node and all child nodes from the patterns that share the first {@code depth} characters.
+         * <p>
+         * All patterns are known before the node is built, so each children array
+         * is created once with a size that gives perfect hashing, and nodes are never rehashed.
+         *
+         * @param patternIndexes Indexes of the patterns that pass thru this node, in the order they were added.
+         * @param depth          Number of pattern characters before this node.
          */
-        private void addPattern(@NonNull T pattern, int patternIndex, int patternLength,
-                                @Nullable TriePatternMatchedCallback<T> callback) {
-            if (patternIndex == patternLength) { // Reached the end of the pattern.
-                if (endOfPatternCallback == null) {
-                    endOfPatternCallback = new ArrayList<>(1);
+        private void build(List<T> patterns, List<Integer> patternLengths,
+                           List<TriePatternMatchedCallback<T>> callbacks,
+                           List<Integer> patternIndexes, int depth) {
+            List<Integer> continuingIndexes = new ArrayList<>(patternIndexes.size());
+            for (int patternIndex : patternIndexes) {
+                if (patternLengths.get(patternIndex) == depth) { // Reached the end of the pattern.
+                    if (endOfPatternCallback == null) {
+                        endOfPatternCallback = new ArrayList<>(1);
+                    }
+                    endOfPatternCallback.add(callbacks.get(patternIndex));
+                } else {
+                    continuingIndexes.add(patternIndex);
                 }
-                endOfPatternCallback.add(callback);
+            }
+
+            if (continuingIndexes.isEmpty()) {
                 return;
             }
-            if (leaf != null) {
-                // Reached end of the graph and a leaf exist.
-                // Recursively call back into this method and push the existing leaf down 1 level.
-                if (children != null) throw new IllegalStateException();
-                //noinspection unchecked
-                children = new TrieNode[1];
-                TrieCompressedPath<T> temp = leaf;
-                leaf = null;
-                addPattern(temp.pattern, temp.patternStartIndex, temp.patternLength, temp.callback);
-                // Continue onward and add the parameter pattern.
-            } else if (children == null) {
-                leaf = new TrieCompressedPath<>(pattern, patternIndex, patternLength, callback);
+            if (continuingIndexes.size() == 1) {
+                // Only one pattern continues past this node, and it shares no sibling nodes.
+                final int patternIndex = continuingIndexes.get(0);
+                leaf = new TrieCompressedPath<>(patterns.get(patternIndex), depth,
+                        patternLengths.get(patternIndex), callbacks.get(patternIndex));
                 return;
             }
-            final char character = getCharValue(pattern, patternIndex);
-            final int arrayIndex = hashIndexForTableSize(children.length, character);
-            TrieNode<T> child = children[arrayIndex];
-            if (child == null) {
-                child = createNode(character);
-                children[arrayIndex] = child;
-            } else if (child.nodeValue != character) {
-                // Hash collision. Resize the table until perfect hashing is found.
-                child = createNode(character);
-                expandChildArray(child);
+
+            // Group the patterns by their next character, in the order the characters are first used.
+            Map<Character, List<Integer>> childPatternIndexes = new LinkedHashMap<>();
+            for (int patternIndex : continuingIndexes) {
+                final char character = getCharValue(patterns.get(patternIndex), depth);
+                List<Integer> indexes = childPatternIndexes.get(character);
+                if (indexes == null) {
+                    indexes = new ArrayList<>();
+                    childPatternIndexes.put(character, indexes);
+                }
+                indexes.add(patternIndex);
+            }
+
+            //noinspection unchecked
+            children = new TrieNode[perfectHashTableSize(childPatternIndexes.keySet())];
+            for (Map.Entry<Character, List<Integer>> entry : childPatternIndexes.entrySet()) {
+                final char character = entry.getKey();
+                TrieNode<T> child = createNode(character);
+                children[hashIndexForTableSize(children.length, character)] = child;
+                child.build(patterns, patternLengths, callbacks, entry.getValue(), depth + 1);
             }
-            child.addPattern(pattern, patternIndex + 1, patternLength, callback);
         }
 
         /**
-         * Resizes the children table until all nodes hash to exactly one array index.
+         * @return The smallest table size where all characters hash to a different array index.
          */
-        private void expandChildArray(TrieNode<T> child) {
-            int replacementArraySize = Objects.requireNonNull(children).length;
+        private static int perfectHashTableSize(Set<Character> characters) {
+            final int numberOfCharacters = characters.size();
+            int tableSize = 1;
+            while (tableSize < numberOfCharacters) {
+                tableSize += CHILDREN_ARRAY_INCREASE_SIZE_INCREMENT;
+            }
+
             while (true) {
-                replacementArraySize += CHILDREN_ARRAY_INCREASE_SIZE_INCREMENT;
-                //noinspection unchecked
-                TrieNode<T>[] replacement = new TrieNode[replacementArraySize];
-                addNodeToArray(replacement, child);
+                boolean[] used = new boolean[tableSize];
                 boolean collision = false;
-                for (TrieNode<T> existingChild : children) {
-                    if (existingChild != null) {
-                        if (!addNodeToArray(replacement, existingChild)) {
-                            collision = true;
-                            break;
-                        }
+                for (char character : characters) {
+                    final int index = hashIndexForTableSize(tableSize, character);
+                    if (used[index]) {
+                        collision = true;
+                        break;
                     }
+                    used[index] = true;
                 }
-                if (collision) {
-                    continue;
+                if (!collision) {
+                    return tableSize;
                 }
-                children = replacement;
-                return;
+                tableSize += CHILDREN_ARRAY_INCREASE_SIZE_INCREMENT;
             }
         }
 
-        private static <T> boolean addNodeToArray(TrieNode<T>[] array, TrieNode<T> childToAdd) {
-            final int insertIndex = hashIndexForTableSize(array.length, childToAdd.nodeValue);
-            if (array[insertIndex] != null) {
-                return false; // Collision.
-            }
-            array[insertIndex] = childToAdd;
-            return true;
+        /**
+         * Removes all child nodes and callbacks, so the node can be built again.
+         */
+        private void clear() {
+            leaf = null;
+            children = null;
+            endOfPatternCallback = null;
         }
 
         private static int hashIndexForTableSize(int arraySize, char nodeValue) {
@@ -303,14 +344,46 @@ public abstract class TrieSearch<T> {
 
     /**
      * Root node, and it's children represent the first pattern characters.
+     * Lazily built on the first search, and built again if a pattern is added.
      */
     private final TrieNode<T> root;
 
+    /**
+     * If {@link #root} is built from all the current patterns.
+     */
+    private volatile boolean prefixTreeBuilt;
+
     /**
      * Patterns to match.
      */
     private final List<T> patterns = new ArrayList<>();
 
+    /**
+     * Length of each pattern in {@link #patterns}.
+     */
+    private final List<Integer> patternLengths = new ArrayList<>();
+
+    /**
+     * Callback of each pattern in {@link #patterns}. Null values indicate to always accept a match.
+     */
+    private final List<TriePatternMatchedCallback<T>> patternCallbacks = new ArrayList<>();
+
+    private volatile SearchMode searchMode = SearchMode.PREFIX_TREE;
+
+    /**
+     * Automaton used if {@link #searchMode} is {@link SearchMode#AHO_CORASICK}.
+     * Lazily built on the first search, and cleared if a pattern is added.
+     */
+    @Nullable
+    private volatile TrieAutomaton<T> automaton;
+
+    /**
+     * Table used if {@link #searchMode} is {@link SearchMode#PREFIX_TABLE}.
+     * Lazily built on the first search, and cleared if a pattern is added.
+     */
+    @Nullable
+    private volatile TrieTable<T> table;
+
     @SafeVarargs
     TrieSearch(@NonNull TrieNode<T> root, @NonNull T... patterns) {
         this.root = Objects.requireNonNull(root);
@@ -345,7 +418,60 @@ public abstract class TrieSearch<T> {
         if (patternLength == 0) return; // Nothing to match
 
         patterns.add(pattern);
-        root.addPattern(pattern, 0, patternLength, callback);
+        patternLengths.add(patternLength);
+        patternCallbacks.add(callback);
+        prefixTreeBuilt = false;
+        automaton = null;
+        table = null;
+    }
+
+    /**
+     * Builds the prefix tree once all patterns are added, instead of adding each pattern to the tree.
+     * Adding each pattern can resize and rehash the same children arrays many times.
+     */
+    private synchronized void buildPrefixTree() {
+        if (prefixTreeBuilt) {
+            return;
+        }
+        final int numberOfPatterns = patterns.size();
+        List<Integer> patternIndexes = new ArrayList<>(numberOfPatterns);
+        for (int i = 0; i < numberOfPatterns; i++) {
+            patternIndexes.add(i);
+        }
+        root.clear();
+        root.build(patterns, patternLengths, patternCallbacks, patternIndexes, 0);
+        prefixTreeBuilt = true; // Must set after the tree is built.
+    }
+
+    public SearchMode getSearchMode() {
+        return searchMode;
+    }
+
+    /**
+     * Changes the engine used for all future searches.
+     * All engines find the same matches, but {@link SearchMode#AHO_CORASICK}
+     * reports matches in order of the match end index and not the start index.
+     */
+    public void setSearchMode(@NonNull SearchMode searchMode) {
+        this.searchMode = Objects.requireNonNull(searchMode);
+    }
+
+    private synchronized TrieAutomaton<T> buildAutomaton() {
+        TrieAutomaton<T> search = automaton;
+        if (search == null) {
+            search = new TrieAutomaton<>(root, patterns, patternLengths, patternCallbacks);
+            automaton = search; // Must set after initialization finishes.
+        }
+        return search;
+    }
+
+    private synchronized TrieTable<T> buildTable() {
+        TrieTable<T> search = table;
+        if (search == null) {
+            search = new TrieTable<>(root, patterns, patternLengths, patternCallbacks);
+            table = search; // Must set after initialization finishes.
+        }
+        return search;
     }
 
     public final boolean matches(@NonNull T textToSearch) {
@@ -387,6 +513,23 @@ public abstract class TrieSearch<T> {
         if (patterns.isEmpty()) {
             return false; // No patterns were added.
         }
+        if (searchMode == SearchMode.AHO_CORASICK) {
+            TrieAutomaton<T> search = automaton;
+            if (search == null) {
+                search = buildAutomaton(); // Lazy load.
+            }
+            return search.matches(textToSearch, startIndex, endIndex, callbackParameter);
+        }
+        if (searchMode == SearchMode.PREFIX_TABLE) {
+            TrieTable<T> search = table;
+            if (search == null) {
+                search = buildTable(); // Lazy load.
+            }
+            return search.matches(textToSearch, startIndex, endIndex, callbackParameter);
+        }
+        if (!prefixTreeBuilt) {
+            buildPrefixTree(); // Lazy load.
+        }
         for (int i = startIndex; i < endIndex; i++) {
             if (TrieNode.matches(root, textToSearch, i, endIndex, callbackParameter)) return true;
         }
@@ -403,6 +546,23 @@ public abstract class TrieSearch<T> {
         // Assume the device has less than 32GB of ram (and can use pointer compression),
         // or the device is 32-bit.
         final int numberOfBytesPerPointer = 4;
+        if (searchMode == SearchMode.AHO_CORASICK) {
+            TrieAutomaton<T> search = automaton;
+            if (search == null) {
+                search = buildAutomaton();
+            }
+            return (int) Math.ceil(search.getEstimatedMemorySize() / 1024.0);
+        }
+        if (searchMode == SearchMode.PREFIX_TABLE) {
+            TrieTable<T> search = table;
+            if (search == null) {
+                search = buildTable();
+            }
+            return (int) Math.ceil(search.getEstimatedMemorySize() / 1024.0);
+        }
+        if (!prefixTreeBuilt) {
+            buildPrefixTree();
+        }
         return (int) Math.ceil((numberOfBytesPerPointer * root.estimatedNumberOfPointersUsed()) / 1024.0);
     }
 
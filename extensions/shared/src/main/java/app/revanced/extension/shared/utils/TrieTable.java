@@ -0,0 +1,336 @@
+package app.revanced.extension.shared.utils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import app.revanced.extension.shared.utils.TrieSearch.TrieNode;
+import app.revanced.extension.shared.utils.TrieSearch.TriePatternMatchedCallback;
+
+/**
+ * Prefix tree built from the patterns of a {@link TrieSearch}, with all nodes stored in a few primitive arrays.
+ * <p>
+ * The tree has the same shape and finds the same matches in the same order as the prefix tree of
+ * {@link TrieSearch.TrieNode}, but has no object per node. Each node is a fixed size record in {@link #nodes},
+ * and child nodes are found using perfect hash tables packed into {@link #childCharacters} and {@link #childNodes}.
+ * The remaining characters of a pattern that shares no sibling nodes are packed into {@link #leafCharacters}.
+ * <p>
+ * Nodes are numbered depth first, so a node and its first children are usually close together in memory.
+ * <p>
+ * Instances are immutable after construction and are safe to use from multiple threads.
+ */
+final class TrieTable<T> {
+
+    private static final int ROOT_NODE = 0;
+
+    private static final int NO_NODE = -1;
+
+    /**
+     * How much to expand a child table size until perfect hashing is found.
+     */
+    private static final int TABLE_SIZE_INCREMENT = 2;
+
+    // Fields of each node record in {@link #nodes}.
+    private static final int CHILD_TABLE_START = 0;
+    /**
+     * Zero if the node has no children. A character always maps to index: (character % tableSize).
+     */
+    private static final int CHILD_TABLE_SIZE = 1;
+    /**
+     * Callbacks of the patterns that end at this node, in {@link #callbacks}.
+     */
+    private static final int CALLBACK_START = 2;
+    private static final int CALLBACK_END = 3;
+    /**
+     * Remaining characters of a single pattern that shares no sibling nodes, in {@link #leafCharacters}.
+     * Start and end are the same if the node has no leaf.
+     */
+    private static final int LEAF_START = 4;
+    private static final int LEAF_END = 5;
+    /**
+     * Index of the leaf pattern callback in {@link #callbacks}.
+     */
+    private static final int LEAF_CALLBACK = 6;
+    private static final int NODE_SIZE = 7;
+
+    /**
+     * Used only to read the characters of the search text and patterns.
+     */
+    private final TrieNode<T> characterSource;
+
+    private final int[] nodes;
+
+    private final char[] childCharacters;
+
+    private final int[] childNodes;
+
+    private final char[] leafCharacters;
+
+    /**
+     * Callbacks of all nodes. Null values indicate to always accept a match.
+     */
+    private final TriePatternMatchedCallback<T>[] callbacks;
+
+    /**
+     * Arrays are built larger than needed, then trimmed when construction finishes.
+     */
+    private static final class Builder<T> {
+        final TrieNode<T> characterSource;
+        final List<T> patterns;
+        final List<Integer> patternLengths;
+        final List<TriePatternMatchedCallback<T>> patternCallbacks;
+
+        int[] nodes = new int[NODE_SIZE * 16];
+        int numberOfNodes;
+        char[] childCharacters = new char[16];
+        int[] childNodes = new int[16];
+        int childTablesSize;
+        char[] leafCharacters = new char[64];
+        int leafCharactersSize;
+        final List<TriePatternMatchedCallback<T>> callbacks = new ArrayList<>();
+
+        Builder(TrieNode<T> characterSource, List<T> patterns, List<Integer> patternLengths,
+                List<TriePatternMatchedCallback<T>> patternCallbacks) {
+            this.characterSource = characterSource;
+            this.patterns = patterns;
+            this.patternLengths = patternLengths;
+            this.patternCallbacks = patternCallbacks;
+        }
+
+        int addNode() {
+            final int node = numberOfNodes++;
+            if (numberOfNodes * NODE_SIZE > nodes.length) {
+                nodes = Arrays.copyOf(nodes, nodes.length * 2);
+            }
+            return node;
+        }
+
+        /**
+         * Builds a node from the patterns that share the first {@code depth} characters.
+         *
+         * @param patternIndexes Indexes of the patterns that pass thru this node, in the order they were added.
+         */
+        void build(int node, List<Integer> patternIndexes, int depth) {
+            final int record = node * NODE_SIZE;
+
+            List<Integer> continuingIndexes = new ArrayList<>(patternIndexes.size());
+            nodes[record + CALLBACK_START] = callbacks.size();
+            for (int patternIndex : patternIndexes) {
+                if (patternLengths.get(patternIndex) == depth) { // Reached the end of the pattern.
+                    callbacks.add(patternCallbacks.get(patternIndex));
+                } else {
+                    continuingIndexes.add(patternIndex);
+                }
+            }
+            nodes[record + CALLBACK_END] = callbacks.size();
+            nodes[record + LEAF_START] = leafCharactersSize;
+            nodes[record + LEAF_END] = leafCharactersSize;
+
+            if (continuingIndexes.isEmpty()) {
+                return;
+            }
+            if (continuingIndexes.size() == 1) {
+                final int patternIndex = continuingIndexes.get(0);
+                final T pattern = patterns.get(patternIndex);
+                final int patternLength = patternLengths.get(patternIndex);
+                final int leafLength = patternLength - depth;
+                if (leafCharactersSize + leafLength > leafCharacters.length) {
+                    leafCharacters = Arrays.copyOf(leafCharacters,
+                            Math.max(leafCharacters.length * 2, leafCharactersSize + leafLength));
+                }
+                for (int i = depth; i < patternLength; i++) {
+                    leafCharacters[leafCharactersSize++] = characterSource.getCharValue(pattern, i);
+                }
+                nodes[record + LEAF_END] = leafCharactersSize;
+                nodes[record + LEAF_CALLBACK] = callbacks.size();
+                callbacks.add(patternCallbacks.get(patternIndex));
+                return;
+            }
+
+            // Group the patterns by their next character, in the order the characters are first used.
+            Map<Character, List<Integer>> childPatternIndexes = new LinkedHashMap<>();
+            for (int patternIndex : continuingIndexes) {
+                final char character = characterSource.getCharValue(patterns.get(patternIndex), depth);
+                List<Integer> indexes = childPatternIndexes.get(character);
+                if (indexes == null) {
+                    indexes = new ArrayList<>();
+                    childPatternIndexes.put(character, indexes);
+                }
+                indexes.add(patternIndex);
+            }
+
+            final int tableSize = perfectHashTableSize(childPatternIndexes.keySet().toArray(new Character[0]));
+            final int tableStart = childTablesSize;
+            childTablesSize += tableSize;
+            if (childTablesSize > childNodes.length) {
+                final int capacity = Math.max(childNodes.length * 2, childTablesSize);
+                childCharacters = Arrays.copyOf(childCharacters, capacity);
+                childNodes = Arrays.copyOf(childNodes, capacity);
+            }
+            Arrays.fill(childNodes, tableStart, tableStart + tableSize, NO_NODE);
+            nodes[record + CHILD_TABLE_START] = tableStart;
+            nodes[record + CHILD_TABLE_SIZE] = tableSize;
+
+            for (Map.Entry<Character, List<Integer>> entry : childPatternIndexes.entrySet()) {
+                final char character = entry.getKey();
+                final int child = addNode();
+                final int index = tableStart + (character % tableSize);
+                childCharacters[index] = character;
+                childNodes[index] = child;
+                build(child, entry.getValue(), depth + 1);
+            }
+        }
+
+        private static int perfectHashTableSize(Character[] characters) {
+            int tableSize = 1;
+            while (tableSize < characters.length) {
+                tableSize += TABLE_SIZE_INCREMENT;
+            }
+
+            while (true) {
+                boolean[] used = new boolean[tableSize];
+                boolean collision = false;
+                for (char character : characters) {
+                    final int index = character % tableSize;
+                    if (used[index]) {
+                        collision = true;
+                        break;
+                    }
+                    used[index] = true;
+                }
+                if (!collision) {
+                    return tableSize;
+                }
+                tableSize += TABLE_SIZE_INCREMENT;
+            }
+        }
+    }
+
+    /**
+     * @param characterSource Node used to read characters of the patterns and search text.
+     * @param patterns        Patterns to match.
+     * @param patternLengths  Length of each pattern.
+     * @param callbacks       Callback of each pattern, where null indicates to always accept a pattern match.
+     */
+    TrieTable(@NonNull TrieNode<T> characterSource, @NonNull List<T> patterns,
+              @NonNull List<Integer> patternLengths,
+              @NonNull List<TriePatternMatchedCallback<T>> callbacks) {
+        this.characterSource = characterSource;
+
+        Builder<T> builder = new Builder<>(characterSource, patterns, patternLengths, callbacks);
+        final int numberOfPatterns = patterns.size();
+        List<Integer> patternIndexes = new ArrayList<>(numberOfPatterns);
+        for (int i = 0; i < numberOfPatterns; i++) {
+            patternIndexes.add(i);
+        }
+        builder.build(builder.addNode(), patternIndexes, 0);
+
+        nodes = Arrays.copyOf(builder.nodes, builder.numberOfNodes * NODE_SIZE);
+        childCharacters = Arrays.copyOf(builder.childCharacters, builder.childTablesSize);
+        childNodes = Arrays.copyOf(builder.childNodes, builder.childTablesSize);
+        leafCharacters = Arrays.copyOf(builder.leafCharacters, builder.leafCharactersSize);
+        //noinspection unchecked
+        this.callbacks = builder.callbacks.toArray(new TriePatternMatchedCallback[0]);
+    }
+
+    /**
+     * @param searchText         Text to search for patterns in.
+     * @param searchTextIndex    Start index, inclusive.
+     * @param searchTextEndIndex End index, exclusive.
+     * @return If any pattern matches, and it's associated callback halted the search.
+     */
+    boolean matches(final T searchText, final int searchTextIndex, final int searchTextEndIndex,
+                    @Nullable final Object callbackParameter) {
+        for (int i = searchTextIndex; i < searchTextEndIndex; i++) {
+            if (matchesAt(searchText, i, searchTextEndIndex, callbackParameter)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Walks the tree starting from one index of the search text.
+     */
+    private boolean matchesAt(final T searchText, int searchTextIndex, final int searchTextEndIndex,
+                              @Nullable final Object callbackParameter) {
+        final TrieNode<T> source = characterSource;
+        final int[] nodes = this.nodes;
+        int record = ROOT_NODE * NODE_SIZE;
+        int currentMatchLength = 0;
+
+        while (true) {
+            final int leafStart = nodes[record + LEAF_START];
+            final int leafEnd = nodes[record + LEAF_END];
+            if (leafStart != leafEnd && matchesLeaf(searchText, searchTextIndex, searchTextEndIndex,
+                    leafStart, leafEnd, nodes[record + LEAF_CALLBACK], currentMatchLength, callbackParameter)) {
+                return true; // Leaf exists and it matched the search text.
+            }
+
+            final int callbackEnd = nodes[record + CALLBACK_END];
+            for (int j = nodes[record + CALLBACK_START]; j < callbackEnd; j++) {
+                TriePatternMatchedCallback<T> callback = callbacks[j];
+                if (callback == null) {
+                    return true; // No callback and all matches are valid.
+                }
+                if (callback.patternMatched(searchText, searchTextIndex - currentMatchLength,
+                        currentMatchLength, callbackParameter)) {
+                    return true; // Callback confirmed the match.
+                }
+            }
+
+            final int tableSize = nodes[record + CHILD_TABLE_SIZE];
+            if (tableSize == 0) {
+                return false; // Reached a graph end point and there's no further patterns to search.
+            }
+            if (searchTextIndex == searchTextEndIndex) {
+                return false; // Reached end of the search text and found no matches.
+            }
+
+            final char character = source.getCharValue(searchText, searchTextIndex);
+            final int index = nodes[record + CHILD_TABLE_START] + (character % tableSize);
+            final int child = childNodes[index];
+            if (child == NO_NODE || childCharacters[index] != character) {
+                return false;
+            }
+
+            record = child * NODE_SIZE;
+            searchTextIndex++;
+            currentMatchLength++;
+        }
+    }
+
+    private boolean matchesLeaf(final T searchText, final int searchTextIndex, final int searchTextEndIndex,
+                                final int leafStart, final int leafEnd, final int callbackIndex,
+                                final int currentMatchLength, @Nullable final Object callbackParameter) {
+        final int leafLength = leafEnd - leafStart;
+        if (searchTextEndIndex - searchTextIndex < leafLength) {
+            return false; // Remaining search text is shorter than the remaining leaf pattern and they cannot match.
+        }
+        final TrieNode<T> source = characterSource;
+        for (int i = searchTextIndex, j = leafStart; j < leafEnd; i++, j++) {
+            if (source.getCharValue(searchText, i) != leafCharacters[j]) {
+                return false;
+            }
+        }
+        TriePatternMatchedCallback<T> callback = callbacks[callbackIndex];
+        return callback == null || callback.patternMatched(searchText,
+                searchTextIndex - currentMatchLength, currentMatchLength + leafLength, callbackParameter);
+    }
+
+    /**
+     * @return Memory size (in bytes) of the arrays of this instance.
+     */
+    int getEstimatedMemorySize() {
+        return nodes.length * Integer.BYTES
+                + childCharacters.length * Character.BYTES
+                + childNodes.length * Integer.BYTES
+                + leafCharacters.length * Character.BYTES
+                + callbacks.length * 4;
+    }
+}
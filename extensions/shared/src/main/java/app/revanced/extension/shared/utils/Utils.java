@@ -1328,6 +1328,21 @@ public class Utils {
                 || networkType == NetworkType.WIFI;
     }
 
+    /**
+     * Calling extension code must ensure the un-patched app has the permission
+     * <code>android.permission.ACCESS_NETWORK_STATE</code>,
+     * otherwise the app will crash if this method is used.
+     *
+     * @return If the active network is metered, or if there is no active network.
+     */
+    @SuppressLint("MissingPermission")
+    public static boolean isNetworkMetered() {
+        if (context == null || !(context.getSystemService(Context.CONNECTIVITY_SERVICE) instanceof ConnectivityManager cm))
+            return true;
+
+        return cm.isActiveNetworkMetered();
+    }
+
     /**
      * Calling extension code must ensure the un-patched app has the permission
      * <code>android.permission.ACCESS_NETWORK_STATE</code>,
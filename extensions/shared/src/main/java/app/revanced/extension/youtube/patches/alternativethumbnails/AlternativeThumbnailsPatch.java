@@ -20,13 +20,13 @@ import org.chromium.net.impl.CronetUrlRequest;
 
 import java.io.IOException;
 import java.net.HttpURLConnection;
-import java.net.URL;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.regex.Pattern;
 
+import app.revanced.extension.shared.requests.Requester;
 import app.revanced.extension.shared.settings.Setting;
 import app.revanced.extension.shared.utils.Logger;
 import app.revanced.extension.shared.utils.Utils;
@@ -607,22 +607,27 @@ public final class AlternativeThumbnailsPatch {
                 final long start = System.currentTimeMillis();
                 imageFileFound = Utils.submitOnBackgroundThread(() -> {
                     final int connectionTimeoutMillis = 10000; // 10 seconds.
-                    HttpURLConnection connection = (HttpURLConnection) new URL(imageUrl).openConnection();
-                    connection.setConnectTimeout(connectionTimeoutMillis);
-                    connection.setReadTimeout(connectionTimeoutMillis);
-                    connection.setRequestMethod("HEAD");
-                    // Even with a HEAD request, the response is the same size as a full GET request.
-                    // Using an empty range fixes this.
-                    connection.setRequestProperty("Range", "bytes=0-0");
-                    final int responseCode = connection.getResponseCode();
-                    if (responseCode == HttpURLConnection.HTTP_PARTIAL) {
-                        String contentType = connection.getContentType();
-                        return (contentType != null && contentType.startsWith("image"));
+                    HttpURLConnection connection = Requester.getConnection(imageUrl);
+                    try {
+                        connection.setConnectTimeout(connectionTimeoutMillis);
+                        connection.setReadTimeout(connectionTimeoutMillis);
+                        connection.setRequestMethod("HEAD");
+                        // Even with a HEAD request, the response is the same size as a full GET request.
+                        // Using an empty range fixes this.
+                        connection.setRequestProperty("Range", "bytes=0-0");
+                        final int responseCode = connection.getResponseCode();
+                        if (responseCode == HttpURLConnection.HTTP_PARTIAL) {
+                            String contentType = connection.getContentType();
+                            return (contentType != null && contentType.startsWith("image"));
+                        }
+                        if (responseCode != HttpURLConnection.HTTP_NOT_FOUND) {
+                            Logger.printDebug(() -> "Unexpected response code: " + responseCode + " for url: " + imageUrl);
+                        }
+                        return false;
+                    } finally {
+                        // Releases the response, and keeps the connection open for the next image.
+                        connection.disconnect();
                     }
-                    if (responseCode != HttpURLConnection.HTTP_NOT_FOUND) {
-                        Logger.printDebug(() -> "Unexpected response code: " + responseCode + " for url: " + imageUrl);
-                    }
-                    return false;
                 }).get();
                 Logger.printDebug(() -> "Verification took: " + (System.currentTimeMillis() - start) + "ms for image: " + imageUrl);
             } catch (ExecutionException | InterruptedException ex) {
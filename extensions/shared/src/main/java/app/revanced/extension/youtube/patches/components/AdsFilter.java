@@ -154,6 +154,11 @@ public final class AdsFilter extends Filter {
         );
     }
 
+    @Override
+    public boolean isCacheable(StringFilterGroup group) {
+        return true;
+    }
+
     @Override
     public boolean isFiltered(String path, String identifier, String allValue, byte[] buffer,
                               StringFilterGroup matchedGroup, FilterContentType contentType, int contentIndex) {
@@ -418,6 +418,11 @@ public final class FeedComponentsFilter extends Filter {
         return hideHomeAndOthers && (knownBrowseId.get().anyMatch(browseId::equals) || isNotWhiteListBrowseId);
     }
 
+    @Override
+    public boolean usesAllValue(StringFilterGroup group) {
+        return group == communityPosts;
+    }
+
     @Override
     public boolean isFiltered(String path, String identifier, String allValue, byte[] buffer,
                               StringFilterGroup matchedGroup, FilterContentType contentType, int contentIndex) {
@@ -1,13 +1,9 @@
 package app.revanced.extension.youtube.patches.components;
 
-import androidx.annotation.NonNull;
-
-import java.util.Objects;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 import app.revanced.extension.shared.patches.components.Filter;
+import app.revanced.extension.shared.patches.components.ProtoBufferIndex;
 import app.revanced.extension.shared.patches.components.StringFilterGroup;
+import app.revanced.extension.shared.settings.Setting;
 import app.revanced.extension.shared.utils.Logger;
 import app.revanced.extension.shared.settings.StringSetting;
 import app.revanced.extension.shared.utils.ResourceUtils;
@@ -69,14 +65,16 @@ public final class FeedVideoViewsFilter extends Filter {
                 filterByViews(buffer);
     }
 
-    private static final String ARROW = " -> ";
-    private static final String VIEWS = "views";
     private static final StringSetting HIDE_VIDEO_VIEW_COUNTS_MULTIPLIER =
             Settings.HIDE_VIDEO_VIEW_COUNTS_MULTIPLIER;
     private static final String HIDE_VIDEO_VIEW_COUNTS_MULTIPLIER_DEFAULT_VALUE =
             "revanced_hide_video_view_counts_multiplier_default_value";
-    private static final String[] parts;
-    private Pattern viewCountPattern = null;
+
+    /**
+     * Scanner of the current multiplier setting.
+     * Replaced if the setting changes, and litho threads can use the previous scanner until then.
+     */
+    private static volatile ViewCountScanner viewCountScanner;
 
     static {
         final String multiplierString = HIDE_VIDEO_VIEW_COUNTS_MULTIPLIER.get();
@@ -87,126 +85,47 @@ public final class FeedVideoViewsFilter extends Filter {
                 HIDE_VIDEO_VIEW_COUNTS_MULTIPLIER.save(defaultValue);
             }
         }
-        parts = HIDE_VIDEO_VIEW_COUNTS_MULTIPLIER.get().split("\\n");
-    }
+        updateViewCountScanner();
 
-    /**
-     * Hide videos based on views count
-     */
-    private synchronized boolean filterByViews(byte[] buffer) {
-        final String protobufString = new String(buffer);
-        final long lessThan = Settings.HIDE_VIDEO_VIEW_COUNTS_LESS_THAN.get();
-        final long greaterThan = Settings.HIDE_VIDEO_VIEW_COUNTS_GREATER_THAN.get();
-
-        if (viewCountPattern == null) {
-            viewCountPattern = getViewCountPattern(parts);
-        }
-
-        final Matcher matcher = viewCountPattern.matcher(protobufString);
-        if (matcher.find()) {
-            String numString = Objects.requireNonNull(matcher.group(1));
-            double num = parseNumber(numString);
-            String multiplierKey = matcher.group(2);
-            long multiplierValue = getMultiplierValue(parts, multiplierKey);
-            boolean shouldFilter = num * multiplierValue < lessThan || num * multiplierValue > greaterThan;
-
-            final boolean finalShouldFilter = shouldFilter;
-            Logger.printDebug(() -> {
-                StringBuilder builder = new StringBuilder();
-                builder.append("FeedVideoViewsFilter: Should Filter: ").append(finalShouldFilter);
-                builder.append("\n").append(num * multiplierValue).append(" < ").append(lessThan);
-                builder.append(" || ").append(num * multiplierValue).append(" > ").append(greaterThan);
-                builder.append("\nRegex pattern: ").append(viewCountPattern.pattern());
-                builder.append("\nText: ").append(matcher.group(0));
-                return builder.toString();
-            });
-            return shouldFilter;
-        }
-        return false;
-    }
-
-    private synchronized double parseNumber(String numString) {
-        /**
-         * Some languages have comma (,) as a decimal separator.
-         * In order to detect those numbers as doubles in Java
-         * we convert commas (,) to dots (.).
-         * Unless we find a language that has commas used in
-         * a different manner, it should work.
-         */
-        numString = numString.replace(",", ".");
-
-        /**
-         * Some languages have dot (.) as a kilo separator.
-         * So we check with regex if there is a number with 3+
-         * digits after dot (.), we replace it with nothing
-         * to make Java understand the number as a whole.
-         */
-        if (numString.matches("\\d+\\.\\d{3,}")) {
-            numString = numString.replace(".", "");
-        }
-        return Double.parseDouble(numString);
+        Setting.addValueChangedCallback(setting -> {
+            if (setting == HIDE_VIDEO_VIEW_COUNTS_MULTIPLIER) {
+                updateViewCountScanner();
+            }
+        });
     }
 
-    private synchronized Pattern getViewCountPattern(String[] parts) {
-        // Regex: (\d+[.,]?\d*)\s?(K|M|B)?(\u200F\u202C)?\s*views
-        StringBuilder prefixPatternBuilder = new StringBuilder("(\\d+[.,]?\\d*)\\s?(");
-        StringBuilder suffixBuilder = getSuffixBuilder(parts, prefixPatternBuilder);
-
-        prefixPatternBuilder.deleteCharAt(prefixPatternBuilder.length() - 1); // Remove the trailing |
-        prefixPatternBuilder.append(")?(\\u200F\\u202C)?\\s*");
-        prefixPatternBuilder.append(suffixBuilder.toString());
-
-        Pattern pattern = Pattern.compile(prefixPatternBuilder.toString());
-        Logger.printDebug(() -> "FeedVideoViewsFilter: pattern: " + pattern.pattern());
-        return pattern;
+    private static void updateViewCountScanner() {
+        ViewCountScanner scanner = new ViewCountScanner(HIDE_VIDEO_VIEW_COUNTS_MULTIPLIER.get());
+        Logger.printDebug(() -> "FeedVideoViewsFilter: " + scanner);
+        viewCountScanner = scanner;
     }
 
-
-    @NonNull
-    private synchronized StringBuilder getSuffixBuilder(String[] parts, StringBuilder prefixPatternBuilder) {
-        StringBuilder suffixBuilder = new StringBuilder();
-
-        for (String part : parts) {
-            final String[] pair = part.split(ARROW);
-            if (pair.length != 2) {
-                Logger.printDebug(() -> "FeedVideoViewsFilter: Invalid multiplier setting: " + part);
-                continue; // Skip invalid entries
-            }
-            final String pair0 = pair[0].trim();
-            final String pair1 = pair[1].trim();
-
-            if (!pair1.equals(VIEWS)) {
-                prefixPatternBuilder.append(pair0).append("|");
-            } else {
-                suffixBuilder.append(pair0);
+    /**
+     * Hide videos based on views count
+     */
+    private static boolean filterByViews(byte[] buffer) {
+        final ViewCountScanner scanner = viewCountScanner;
+        final ProtoBufferIndex index = getBufferIndex(buffer);
+
+        double views = ViewCountScanner.NOT_FOUND;
+        for (int i = 0, count = index.getStringCount(); i < count; i++) {
+            views = scanner.findViewCount(buffer, index.getStringStart(i), index.getStringEnd(i));
+            if (views != ViewCountScanner.NOT_FOUND) {
+                break;
             }
         }
-        return suffixBuilder;
-    }
-
-    private synchronized long getMultiplierValue(String[] parts, String multiplier) {
-        if (multiplier == null || multiplier.isEmpty()) {
-            return 1L;
+        if (views == ViewCountScanner.NOT_FOUND) {
+            return false;
         }
-        for (String part : parts) {
-            final String[] pair = part.split(ARROW);
-            if (pair.length != 2) {
-                Logger.printDebug(() -> "FeedVideoViewsFilter: Invalid multiplier setting: " + part);
-                continue; // Skip invalid entries
-            }
-            final String pair0 = pair[0].trim();
-            final String pair1 = pair[1].trim();
 
+        final long lessThan = Settings.HIDE_VIDEO_VIEW_COUNTS_LESS_THAN.get();
+        final long greaterThan = Settings.HIDE_VIDEO_VIEW_COUNTS_GREATER_THAN.get();
+        final boolean shouldFilter = views < lessThan || views > greaterThan;
 
-            if (pair0.equals(multiplier) && !pair1.equals(VIEWS)) {
-                try {
-                    return Long.parseLong(pair1.replaceAll("[^\\d]", ""));
-                } catch (NumberFormatException e) {
-                    Logger.printException(() -> "Error parsing multiplier value for " + multiplier + ": " + pair1, e);
-                    return 1L; // Default value on error
-                }
-            }
-        }
-        return 1L; // Default value if not found
+        final double finalViews = views;
+        Logger.printDebug(() -> "FeedVideoViewsFilter: Should Filter: " + shouldFilter
+                + "\n" + finalViews + " < " + lessThan
+                + " || " + finalViews + " > " + greaterThan);
+        return shouldFilter;
     }
 }
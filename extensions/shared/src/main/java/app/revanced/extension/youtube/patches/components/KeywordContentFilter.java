@@ -15,8 +15,12 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 import app.revanced.extension.shared.patches.components.Filter;
@@ -42,8 +46,8 @@ import app.revanced.extension.youtube.shared.RootView;
  * - Some layout component residue will remain, such as the video chapter previews for some search results.
  *   These components do not include the video title or channel name, and they
  *   appear outside the filtered components so they are not caught.
- * - Keywords are case sensitive, but some casing variation is manually added.
- *   (ie: "mr beast" automatically filters "Mr Beast" and "MR BEAST").
+ * - Keywords are not case sensitive for Latin, Greek, Cyrillic and Armenian characters.
+ *   (ie: "mr beast" also filters "Mr Beast" and "MR BEAST").
  * - Keywords present in the layout or video data cannot be used as filters, otherwise all videos
  *   will always be hidden.  This patch checks for some words of these words.
  * - When using whole word syntax, some keywords may need additional pluralized variations.
@@ -55,7 +59,7 @@ public final class KeywordContentFilter extends Filter {
      * Strings found in the buffer for every videos.  Full strings should be specified.
      * <p>
      * This list does not include every common buffer string, and this can be added/changed as needed.
-     * Words must be entered with the exact casing as found in the buffer.
+     * Keywords are compared ignoring case, so the casing of these strings does not matter.
      */
     private static final String[] STRINGS_IN_EVERY_BUFFER = {
             // Video playback data.
@@ -141,7 +145,7 @@ public final class KeywordContentFilter extends Filter {
     private static final int MINIMUM_KEYWORD_LENGTH = 3;
 
     /**
-     * Threshold for {@link #filteredVideosPercentage}
+     * Threshold for {@link #filteredVideosPercentageBits}
      * that indicates all or nearly all videos have been filtered.
      * This should be close to 100% to reduce false positives.
      */
@@ -165,14 +169,17 @@ public final class KeywordContentFilter extends Filter {
      * and open the subscription feed. In practice this does not always identify problems
      * in the home feed and search, because the home feed has a finite amount of content and
      * search results have a lot of extra video junk that is not hidden and interferes with the detection.
+     * <p>
+     * Value is the raw bits of a float, so litho threads can update the average at the same time
+     * without losing updates.
      */
-    private volatile float filteredVideosPercentage;
+    private final AtomicInteger filteredVideosPercentageBits = new AtomicInteger(Float.floatToIntBits(0));
 
     /**
      * If filtering is temporarily turned off, the time to resume filtering.
      * Field is zero if no timeout is in effect.
      */
-    private volatile long timeToResumeFiltering;
+    private final AtomicLong timeToResumeFiltering = new AtomicLong();
 
     private final StringFilterGroup commentsFilter;
 
@@ -196,45 +203,6 @@ public final class KeywordContentFilter extends Filter {
         }
     }
 
-    /**
-     * Change first letter of the first word to use title case.
-     */
-    private static String titleCaseFirstWordOnly(String sentence) {
-        if (sentence.isEmpty()) {
-            return sentence;
-        }
-        final int firstCodePoint = sentence.codePointAt(0);
-        // In some non English languages title case is different than uppercase.
-        return new StringBuilder()
-                .appendCodePoint(Character.toTitleCase(firstCodePoint))
-                .append(sentence, Character.charCount(firstCodePoint), sentence.length())
-                .toString();
-    }
-
-    /**
-     * Uppercase the first letter of each word.
-     */
-    private static String capitalizeAllFirstLetters(String sentence) {
-        if (sentence.isEmpty()) {
-            return sentence;
-        }
-
-        final int delimiter = ' ';
-        // Use code points and not characters to handle unicode surrogates.
-        int[] codePoints = sentence.codePoints().toArray();
-        boolean capitalizeNext = true;
-        for (int i = 0, length = codePoints.length; i < length; i++) {
-            final int codePoint = codePoints[i];
-            if (codePoint == delimiter) {
-                capitalizeNext = true;
-            } else if (capitalizeNext) {
-                codePoints[i] = Character.toUpperCase(codePoint);
-                capitalizeNext = false;
-            }
-        }
-        return new String(codePoints, 0, codePoints.length);
-    }
-
     /**
      * @return If the string contains any characters from languages that do not use spaces between words.
      */
@@ -264,25 +232,16 @@ public final class KeywordContentFilter extends Filter {
     /**
      * @return If the phrase will hide all videos. Not an exhaustive check.
      */
-    private static boolean phrasesWillHideAllVideos(@NonNull String[] phrases, boolean matchWholeWords) {
-        for (String phrase : phrases) {
-            for (String commonString : STRINGS_IN_EVERY_BUFFER) {
-                if (matchWholeWords) {
-                    byte[] commonStringBytes = commonString.getBytes(StandardCharsets.UTF_8);
-                    int matchIndex = 0;
-                    while (true) {
-                        matchIndex = commonString.indexOf(phrase, matchIndex);
-                        if (matchIndex < 0) break;
-
-                        if (keywordMatchIsWholeWord(commonStringBytes, matchIndex, phrase.length())) {
-                            return true;
-                        }
-
-                        matchIndex++;
-                    }
-                } else if (Utils.containsAny(commonString, phrases)) {
-                    return true;
-                }
+    private static boolean phraseWillHideAllVideos(@NonNull String phrase, boolean matchWholeWords) {
+        // Use the same case insensitive search as the keywords.
+        ByteTrieSearch search = new ByteTrieSearch(true);
+        search.addPattern(phrase.getBytes(StandardCharsets.UTF_8),
+                (textSearched, startIndex, matchLength, callbackParameter) ->
+                        !matchWholeWords || keywordMatchIsWholeWord(textSearched, startIndex, matchLength));
+
+        for (String commonString : STRINGS_IN_EVERY_BUFFER) {
+            if (search.matches(commonString.getBytes(StandardCharsets.UTF_8))) {
+                return true;
             }
         }
 
@@ -407,12 +366,15 @@ public final class KeywordContentFilter extends Filter {
             return; // Another thread won the race, and search is already initialized.
         }
 
-        ByteTrieSearch search = new ByteTrieSearch();
+        ByteTrieSearch search = new ByteTrieSearch(true);
         String[] split = rawKeywords.split("\n");
         if (split.length != 0) {
             // Linked Set so log statement are more organized and easier to read.
             // Map is: Phrase -> isWholeWord
-            Map<String, Boolean> keywords = new LinkedHashMap<>(10 * split.length);
+            Map<String, Boolean> keywords = new LinkedHashMap<>(2 * split.length);
+            // Phrases that differ only by case are the same keyword.
+            // Map is: Lower case phrase -> Phrase
+            Map<String, String> phrasesIgnoringCase = new HashMap<>(2 * split.length);
 
             for (String phrase : split) {
                 // Remove any trailing spaces the user may have accidentally included.
@@ -437,27 +399,11 @@ public final class KeywordContentFilter extends Filter {
                     wholeWordMatching = false;
                 }
 
-                // Common casing that might appear.
-                //
-                // This could be simplified by adding case insensitive search to the prefix search,
-                // which is very simple to add to StringTreSearch for Unicode and ByteTrieSearch for ASCII.
-                //
-                // But to support Unicode with ByteTrieSearch would require major changes because
-                // UTF-8 characters can be different byte lengths, which does
-                // not allow comparing two different byte arrays using simple plain array indexes.
-                //
-                // Instead use all common case variations of the words.
-                String[] phraseVariations = {
-                        phrase,
-                        phrase.toLowerCase(),
-                        titleCaseFirstWordOnly(phrase),
-                        capitalizeAllFirstLetters(phrase),
-                        phrase.toUpperCase()
-                };
-                if (phrasesWillHideAllVideos(phraseVariations, wholeWordMatching)) {
+                // The search ignores case, so each phrase is added only once.
+                if (phraseWillHideAllVideos(phrase, wholeWordMatching)) {
                     String toastMessage;
                     // If whole word matching is off, but would pass with on, then show a different toast.
-                    if (!wholeWordMatching && !phrasesWillHideAllVideos(phraseVariations, true)) {
+                    if (!wholeWordMatching && !phraseWillHideAllVideos(phrase, true)) {
                         toastMessage = "revanced_hide_keyword_toast_invalid_common_whole_word_required";
                     } else {
                         toastMessage = "revanced_hide_keyword_toast_invalid_common";
@@ -467,15 +413,12 @@ public final class KeywordContentFilter extends Filter {
                     continue;
                 }
 
-                for (String variation : phraseVariations) {
-                    // Check if the same phrase is declared both with and without quotes.
-                    Boolean existing = keywords.get(variation);
-                    if (existing == null) {
-                        keywords.put(variation, wholeWordMatching);
-                    } else if (existing != wholeWordMatching) {
-                        Utils.showToastLong(str("revanced_hide_keyword_toast_invalid_conflicting", phrase));
-                        break;
-                    }
+                // Check if the same phrase is declared both with and without quotes.
+                String existingPhrase = phrasesIgnoringCase.putIfAbsent(phrase.toLowerCase(Locale.ROOT), phrase);
+                if (existingPhrase == null) {
+                    keywords.put(phrase, wholeWordMatching);
+                } else if (keywords.get(existingPhrase) != wholeWordMatching) {
+                    Utils.showToastLong(str("revanced_hide_keyword_toast_invalid_conflicting", phrase));
                 }
             }
 
@@ -503,8 +446,8 @@ public final class KeywordContentFilter extends Filter {
         }
 
         bufferSearch = search;
-        timeToResumeFiltering = 0;
-        filteredVideosPercentage = 0;
+        timeToResumeFiltering.set(0);
+        filteredVideosPercentageBits.set(Float.floatToIntBits(0));
         lastKeywordPhrasesParsed = rawKeywords; // Must set last.
     }
 
@@ -521,14 +464,17 @@ public final class KeywordContentFilter extends Filter {
     }
 
     private boolean hideKeywordSettingIsActive() {
-        if (timeToResumeFiltering != 0) {
-            if (System.currentTimeMillis() < timeToResumeFiltering) {
+        final long resumeTime = timeToResumeFiltering.get();
+        if (resumeTime != 0) {
+            if (System.currentTimeMillis() < resumeTime) {
                 return false;
             }
 
-            timeToResumeFiltering = 0;
-            filteredVideosPercentage = 0;
-            Logger.printDebug(() -> "Resuming keyword filtering");
+            // Only one thread resumes filtering.
+            if (timeToResumeFiltering.compareAndSet(resumeTime, 0)) {
+                filteredVideosPercentageBits.set(Float.floatToIntBits(0));
+                Logger.printDebug(() -> "Resuming keyword filtering");
+            }
         }
 
         final boolean hideHome = Settings.HIDE_KEYWORD_CONTENT_HOME.get();
@@ -566,20 +512,30 @@ public final class KeywordContentFilter extends Filter {
     }
 
     private void updateStats(boolean videoWasHidden, @Nullable String keyword) {
-        float updatedAverage = filteredVideosPercentage
-                * ((ALL_VIDEOS_FILTERED_SAMPLE_SIZE - 1) / ALL_VIDEOS_FILTERED_SAMPLE_SIZE);
-        if (videoWasHidden) {
-            updatedAverage += 1 / ALL_VIDEOS_FILTERED_SAMPLE_SIZE;
-        }
+        while (true) {
+            final int currentBits = filteredVideosPercentageBits.get();
+            float updatedAverage = Float.intBitsToFloat(currentBits)
+                    * ((ALL_VIDEOS_FILTERED_SAMPLE_SIZE - 1) / ALL_VIDEOS_FILTERED_SAMPLE_SIZE);
+            if (videoWasHidden) {
+                updatedAverage += 1 / ALL_VIDEOS_FILTERED_SAMPLE_SIZE;
+            }
 
-        if (updatedAverage <= ALL_VIDEOS_FILTERED_THRESHOLD) {
-            filteredVideosPercentage = updatedAverage;
-            return;
+            if (updatedAverage > ALL_VIDEOS_FILTERED_THRESHOLD) {
+                break;
+            }
+            if (filteredVideosPercentageBits.compareAndSet(currentBits, Float.floatToIntBits(updatedAverage))) {
+                return;
+            }
+            // Thread race and another thread updated the average.
         }
 
         // A keyword is hiding everything.
         // Inform the user, and temporarily turn off filtering.
-        timeToResumeFiltering = System.currentTimeMillis() + ALL_VIDEOS_FILTERED_BACKOFF_MILLISECONDS;
+        // Only the thread that turns off filtering shows the toast.
+        if (!timeToResumeFiltering.compareAndSet(0,
+                System.currentTimeMillis() + ALL_VIDEOS_FILTERED_BACKOFF_MILLISECONDS)) {
+            return;
+        }
 
         Logger.printDebug(() -> "Temporarily turning off filtering due to excessively broad filter: " + keyword);
         Utils.showToastLong(str("revanced_hide_keyword_toast_invalid_broad", keyword));
@@ -613,7 +569,7 @@ public final class KeywordContentFilter extends Filter {
         }
 
         MutableReference<String> matchRef = new MutableReference<>();
-        if (bufferSearch.matches(buffer, matchRef)) {
+        if (getBufferIndex(buffer).matches(bufferSearch, matchRef)) {
             updateStats(true, matchRef.value);
             return true;
         }
@@ -1,10 +1,7 @@
 package app.revanced.extension.youtube.patches.components;
 
-import java.util.concurrent.atomic.AtomicBoolean;
-
 import app.revanced.extension.shared.patches.components.Filter;
 import app.revanced.extension.shared.patches.components.StringFilterGroup;
-import app.revanced.extension.shared.utils.Utils;
 import app.revanced.extension.youtube.shared.PlayerType;
 
 /**
@@ -30,8 +27,22 @@ import app.revanced.extension.youtube.shared.PlayerType;
  */
 @SuppressWarnings("unused")
 public final class LayoutReloadObserverFilter extends Filter {
-    // Must be volatile or synchronized, as litho filtering runs off main thread and this field is then access from the main thread.
-    public static final AtomicBoolean isActionBarVisible = new AtomicBoolean(false);
+    /**
+     * How long the player is treated as maximized after the video action bar is loaded.
+     */
+    private static final long ACTION_BAR_VISIBLE_MILLISECONDS = 1000;
+
+    /**
+     * Time the action bar was last loaded, plus {@link #ACTION_BAR_VISIBLE_MILLISECONDS}.
+     * <p>
+     * A single volatile time is written by multiple litho threads at once and read from the main thread,
+     * and each thread that loads an action bar extends the time without needing to clear a flag later.
+     */
+    private static volatile long actionBarVisibleUntil;
+
+    public static boolean isActionBarVisible() {
+        return System.currentTimeMillis() < actionBarVisibleUntil;
+    }
 
     public LayoutReloadObserverFilter() {
         addIdentifierCallbacks(
@@ -45,9 +56,8 @@ public final class LayoutReloadObserverFilter extends Filter {
     @Override
     public boolean isFiltered(String path, String identifier, String allValue, byte[] buffer,
                               StringFilterGroup matchedGroup, FilterContentType contentType, int contentIndex) {
-        if (PlayerType.getCurrent() == PlayerType.WATCH_WHILE_MINIMIZED &&
-                isActionBarVisible.compareAndSet(false, true)) {
-            Utils.runOnMainThreadDelayed(() -> isActionBarVisible.compareAndSet(true, false), 1000);
+        if (PlayerType.getCurrent() == PlayerType.WATCH_WHILE_MINIMIZED) {
+            actionBarVisibleUntil = System.currentTimeMillis() + ACTION_BAR_VISIBLE_MILLISECONDS;
         }
 
         return false;
@@ -87,6 +87,11 @@ public final class ShortsShelfFilter extends Filter {
         addPathCallbacks(compactFeedVideoPath, shelfHeaderPath);
     }
 
+    @Override
+    public boolean usesAllValue(StringFilterGroup group) {
+        return group == shelfHeaderIdentifier || group == shelfHeaderPath;
+    }
+
     @Override
     public boolean isFiltered(String path, String identifier, String allValue, byte[] buffer,
                               StringFilterGroup matchedGroup, FilterContentType contentType, int contentIndex) {
@@ -0,0 +1,248 @@
+package app.revanced.extension.youtube.patches.components;
+
+import androidx.annotation.NonNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import app.revanced.extension.shared.utils.Logger;
+
+/**
+ * Finds and parses the view count text of a feed video (ie: '1.2K views') directly from the UTF-8 bytes of a buffer.
+ * <p>
+ * Matches the same text as the regex: {@code (\d+[.,]?\d*)\s?(K|M|B)?(RLM PDF)?\s*views}
+ * where the multiplier keys and the views suffix are from the multiplier setting,
+ * and RLM PDF are the right to left mark and pop directional formatting characters.
+ * Keys and suffixes are compared as plain text.
+ * <p>
+ * Instances are immutable and are safe to use from multiple threads.
+ */
+final class ViewCountScanner {
+
+    /**
+     * Returned if no view count is found.
+     */
+    static final double NOT_FOUND = -1;
+
+    private static final String ARROW = " -> ";
+    private static final String VIEWS = "views";
+
+    /**
+     * Right to left mark and pop directional formatting, used by some right to left languages.
+     */
+    private static final byte[] DIRECTIONAL_FORMATTING = "\u200F\u202C".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * Number of fraction digits where a separator is instead a thousands separator (ie: '1.234').
+     */
+    private static final int THOUSANDS_SEPARATOR_DIGITS = 3;
+
+    private static final double[] POWERS_OF_TEN = {1, 10, 100};
+
+    /**
+     * Multiplier keys (ie: 'K') in the order declared.
+     */
+    private final byte[][] multiplierKeys;
+
+    private final long[] multiplierValues;
+
+    /**
+     * Text after the number and multiplier (ie: 'views').
+     */
+    private final byte[][] suffixes;
+
+    /**
+     * @param multiplierSetting Value of the multiplier setting, with each key and value on a separate line.
+     */
+    ViewCountScanner(@NonNull String multiplierSetting) {
+        List<byte[]> keys = new ArrayList<>();
+        List<Long> values = new ArrayList<>();
+        List<byte[]> suffixes = new ArrayList<>();
+
+        for (String part : multiplierSetting.split("\\n")) {
+            final String[] pair = part.split(ARROW);
+            if (pair.length != 2) {
+                Logger.printDebug(() -> "Invalid multiplier setting: " + part);
+                continue; // Skip invalid entries
+            }
+            final String key = pair[0].trim();
+            final String value = pair[1].trim();
+
+            if (value.equals(VIEWS)) {
+                suffixes.add(key.getBytes(StandardCharsets.UTF_8));
+            } else if (!key.isEmpty()) {
+                keys.add(key.getBytes(StandardCharsets.UTF_8));
+                values.add(parseMultiplierValue(key, value));
+            }
+        }
+
+        if (suffixes.isEmpty()) {
+            suffixes.add(new byte[0]); // Any number is a view count.
+        }
+
+        this.multiplierKeys = keys.toArray(new byte[0][]);
+        this.multiplierValues = new long[values.size()];
+        for (int i = 0, size = values.size(); i < size; i++) {
+            multiplierValues[i] = values.get(i);
+        }
+        this.suffixes = suffixes.toArray(new byte[0][]);
+    }
+
+    private static long parseMultiplierValue(String key, String value) {
+        try {
+            return Long.parseLong(value.replaceAll("[^\\d]", ""));
+        } catch (NumberFormatException e) {
+            Logger.printException(() -> "Error parsing multiplier value for " + key + ": " + value, e);
+            return 1L; // Default value on error
+        }
+    }
+
+    private static boolean isDigit(byte value) {
+        return value >= '0' && value <= '9';
+    }
+
+    /**
+     * Same characters as the regex '\s'.
+     */
+    private static boolean isWhitespace(byte value) {
+        return value == ' ' || (value >= '\t' && value <= '\r');
+    }
+
+    private static boolean regionMatches(byte[] buffer, int index, int endIndex, byte[] text) {
+        final int length = text.length;
+        if (endIndex - index < length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buffer[index + i] != text[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The view count of the first view count text in the buffer, or {@link #NOT_FOUND}.
+     */
+    double findViewCount(@NonNull byte[] buffer, int startIndex, int endIndex) {
+        int index = startIndex;
+        while (index < endIndex) {
+            if (!isDigit(buffer[index])) {
+                index++;
+                continue;
+            }
+
+            final int integerEnd = skipDigits(buffer, index, endIndex);
+            int numberEnd = integerEnd;
+            int fractionDigits = -1; // No decimal separator.
+            if (numberEnd < endIndex && (buffer[numberEnd] == '.' || buffer[numberEnd] == ',')) {
+                numberEnd = skipDigits(buffer, numberEnd + 1, endIndex);
+                fractionDigits = numberEnd - integerEnd - 1;
+            }
+
+            long multiplier = findMultiplier(buffer, numberEnd, endIndex);
+            if (multiplier < 0 && fractionDigits >= 0) {
+                // Separator is not part of the number.
+                multiplier = findMultiplier(buffer, integerEnd, endIndex);
+                if (multiplier >= 0) {
+                    numberEnd = integerEnd;
+                    fractionDigits = -1;
+                }
+            }
+            if (multiplier >= 0) {
+                return parseNumber(buffer, index, numberEnd, fractionDigits) * multiplier;
+            }
+
+            // Starting at any other digit of the same integer gives the same result.
+            index = integerEnd;
+        }
+
+        return NOT_FOUND;
+    }
+
+    private static int skipDigits(byte[] buffer, int index, int endIndex) {
+        while (index < endIndex && isDigit(buffer[index])) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * @param index Index after the number.
+     * @return The multiplier value, or -1 if the text after the number is not a view count.
+     */
+    private long findMultiplier(byte[] buffer, int index, int endIndex) {
+        if (index < endIndex && isWhitespace(buffer[index])) {
+            index++;
+        }
+
+        for (int i = 0, length = multiplierKeys.length; i < length; i++) {
+            final byte[] key = multiplierKeys[i];
+            if (regionMatches(buffer, index, endIndex, key)
+                    && suffixMatches(buffer, index + key.length, endIndex)) {
+                return multiplierValues[i];
+            }
+        }
+
+        return suffixMatches(buffer, index, endIndex)
+                ? 1L
+                : -1L;
+    }
+
+    /**
+     * @param index Index after the multiplier key.
+     */
+    private boolean suffixMatches(byte[] buffer, int index, int endIndex) {
+        if (regionMatches(buffer, index, endIndex, DIRECTIONAL_FORMATTING)) {
+            index += DIRECTIONAL_FORMATTING.length;
+        }
+        while (index < endIndex && isWhitespace(buffer[index])) {
+            index++;
+        }
+
+        for (byte[] suffix : suffixes) {
+            if (regionMatches(buffer, index, endIndex, suffix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Some languages use a comma as the decimal separator, and some use a dot as the thousands separator.
+     * A separator followed by 3 or more digits is a thousands separator, otherwise it's a decimal separator.
+     *
+     * @param fractionDigits Number of digits after the separator, or -1 if there is no separator.
+     */
+    private static double parseNumber(byte[] buffer, int startIndex, int endIndex, int fractionDigits) {
+        double number = 0;
+        for (int i = startIndex; i < endIndex; i++) {
+            final byte value = buffer[i];
+            if (isDigit(value)) {
+                number = number * 10 + (value - '0');
+            }
+        }
+        if (fractionDigits > 0 && fractionDigits < THOUSANDS_SEPARATOR_DIGITS) {
+            number /= POWERS_OF_TEN[fractionDigits];
+        }
+        return number;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("ViewCountScanner{keys=[");
+        for (int i = 0, length = multiplierKeys.length; i < length; i++) {
+            if (i > 0) builder.append(", ");
+            builder.append(new String(multiplierKeys[i], StandardCharsets.UTF_8))
+                    .append('=').append(multiplierValues[i]);
+        }
+        builder.append("], suffixes=[");
+        for (int i = 0, length = suffixes.length; i < length; i++) {
+            if (i > 0) builder.append(", ");
+            builder.append(new String(suffixes[i], StandardCharsets.UTF_8));
+        }
+        return builder.append("]}").toString();
+    }
+}
@@ -29,6 +29,7 @@ import android.widget.*;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import app.revanced.extension.shared.innertube.client.YouTubeClient;
+import app.revanced.extension.shared.patches.components.LithoFilterStatistics;
 import app.revanced.extension.shared.settings.BaseSettings;
 import app.revanced.extension.shared.settings.BooleanSetting;
 import app.revanced.extension.shared.settings.EnumSetting;
@@ -45,6 +46,7 @@ import app.revanced.extension.youtube.settings.Settings;
 import app.revanced.extension.youtube.utils.ExtendedUtils;
 import app.revanced.extension.youtube.utils.ThemeUtils;
 import org.jetbrains.annotations.NotNull;
+import org.json.JSONException;
 import org.xmlpull.v1.XmlPullParser;
 import org.xmlpull.v1.XmlPullParserException;
 
@@ -1696,6 +1698,40 @@ public class ReVancedPreferenceFragment extends PreferenceFragment {
         });
     }
 
+    /**
+     * Set Preference to show the Litho filter statistics
+     */
+    private void setLithoFilterStatisticsPreference() {
+        Preference viewStatistics = findPreference("revanced_litho_filter_statistics_view");
+        if (viewStatistics == null) {
+            return;
+        }
+        viewStatistics.setOnPreferenceClickListener(pref -> {
+            String statistics = LithoFilterStatistics.exportToString();
+            if (statistics.isEmpty()) {
+                showToastShort(str("revanced_litho_filter_statistics_none"));
+                return false;
+            }
+
+            new AlertDialog.Builder(getContext())
+                    .setTitle(str("revanced_litho_filter_statistics_view_title"))
+                    .setMessage(statistics)
+                    .setPositiveButton(android.R.string.ok, null)
+                    .setNeutralButton(str("revanced_litho_filter_statistics_copy"), (dialog, which) -> {
+                        try {
+                            setClipboard(LithoFilterStatistics.exportToJson(),
+                                    str("revanced_litho_filter_statistics_copied"));
+                        } catch (JSONException ex) {
+                            Logger.printException(() -> "Failed to export Litho filter statistics", ex);
+                        }
+                    })
+                    .setNegativeButton(str("revanced_litho_filter_statistics_reset"),
+                            (dialog, which) -> LithoFilterStatistics.reset())
+                    .show();
+            return false;
+        });
+    }
+
     // endregion Import/Export
 
     @SuppressLint("ResourceType")
@@ -1721,6 +1757,7 @@ public class ReVancedPreferenceFragment extends PreferenceFragment {
 
             // Debug log
             setDebugLogPreference();
+            setLithoFilterStatisticsPreference();
 
             // Store all preferences and their dependencies for search
             initializeCustomDependencies();
@@ -13,6 +13,7 @@ import java.util.Map;
 import java.util.WeakHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import app.revanced.extension.shared.utils.Logger;
 import app.revanced.extension.shared.utils.Utils;
@@ -47,9 +48,11 @@ public final class NavigationBar {
      * until the current navigation button can be determined.
      * <p>
      * Only used when the hardware back button is pressed.
+     * <p>
+     * Multiple litho threads can wait at the same time, so the latch is only cleared
+     * if it's still the same latch the thread waited for.
      */
-    @Nullable
-    private static volatile CountDownLatch navButtonLatch;
+    private static final AtomicReference<CountDownLatch> navButtonLatch = new AtomicReference<>();
 
     /**
      * Map of nav button layout views to Enum type.
@@ -64,19 +67,27 @@ public final class NavigationBar {
     }
 
     private static void createNavButtonLatch() {
-        navButtonLatch = new CountDownLatch(1);
+        navButtonLatch.set(new CountDownLatch(1));
     }
 
     private static void releaseNavButtonLatch() {
-        CountDownLatch latch = navButtonLatch;
+        CountDownLatch latch = navButtonLatch.getAndSet(null);
         if (latch != null) {
-            navButtonLatch = null;
+            latch.countDown();
+        }
+    }
+
+    /**
+     * Releases the latch, only if a newer latch has not been created since.
+     */
+    private static void releaseNavButtonLatch(CountDownLatch latch) {
+        if (navButtonLatch.compareAndSet(latch, null)) {
             latch.countDown();
         }
     }
 
     private static void waitForNavButtonLatchIfNeeded() {
-        CountDownLatch latch = navButtonLatch;
+        CountDownLatch latch = navButtonLatch.get();
         if (latch == null) {
             return;
         }
@@ -100,7 +111,7 @@ public final class NavigationBar {
 
             // Timeout occurred, and a normal event when pressing the physical back button
             // does not change navigation tabs.
-            releaseNavButtonLatch(); // Prevent other threads from waiting for no reason.
+            releaseNavButtonLatch(latch); // Prevent other threads from waiting for no reason.
             Logger.printDebug(() -> "Latch wait timed out");
 
         } catch (InterruptedException ex) {
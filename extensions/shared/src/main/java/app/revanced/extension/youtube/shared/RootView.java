@@ -88,7 +88,7 @@ public final class RootView {
     }
 
     public static boolean isPlayerActive() {
-        return PlayerType.getCurrent().isMaximizedOrFullscreenOrSliding() || isActionBarVisible.get();
+        return PlayerType.getCurrent().isMaximizedOrFullscreenOrSliding() || isActionBarVisible();
     }
 
     public static boolean isShortsActive() {
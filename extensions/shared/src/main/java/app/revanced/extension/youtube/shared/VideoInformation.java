@@ -5,6 +5,7 @@ import static app.revanced.extension.shared.utils.Utils.getFormattedTimeStamp;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import app.revanced.extension.shared.patches.spoof.SpoofStreamingDataPatch;
 import app.revanced.extension.shared.utils.Logger;
 import app.revanced.extension.shared.utils.Utils;
 import app.revanced.extension.youtube.patches.utils.AlwaysRepeatPatch;
@@ -443,6 +444,7 @@ public final class VideoInformation {
     public static void setVideoTime(final long time) {
         videoTime = time;
         Logger.printDebug(() -> "setVideoTime: " + getFormattedTimeStamp(time));
+        SpoofStreamingDataPatch.prefetchNextVideo(time);
     }
 
     /**
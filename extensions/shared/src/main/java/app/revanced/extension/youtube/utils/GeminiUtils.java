@@ -5,6 +5,7 @@ import android.os.Looper;
 import android.text.TextUtils;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import app.revanced.extension.shared.requests.Requester;
 import app.revanced.extension.shared.utils.Logger;
 import app.revanced.extension.youtube.settings.Settings;
 import org.jetbrains.annotations.NotNull;
@@ -17,7 +18,6 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.net.HttpURLConnection;
-import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.Locale;
 import java.util.concurrent.ExecutorService;
@@ -137,8 +137,7 @@ public class GeminiUtils {
             Future<?> taskBeingRun = taskRef.get();
 
             try {
-                URL url = new URL(BASE_API_URL + model + ACTION + apiKey);
-                connection = (HttpURLConnection) url.openConnection();
+                connection = Requester.getConnection(BASE_API_URL + model + ACTION + apiKey);
                 currentConnection = connection;
 
                 connection.setRequestMethod("POST");
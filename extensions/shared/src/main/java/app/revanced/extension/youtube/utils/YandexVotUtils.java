@@ -6,6 +6,7 @@ import android.text.TextUtils;
 import android.util.Pair;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import app.revanced.extension.shared.requests.SharedHttpClient;
 import app.revanced.extension.shared.utils.Logger;
 import okhttp3.*;
 import org.json.JSONArray;
@@ -75,7 +76,7 @@ public class YandexVotUtils {
     private static final char[] HEX_ARRAY = "0123456789abcdef".toCharArray();
 
     // --- State & Utilities ---
-    private static final OkHttpClient httpClient = new OkHttpClient.Builder()
+    private static final OkHttpClient httpClient = SharedHttpClient.getClient().newBuilder()
             .connectTimeout(20, TimeUnit.SECONDS)
             .readTimeout(20, TimeUnit.SECONDS)
             .writeTimeout(20, TimeUnit.SECONDS)
@@ -1,6 +1,7 @@
 package com.liskovsoft.googlecommon.common.helpers
 
 import app.revanced.extension.shared.innertube.utils.ThrottlingParameterUtils
+import app.revanced.extension.shared.requests.SharedHttpClient
 import com.liskovsoft.sharedutils.helpers.Helpers
 import com.liskovsoft.sharedutils.okhttp.OkHttpCommons
 import okhttp3.Headers
@@ -52,7 +53,7 @@ internal object RetrofitOkHttpHelper {
     )
 
     private fun createClient(): OkHttpClient {
-        val builder = OkHttpClient.Builder()
+        val builder = SharedHttpClient.getClient().newBuilder()
         addCommonHeaders(builder)
         OkHttpCommons.setupBuilder(builder)
         return builder.build()
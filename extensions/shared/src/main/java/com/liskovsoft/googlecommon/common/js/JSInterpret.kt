@@ -14,11 +14,13 @@ internal object JSInterpret {
     private val MATCHING_PARENS = mapOf('(' to ')', '{' to '}', '[' to ']')
     private val QUOTES = setOf('\'', '"', '/')
 
+    /**
+     * The function is compiled once by each runtime of [V8RuntimePool],
+     * and each call of the returned function only calls the compiled function.
+     */
     fun extractFunctionFromCode(argNames: List<String>, code: String): (List<String>) -> String? {
         return { args: List<String> ->
-            val fullCode =
-                "(function (${argNames.joinToString(separator = ",")}) { $code })(${args.joinToString(separator = ",", prefix = "'", postfix = "'")})"
-            V8Runtime.instance().evaluateWithErrors(fullCode)
+            V8RuntimePool.call(argNames, code, args)
         }
     }
 
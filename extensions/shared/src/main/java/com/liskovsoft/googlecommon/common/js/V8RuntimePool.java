@@ -0,0 +1,226 @@
+package com.liskovsoft.googlecommon.common.js;
+
+import android.text.TextUtils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.eclipsesource.v8.Releasable;
+import com.eclipsesource.v8.V8;
+import com.eclipsesource.v8.V8Array;
+import com.eclipsesource.v8.V8Function;
+import com.eclipsesource.v8.V8ScriptExecutionException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import app.revanced.extension.shared.utils.Logger;
+
+/**
+ * Small pool of long-lived V8 runtimes, used to call the same functions many times.
+ * <p>
+ * A V8 runtime can only be used by the thread that holds its locker, so each runtime is created and
+ * used by its own worker thread, and calls are handed to the worker threads.
+ * Each function is compiled once by each runtime, and is then called with a function handle.
+ * <p>
+ * {@link V8Runtime} creates a new runtime for each evaluation. That is slow if the same
+ * function is called for every streaming url of a video.
+ */
+public final class V8RuntimePool {
+    private static final int POOL_SIZE = 2;
+
+    /**
+     * Maximum functions kept by each runtime. Usually two functions are used ('n' and signature),
+     * and more functions are only compiled after the player changes.
+     * If exceeded, the runtime is released and a new runtime is created.
+     */
+    private static final int MAX_FUNCTIONS_PER_RUNTIME = 8;
+
+    private static final Worker[] workers = new Worker[POOL_SIZE];
+    private static final AtomicInteger nextWorker = new AtomicInteger();
+
+    static {
+        for (int i = 0; i < POOL_SIZE; i++) {
+            workers[i] = new Worker(i);
+        }
+    }
+
+    private static final class Worker {
+        private final ExecutorService executor;
+
+        /**
+         * Only used by the worker thread.
+         */
+        @Nullable
+        private V8 runtime;
+
+        /**
+         * Compiled functions, keyed by the function arguments and code.
+         * Only used by the worker thread.
+         */
+        private final Map<String, V8Function> functions = new HashMap<>();
+
+        Worker(int index) {
+            executor = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "V8RuntimePool-" + index);
+                // The workers are long-lived, and must not compete with the UI and render threads
+                // while a video is starting. Set explicitly, as the priority is otherwise
+                // inherited from the thread that creates the worker.
+                thread.setPriority(Thread.NORM_PRIORITY);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        private void releaseRuntime() {
+            for (V8Function function : functions.values()) {
+                function.release();
+            }
+            functions.clear();
+            if (runtime != null) {
+                runtime.release(false);
+                runtime = null;
+            }
+        }
+
+        @NonNull
+        private V8Function getFunction(@NonNull List<String> argNames, @NonNull String code) {
+            final String key = argNames + code;
+            V8Function function = functions.get(key);
+            if (function != null) {
+                return function;
+            }
+
+            if (functions.size() >= MAX_FUNCTIONS_PER_RUNTIME) {
+                releaseRuntime();
+            }
+            if (runtime == null) {
+                runtime = V8.createV8Runtime();
+            }
+
+            Object compiled = runtime.executeScript("(function (" + TextUtils.join(",", argNames) + ") { " + code + " })");
+            if (!(compiled instanceof V8Function)) {
+                if (compiled instanceof Releasable releasable) {
+                    releasable.release();
+                }
+                throw new IllegalStateException("Script is not a function");
+            }
+            function = (V8Function) compiled;
+            functions.put(key, function);
+            return function;
+        }
+
+        @Nullable
+        private String callOnWorkerThread(@NonNull List<String> argNames, @NonNull String code,
+                                          @NonNull List<String> args) {
+            V8Function function = getFunction(argNames, code);
+            V8Array parameters = new V8Array(runtime);
+            try {
+                for (String arg : args) {
+                    parameters.push(arg);
+                }
+                Object result = function.call(null, parameters);
+                if (result instanceof String string) {
+                    return string;
+                }
+                if (result instanceof Releasable releasable) {
+                    releasable.release();
+                }
+                return null;
+            } finally {
+                parameters.release();
+            }
+        }
+
+        @NonNull
+        private List<String> callEachOnWorkerThread(@NonNull List<String> argNames, @NonNull String code,
+                                                    @NonNull List<String> args) {
+            List<String> results = new ArrayList<>(args.size());
+            for (String arg : args) {
+                String result = null;
+                try {
+                    result = callOnWorkerThread(argNames, code, Collections.singletonList(arg));
+                } catch (V8ScriptExecutionException ex) {
+                    Logger.printException(() -> "V8RuntimePool call failed for argument: " + arg, ex);
+                }
+                results.add(result);
+            }
+            return results;
+        }
+    }
+
+    @NonNull
+    private static Worker nextWorker() {
+        return workers[Math.floorMod(nextWorker.getAndIncrement(), POOL_SIZE)];
+    }
+
+    private V8RuntimePool() {
+    }
+
+    /**
+     * Calls a function with string arguments.
+     * The function is compiled by a runtime the first time the runtime calls it.
+     *
+     * @param argNames Names of the function arguments.
+     * @param code     Body of the function.
+     * @param args     Function arguments.
+     * @return The string returned by the function, or null if the function did not return a string.
+     * @throws V8ScriptExecutionException If the script throws an error.
+     */
+    @Nullable
+    public static String call(@NonNull List<String> argNames, @NonNull String code,
+                              @NonNull List<String> args) throws V8ScriptExecutionException {
+        Worker worker = nextWorker();
+        return await(worker.executor.submit(() -> worker.callOnWorkerThread(argNames, code, args)));
+    }
+
+    /**
+     * Calls a function once for each argument, with a single hand off to a runtime.
+     * Functions submitted one after the other are called in parallel by different runtimes.
+     * <p>
+     * An argument that throws a script error has a null result, and does not stop the other calls.
+     *
+     * @param argNames Names of the function arguments.
+     * @param code     Body of the function.
+     * @param args     The argument of each call.
+     * @return The result of each call, in the order of the arguments. Use {@link #await(Future)} for the results.
+     */
+    @NonNull
+    public static Future<List<String>> submitEach(@NonNull List<String> argNames, @NonNull String code,
+                                                  @NonNull List<String> args) {
+        Worker worker = nextWorker();
+        return worker.executor.submit(() -> worker.callEachOnWorkerThread(argNames, code, args));
+    }
+
+    /**
+     * Waits for the result of a call.
+     *
+     * @return The result, or null if the call failed or was interrupted.
+     * @throws V8ScriptExecutionException If the script throws an error.
+     */
+    @Nullable
+    public static <T> T await(@NonNull Future<T> future) throws V8ScriptExecutionException {
+        try {
+            return future.get();
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                // Includes V8ScriptExecutionException, so callers can handle script errors.
+                throw runtimeException;
+            }
+            Logger.printException(() -> "V8RuntimePool call failed", ex);
+        } catch (InterruptedException ex) {
+            Logger.printException(() -> "V8RuntimePool call interrupted", ex);
+            Thread.currentThread().interrupt(); // Restore interrupt status flag.
+        }
+        return null;
+    }
+}
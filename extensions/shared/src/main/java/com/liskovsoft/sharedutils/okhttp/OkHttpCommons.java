@@ -6,8 +6,8 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.concurrent.TimeUnit;
 
+import app.revanced.extension.shared.requests.SharedHttpClient;
 import okhttp3.CipherSuite;
-import okhttp3.ConnectionPool;
 import okhttp3.ConnectionSpec;
 import okhttp3.OkHttpClient;
 import okhttp3.OkHttpClient.Builder;
@@ -76,7 +76,9 @@ public final class OkHttpCommons {
         // NOTE: SocketTimeoutException fix: setup connection pool with 0 (!) idle connections!
         //okBuilder.connectionPool(new ConnectionPool(0, READ_TIMEOUT_MS, TimeUnit.MILLISECONDS));
         //okBuilder.connectionPool(new ConnectionPool(10, 24, TimeUnit.HOURS)); // Video unavailable fix???
-        okBuilder.connectionPool(new ConnectionPool(20, 5, TimeUnit.MINUTES)); // fix npe on pool dispose???
+        //okBuilder.connectionPool(new ConnectionPool(20, 5, TimeUnit.MINUTES)); // fix npe on pool dispose???
+        // Share the idle connections with the other extension requests.
+        okBuilder.connectionPool(SharedHttpClient.getConnectionPool());
     }
 
     /**
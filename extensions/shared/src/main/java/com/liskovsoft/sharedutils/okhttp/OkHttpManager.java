@@ -6,6 +6,7 @@ import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
+import app.revanced.extension.shared.requests.SharedHttpClient;
 import app.revanced.extension.shared.utils.Logger;
 import okhttp3.Headers;
 import okhttp3.MediaType;
@@ -175,7 +176,7 @@ public class OkHttpManager {
     public OkHttpClient getClient() {
         if (mClient == null) {
             OkHttpCommons.enableProfiler = mEnableProfiler;
-            mClient = OkHttpCommons.setupBuilder(new OkHttpClient.Builder()).build();
+            mClient = OkHttpCommons.setupBuilder(SharedHttpClient.getClient().newBuilder()).build();
         }
 
         return mClient;
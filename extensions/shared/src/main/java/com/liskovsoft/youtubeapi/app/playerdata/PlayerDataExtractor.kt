@@ -3,14 +3,41 @@ package com.liskovsoft.youtubeapi.app.playerdata
 import app.revanced.extension.shared.utils.Logger
 import com.eclipsesource.v8.V8ScriptExecutionException
 import com.liskovsoft.googlecommon.common.js.JSInterpret
-
-internal class PlayerDataExtractor(val jsCode: String?) {
-    private var mNFuncCode: Pair<List<String>, String>? = null
-    private var mSigFuncCode: Pair<List<String>, String>? = null
+import com.liskovsoft.googlecommon.common.js.V8RuntimePool
+
+internal class PlayerDataExtractor private constructor(
+    val jsCode: String?,
+    nFuncCode: Pair<List<String>, String>?,
+    sigFuncCode: Pair<List<String>, String>?,
+) {
+    private var mNFuncCode: Pair<List<String>, String>? = nFuncCode
+    private var mSigFuncCode: Pair<List<String>, String>? = sigFuncCode
     private var mNSigTmp: Pair<String, String?>? = null
 
+    constructor(jsCode: String?) : this(jsCode, null, null)
+
+    /**
+     * Uses function code extracted and checked by a previous extractor of the same player js.
+     */
+    constructor(
+        nFuncCode: Pair<List<String>, String>?,
+        sigFuncCode: Pair<List<String>, String>?
+    ) : this(null, nFuncCode, sigFuncCode)
+
+    /**
+     * The extracted 'n' function code, or null if extracting failed.
+     */
+    val nFuncCode: Pair<List<String>, String>?
+        get() = mNFuncCode
+
+    /**
+     * The extracted signature function code, or null if extracting failed.
+     */
+    val sigFuncCode: Pair<List<String>, String>?
+        get() = mSigFuncCode
+
     init {
-        if (mNFuncCode == null || mSigFuncCode == null) {
+        if (jsCode != null) {
             fetchAllData()
             checkAllData()
         }
@@ -32,6 +59,30 @@ internal class PlayerDataExtractor(val jsCode: String?) {
         return sig
     }
 
+    /**
+     * Deobfuscates many signature and 'n' parameters. Each function is called for all of its parameters
+     * with a single hand off to a javascript runtime, and the two functions are called in parallel.
+     *
+     * @return The deobfuscated signature and 'n' parameters, in the order of the parameters.
+     *         A parameter that could not be deobfuscated is null.
+     */
+    fun extractSigsAndNSigs(sParams: List<String>, nParams: List<String>): Pair<List<String?>, List<String?>> {
+        val sigFuncCode = mSigFuncCode
+        val nFuncCode = mNFuncCode
+        val sigFuture = if (sigFuncCode != null && sParams.isNotEmpty())
+            V8RuntimePool.submitEach(sigFuncCode.first, sigFuncCode.second, sParams)
+        else
+            null
+        val nFuture = if (nFuncCode != null && nParams.isNotEmpty())
+            V8RuntimePool.submitEach(nFuncCode.first, nFuncCode.second, nParams)
+        else
+            null
+
+        val sigs: List<String?> = sigFuture?.let { V8RuntimePool.await(it) } ?: List(sParams.size) { null }
+        val nSigs: List<String?> = nFuture?.let { V8RuntimePool.await(it) } ?: List(nParams.size) { null }
+        return Pair(sigs, nSigs)
+    }
+
     private fun extractNSigReal(nParam: String): String? {
         val funcCode = mNFuncCode ?: return null
 
@@ -20,3 +20,6 @@ pluginManagement {
 plugins {
     id("app.revanced.patches") version "1.0.0-dev.6"
 }
+
+// JVM benchmarks of the extension search code. Not included in the patches or extensions.
+include(":benchmarks")